@@ -0,0 +1,77 @@
+package com.keksss.abap.ai.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Everything an analysis does before the LLM is called: parsing, signature,
+ * compaction to the token budget and prompt construction, for dumps from
+ * 5 KB to 10 MB
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DumpPipelineBenchmark {
+
+    @Param({ "5120", "102400", "1048576", "10485760" })
+    public int dumpSize;
+
+    private String dumpContent;
+    private ParsedDump parsedDump;
+    private LlmConfig config;
+    private TokenCounter tokenCounter;
+
+    @Setup
+    public void setUp() {
+        dumpContent = SyntheticDumps.generate(dumpSize, 42);
+        parsedDump = DumpParser.parse(dumpContent);
+        config = new LlmConfig.Builder()
+                .provider(LlmProvider.OPENAI)
+                .model("gpt-4o")
+                .build();
+        tokenCounter = TokenCounter.forConfig(config);
+    }
+
+    @Benchmark
+    public ParsedDump parse() {
+        return DumpParser.parse(dumpContent);
+    }
+
+    @Benchmark
+    public DumpSignature signature() {
+        return DumpSignature.of(parsedDump);
+    }
+
+    @Benchmark
+    public String compact() {
+        return DumpCompactor.compact(parsedDump, config.getMaxInputTokens(), tokenCounter);
+    }
+
+    @Benchmark
+    public int countTokens() {
+        return tokenCounter.count(dumpContent);
+    }
+
+    /**
+     * What {@link AbapDumpAnalyzer} does between receiving the dump and
+     * calling the model
+     */
+    @Benchmark
+    public LlmPrompt buildPrompt() {
+        return AbapDumpAnalyzer.buildPrompt(config, null, "UNCAUGHT_EXCEPTION", DumpParser.parse(dumpContent));
+    }
+}
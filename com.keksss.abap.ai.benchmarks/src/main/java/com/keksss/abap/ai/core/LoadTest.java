@@ -0,0 +1,184 @@
+package com.keksss.abap.ai.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test: drives concurrent analyses through
+ * {@link AbapDumpAnalyzer} against a {@link MockLlmServer} and reports
+ * throughput and latency percentiles. Every layer between the analyzer and
+ * the wire runs for real (prompt build, model registry, rate limiter,
+ * retries, circuit breaker, LangChain4j client). Exits with status 1 if more
+ * requests fail than --max-failure-rate allows or if an analysis throws, so
+ * CI can gate on it. Preferences are not available outside of the platform;
+ * all settings other than the options below have their default values.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.keksss.abap.ai.core.LoadTest [--option value]...}
+ * <br>
+ * Options (defaults in brackets): provider [OLLAMA], requests [200],
+ * concurrency [8], stream [true], latency-ms [200], tokens-per-second [100],
+ * answer-tokens [60], error-rate [0], rate-limit-rate [0], dump-size [20000],
+ * requests-per-minute [0], max-failure-rate [1]
+ */
+public final class LoadTest {
+
+    private static final Map<String, String> DEFAULTS = new HashMap<>();
+
+    static {
+        DEFAULTS.put("provider", "OLLAMA");
+        DEFAULTS.put("requests", "200");
+        DEFAULTS.put("concurrency", "8");
+        DEFAULTS.put("stream", "true");
+        DEFAULTS.put("latency-ms", "200");
+        DEFAULTS.put("tokens-per-second", "100");
+        DEFAULTS.put("answer-tokens", "60");
+        DEFAULTS.put("error-rate", "0");
+        DEFAULTS.put("rate-limit-rate", "0");
+        DEFAULTS.put("dump-size", "20000");
+        DEFAULTS.put("requests-per-minute", "0");
+        DEFAULTS.put("max-failure-rate", "1");
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        LlmProvider provider = LlmProvider.valueOf(options.get("provider").toUpperCase(Locale.ROOT));
+        if (!provider.supportsBaseUrl()) {
+            // The Gemini client of LangChain4j has a fixed endpoint
+            System.err.println(provider.getDisplayName() + " cannot be pointed at a local server; "
+                    + "use OPENAI, ANTHROPIC or OLLAMA");
+            System.exit(2);
+        }
+        int requests = Integer.parseInt(options.get("requests"));
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        boolean stream = Boolean.parseBoolean(options.get("stream"));
+        double maxFailureRate = Double.parseDouble(options.get("max-failure-rate"));
+
+        MockLlmServer.Builder serverBuilder = new MockLlmServer.Builder()
+                .latencyMillis(Long.parseLong(options.get("latency-ms")))
+                .tokensPerSecond(Integer.parseInt(options.get("tokens-per-second")))
+                .answerTokens(Integer.parseInt(options.get("answer-tokens")))
+                .errorRate(Double.parseDouble(options.get("error-rate")))
+                .rateLimitRate(Double.parseDouble(options.get("rate-limit-rate")));
+
+        try (MockLlmServer server = serverBuilder.start()) {
+            LlmConfig config = new LlmConfig.Builder()
+                    .provider(provider)
+                    .apiKey("mock")
+                    .model(provider == LlmProvider.OPENAI ? "gpt-mock" : "mock")
+                    .baseUrl(server.getBaseUrl(provider))
+                    .requestsPerMinute(Integer.parseInt(options.get("requests-per-minute")))
+                    .build();
+            String dump = SyntheticDumps.generate(Integer.parseInt(options.get("dump-size")), 42);
+
+            LatencyHistogram total = new LatencyHistogram();
+            LatencyHistogram firstToken = new LatencyHistogram();
+            AtomicInteger failed = new AtomicInteger();
+            Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+            AbapDumpAnalyzer analyzer = new AbapDumpAnalyzer();
+
+            System.out.println("Running " + requests + " analyses against a mock " + provider.getDisplayName()
+                    + " with " + concurrency + " threads" + (stream ? ", streaming" : "") + " ...");
+            ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+            List<Future<?>> futures = new ArrayList<>();
+            long started = System.nanoTime();
+            long wallMillis;
+            try {
+                for (int i = 0; i < requests; i++) {
+                    futures.add(pool.submit(() -> {
+                        long requestStart = System.nanoTime();
+                        AtomicLong firstTokenAt = new AtomicLong();
+                        AnalysisResult result = analyzer.analyze(new AnalysisRequest.Builder()
+                                .title("UNCAUGHT_EXCEPTION")
+                                .dumpContent(dump)
+                                .config(config)
+                                .forceReanalyze(true)
+                                .streamListener(stream
+                                        ? text -> firstTokenAt.compareAndSet(0, System.nanoTime())
+                                        : null)
+                                .build());
+                        if (result.isSuccess()) {
+                            total.record(AnalysisMetrics.elapsedMillis(requestStart));
+                            if (firstTokenAt.get() != 0) {
+                                firstToken.record(TimeUnit.NANOSECONDS.toMillis(firstTokenAt.get() - requestStart));
+                            }
+                        } else {
+                            failed.incrementAndGet();
+                            String message = result.getErrorMessage() != null ? result.getErrorMessage() : "unknown";
+                            failures.computeIfAbsent(message.split("\n")[0], key -> new AtomicInteger())
+                                    .incrementAndGet();
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                wallMillis = AnalysisMetrics.elapsedMillis(started);
+            } catch (ExecutionException e) {
+                System.err.println("Analysis aborted the load test:");
+                e.getCause().printStackTrace();
+                System.exit(1);
+                return;
+            } finally {
+                pool.shutdownNow();
+            }
+
+            System.out.println();
+            System.out.printf(Locale.ROOT, "Duration         %.1f s%n", wallMillis / 1000.0);
+            System.out.printf(Locale.ROOT, "Throughput       %.2f analyses/s%n", requests * 1000.0 / Math.max(1, wallMillis));
+            System.out.println("Succeeded        " + total.getCount());
+            System.out.println("Failed           " + failed.get());
+            System.out.println("Latency          " + percentiles(total));
+            if (stream) {
+                System.out.println("First token      " + percentiles(firstToken));
+            }
+            System.out.println("Server requests  " + server.getRequestCount() + " (" + server.getRateLimitedCount()
+                    + " answered 429, " + server.getErrorCount() + " answered 500)");
+            failures.entrySet().stream()
+                    .sorted((a, b) -> b.getValue().get() - a.getValue().get())
+                    .limit(5)
+                    .forEach(entry -> System.out.println("  " + entry.getValue() + "x " + entry.getKey()));
+
+            double failureRate = requests == 0 ? 0 : (double) failed.get() / requests;
+            if (failureRate > maxFailureRate) {
+                System.out.printf(Locale.ROOT, "%nFailure rate %.1f%% exceeds the allowed %.1f%%%n",
+                        failureRate * 100, maxFailureRate * 100);
+                System.exit(1);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static String percentiles(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "-";
+        }
+        return "p50 " + histogram.getValueAtPercentile(50) + " ms, p90 " + histogram.getValueAtPercentile(90)
+                + " ms, p99 " + histogram.getValueAtPercentile(99) + " ms, max " + histogram.getMax() + " ms";
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length || !DEFAULTS.containsKey(args[i].substring(2))) {
+                throw new IllegalArgumentException("Unknown option or missing value: " + args[i]
+                        + ". Options: " + DEFAULTS.keySet());
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
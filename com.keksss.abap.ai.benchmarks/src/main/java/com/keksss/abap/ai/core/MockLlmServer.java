@@ -0,0 +1,460 @@
+package com.keksss.abap.ai.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the LLM provider APIs, speaking the wire formats the
+ * LangChain4j clients and the model list requests use: OpenAI chat
+ * completions, Anthropic messages, Gemini generateContent and Ollama chat,
+ * each blocking and streaming, plus the model list endpoints. Latency before
+ * the first token, token rate, server errors and rate limiting are
+ * configurable, so the client stack can be exercised without network or API
+ * spend.
+ */
+public final class MockLlmServer implements AutoCloseable {
+
+    private static final Gson GSON = new Gson();
+
+    private static final String ANSWER = "The dump is caused by a division by zero in method CALCULATE_UNIT_PRICE "
+            + "because the item quantity is zero. Check IV_QUANTITY before dividing and handle "
+            + "CX_SY_ZERODIVIDE where the price is calculated. ";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Random random;
+    private final long latencyMillis;
+    private final int tokensPerSecond;
+    private final double errorRate;
+    private final double rateLimitRate;
+    private final int retryAfterSeconds;
+    private final int answerTokens;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    private MockLlmServer(Builder builder) throws IOException {
+        this.random = new Random(builder.seed);
+        this.latencyMillis = builder.latencyMillis;
+        this.tokensPerSecond = builder.tokensPerSecond;
+        this.errorRate = builder.errorRate;
+        this.rateLimitRate = builder.rateLimitRate;
+        this.retryAfterSeconds = builder.retryAfterSeconds;
+        this.answerTokens = builder.answerTokens;
+
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Mock LLM server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Base URL to configure for a provider
+     *
+     * @param provider emulated provider
+     * @return e.g. "http://127.0.0.1:54321/v1" for OpenAI
+     */
+    public String getBaseUrl(LlmProvider provider) {
+        String root = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        switch (provider) {
+            case OPENAI:
+            case ANTHROPIC:
+                return root + "/v1";
+            case GOOGLE_AI:
+                return root + "/v1beta";
+            default:
+                return root;
+        }
+    }
+
+    /**
+     * @return requests received, including injected failures
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return requests answered with an injected server error
+     */
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * @return requests answered with an injected 429
+     */
+    public long getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            String path = exchange.getRequestURI().getPath();
+            String rawBody = readBody(exchange);
+            JsonObject body = parseJson(rawBody);
+            LlmProvider provider = providerOf(exchange);
+            if (provider == null) {
+                send(exchange, 404, "application/json", "{\"error\":\"unknown endpoint " + path + "\"}");
+                return;
+            }
+
+            if (path.endsWith("/models") || path.endsWith("/api/tags")) {
+                send(exchange, 200, "application/json", modelList(provider));
+                return;
+            }
+
+            double roll = random.nextDouble();
+            if (roll < rateLimitRate) {
+                rateLimited.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+                send(exchange, 429, "application/json", rateLimitBody(provider));
+                return;
+            }
+            if (roll < rateLimitRate + errorRate) {
+                errors.incrementAndGet();
+                send(exchange, 500, "application/json", serverErrorBody(provider));
+                return;
+            }
+
+            // About four characters per token, like the real tokenizers for English text
+            int promptTokens = Math.max(1, rawBody.length() / 4);
+            boolean streaming = provider == LlmProvider.GOOGLE_AI
+                    ? path.contains(":streamGenerateContent")
+                    : body != null && body.has("stream") && body.get("stream").getAsBoolean();
+
+            pause(latencyMillis);
+            if (streaming) {
+                stream(exchange, provider, promptTokens);
+            } else {
+                pause(tokensPerSecond > 0 ? answerTokens * 1000L / tokensPerSecond : 0);
+                send(exchange, 200, "application/json", completeResponse(provider, answer(), promptTokens));
+            }
+        }
+    }
+
+    private static LlmProvider providerOf(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        if (path.startsWith("/v1/chat/completions")) {
+            return LlmProvider.OPENAI;
+        }
+        if (path.startsWith("/v1/messages")) {
+            return LlmProvider.ANTHROPIC;
+        }
+        if (path.equals("/v1/models")) {
+            // Same endpoint for both, Anthropic clients send their API version
+            return exchange.getRequestHeaders().containsKey("anthropic-version")
+                    ? LlmProvider.ANTHROPIC
+                    : LlmProvider.OPENAI;
+        }
+        if (path.startsWith("/v1beta/models")) {
+            return LlmProvider.GOOGLE_AI;
+        }
+        if (path.startsWith("/api/")) {
+            return LlmProvider.OLLAMA;
+        }
+        return null;
+    }
+
+    private void stream(HttpExchange exchange, LlmProvider provider, int promptTokens) throws IOException {
+        boolean ndjson = provider == LlmProvider.OLLAMA;
+        exchange.getResponseHeaders().add("Content-Type", ndjson ? "application/x-ndjson" : "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        long tokenPause = tokensPerSecond > 0 ? 1000L / tokensPerSecond : 0;
+
+        if (provider == LlmProvider.ANTHROPIC) {
+            event(out, "message_start", "{\"type\":\"message_start\",\"message\":{\"id\":\"msg_mock\",\"type\":\"message\","
+                    + "\"role\":\"assistant\",\"model\":\"claude-mock\",\"content\":[],\"stop_reason\":null,"
+                    + "\"usage\":{\"input_tokens\":" + promptTokens + ",\"output_tokens\":1}}}");
+            event(out, "content_block_start",
+                    "{\"type\":\"content_block_start\",\"index\":0,\"content_block\":{\"type\":\"text\",\"text\":\"\"}}");
+        }
+
+        String[] tokens = answer().split("(?<= )");
+        for (String token : tokens) {
+            String text = GSON.toJson(token);
+            switch (provider) {
+                case OPENAI:
+                    event(out, null, "{\"id\":\"chatcmpl-mock\",\"object\":\"chat.completion.chunk\",\"created\":0,"
+                            + "\"model\":\"gpt-mock\",\"choices\":[{\"index\":0,\"delta\":{\"content\":" + text
+                            + "},\"finish_reason\":null}]}");
+                    break;
+                case ANTHROPIC:
+                    event(out, "content_block_delta", "{\"type\":\"content_block_delta\",\"index\":0,"
+                            + "\"delta\":{\"type\":\"text_delta\",\"text\":" + text + "}}");
+                    break;
+                case GOOGLE_AI:
+                    event(out, null, "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":" + text
+                            + "}],\"role\":\"model\"},\"index\":0}]}");
+                    break;
+                default:
+                    line(out, "{\"model\":\"llama-mock\",\"created_at\":\"2024-01-01T00:00:00Z\","
+                            + "\"message\":{\"role\":\"assistant\",\"content\":" + text + "},\"done\":false}");
+            }
+            pause(tokenPause);
+        }
+
+        int outputTokens = tokens.length;
+        switch (provider) {
+            case OPENAI:
+                event(out, null, "{\"id\":\"chatcmpl-mock\",\"object\":\"chat.completion.chunk\",\"created\":0,"
+                        + "\"model\":\"gpt-mock\",\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}],"
+                        + "\"usage\":" + openAiUsage(promptTokens, outputTokens) + "}");
+                event(out, null, "[DONE]");
+                break;
+            case ANTHROPIC:
+                event(out, "content_block_stop", "{\"type\":\"content_block_stop\",\"index\":0}");
+                event(out, "message_delta", "{\"type\":\"message_delta\",\"delta\":{\"stop_reason\":\"end_turn\","
+                        + "\"stop_sequence\":null},\"usage\":{\"output_tokens\":" + outputTokens + "}}");
+                event(out, "message_stop", "{\"type\":\"message_stop\"}");
+                break;
+            case GOOGLE_AI:
+                event(out, null, "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"\"}],\"role\":\"model\"},"
+                        + "\"finishReason\":\"STOP\",\"index\":0}],\"usageMetadata\":"
+                        + geminiUsage(promptTokens, outputTokens) + "}");
+                break;
+            default:
+                line(out, "{\"model\":\"llama-mock\",\"created_at\":\"2024-01-01T00:00:00Z\","
+                        + "\"message\":{\"role\":\"assistant\",\"content\":\"\"},\"done\":true,\"done_reason\":\"stop\","
+                        + "\"prompt_eval_count\":" + promptTokens + ",\"eval_count\":" + outputTokens + "}");
+        }
+        out.close();
+    }
+
+    private static String completeResponse(LlmProvider provider, String answer, int promptTokens) {
+        String text = GSON.toJson(answer);
+        int outputTokens = answer.split(" ").length;
+        switch (provider) {
+            case OPENAI:
+                return "{\"id\":\"chatcmpl-mock\",\"object\":\"chat.completion\",\"created\":0,\"model\":\"gpt-mock\","
+                        + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":" + text + "},"
+                        + "\"finish_reason\":\"stop\"}],\"usage\":" + openAiUsage(promptTokens, outputTokens) + "}";
+            case ANTHROPIC:
+                return "{\"id\":\"msg_mock\",\"type\":\"message\",\"role\":\"assistant\",\"model\":\"claude-mock\","
+                        + "\"content\":[{\"type\":\"text\",\"text\":" + text + "}],\"stop_reason\":\"end_turn\","
+                        + "\"stop_sequence\":null,\"usage\":{\"input_tokens\":" + promptTokens
+                        + ",\"output_tokens\":" + outputTokens + "}}";
+            case GOOGLE_AI:
+                return "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":" + text + "}],\"role\":\"model\"},"
+                        + "\"finishReason\":\"STOP\",\"index\":0}],\"usageMetadata\":"
+                        + geminiUsage(promptTokens, outputTokens) + "}";
+            default:
+                return "{\"model\":\"llama-mock\",\"created_at\":\"2024-01-01T00:00:00Z\",\"message\":{\"role\":\"assistant\","
+                        + "\"content\":" + text + "},\"done\":true,\"done_reason\":\"stop\",\"prompt_eval_count\":"
+                        + promptTokens + ",\"eval_count\":" + outputTokens + "}";
+        }
+    }
+
+    private static String modelList(LlmProvider provider) {
+        switch (provider) {
+            case GOOGLE_AI:
+                return "{\"models\":[{\"name\":\"models/gemini-mock\",\"displayName\":\"Gemini Mock\","
+                        + "\"supportedGenerationMethods\":[\"generateContent\"]}]}";
+            case OLLAMA:
+                return "{\"models\":[{\"name\":\"llama-mock:latest\",\"model\":\"llama-mock:latest\",\"size\":1}]}";
+            case ANTHROPIC:
+                return "{\"data\":[{\"type\":\"model\",\"id\":\"claude-mock\",\"display_name\":\"Claude Mock\"}],"
+                        + "\"has_more\":false}";
+            default:
+                return "{\"object\":\"list\",\"data\":[{\"id\":\"gpt-mock\",\"object\":\"model\",\"owned_by\":\"mock\"}]}";
+        }
+    }
+
+    private String rateLimitBody(LlmProvider provider) {
+        switch (provider) {
+            case OPENAI:
+                return "{\"error\":{\"message\":\"Rate limit reached. Please try again in " + retryAfterSeconds
+                        + "s.\",\"type\":\"requests\",\"code\":\"rate_limit_exceeded\"}}";
+            case ANTHROPIC:
+                return "{\"type\":\"error\",\"error\":{\"type\":\"rate_limit_error\",\"message\":\"Rate limited, "
+                        + "retry-after: " + retryAfterSeconds + "\"}}";
+            case GOOGLE_AI:
+                return "{\"error\":{\"code\":429,\"message\":\"Resource has been exhausted\",\"status\":\"RESOURCE_EXHAUSTED\","
+                        + "\"details\":[{\"@type\":\"type.googleapis.com/google.rpc.RetryInfo\",\"retryDelay\":\""
+                        + retryAfterSeconds + "s\"}]}}";
+            default:
+                return "{\"error\":\"rate limited, retry-after: " + retryAfterSeconds + "\"}";
+        }
+    }
+
+    private static String serverErrorBody(LlmProvider provider) {
+        switch (provider) {
+            case OPENAI:
+                return "{\"error\":{\"message\":\"The server had an error\",\"type\":\"server_error\"}}";
+            case ANTHROPIC:
+                return "{\"type\":\"error\",\"error\":{\"type\":\"api_error\",\"message\":\"Internal server error\"}}";
+            case GOOGLE_AI:
+                return "{\"error\":{\"code\":500,\"message\":\"Internal error\",\"status\":\"INTERNAL\"}}";
+            default:
+                return "{\"error\":\"internal server error\"}";
+        }
+    }
+
+    private static String openAiUsage(int promptTokens, int outputTokens) {
+        return "{\"prompt_tokens\":" + promptTokens + ",\"completion_tokens\":" + outputTokens
+                + ",\"total_tokens\":" + (promptTokens + outputTokens) + "}";
+    }
+
+    private static String geminiUsage(int promptTokens, int outputTokens) {
+        return "{\"promptTokenCount\":" + promptTokens + ",\"candidatesTokenCount\":" + outputTokens
+                + ",\"totalTokenCount\":" + (promptTokens + outputTokens) + "}";
+    }
+
+    private String answer() {
+        StringBuilder answer = new StringBuilder();
+        String[] words = ANSWER.split(" ");
+        for (int i = 0; i < answerTokens; i++) {
+            answer.append(words[i % words.length]).append(' ');
+        }
+        return answer.toString().trim();
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static JsonObject parseJson(String body) {
+        if (body.isEmpty()) {
+            return null;
+        }
+        try {
+            JsonElement json = GSON.fromJson(body, JsonElement.class);
+            return json != null && json.isJsonObject() ? json.getAsJsonObject() : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void event(OutputStream out, String name, String data) throws IOException {
+        String event = (name != null ? "event: " + name + "\n" : "") + "data: " + data + "\n\n";
+        out.write(event.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void line(OutputStream out, String json) throws IOException {
+        out.write((json + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Builder for {@link MockLlmServer}
+     */
+    public static class Builder {
+        private int port;
+        private long latencyMillis = 200;
+        private int tokensPerSecond = 100;
+        private double errorRate;
+        private double rateLimitRate;
+        private int retryAfterSeconds = 1;
+        private int answerTokens = 60;
+        private long seed = 42;
+
+        /** Port to listen on, 0 (default) for any free port */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /** Delay before the first token */
+        public Builder latencyMillis(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+            return this;
+        }
+
+        /** Generation speed, 0 for unlimited */
+        public Builder tokensPerSecond(int tokensPerSecond) {
+            this.tokensPerSecond = tokensPerSecond;
+            return this;
+        }
+
+        /** Share of requests answered with HTTP 500, between 0 and 1 */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /** Share of requests answered with HTTP 429, between 0 and 1 */
+        public Builder rateLimitRate(double rateLimitRate) {
+            this.rateLimitRate = rateLimitRate;
+            return this;
+        }
+
+        /** Delay announced with a 429 */
+        public Builder retryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+            return this;
+        }
+
+        /** Length of each answer */
+        public Builder answerTokens(int answerTokens) {
+            this.answerTokens = answerTokens;
+            return this;
+        }
+
+        /** Seed for fault injection, for repeatable runs */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Starts the server
+         *
+         * @return running server
+         * @throws IOException if the port cannot be bound
+         */
+        public MockLlmServer start() throws IOException {
+            return new MockLlmServer(this);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.keksss.abap.ai.core;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Streaming parse of the model list responses fetched for the preference
+ * page, in the shape each provider returns them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelListParsingBenchmark {
+
+    @Param({ "20", "200", "2000" })
+    public int modelCount;
+
+    private String googleAiBody;
+    private String openAiBody;
+    private String anthropicBody;
+    private String ollamaBody;
+
+    @Setup
+    public void setUp() {
+        StringBuilder google = new StringBuilder("{\"models\": [");
+        StringBuilder openAi = new StringBuilder("{\"object\": \"list\", \"data\": [");
+        StringBuilder anthropic = new StringBuilder("{\"data\": [");
+        StringBuilder ollama = new StringBuilder("{\"models\": [");
+        for (int i = 0; i < modelCount; i++) {
+            String separator = i > 0 ? "," : "";
+            google.append(separator).append("{\"name\": \"models/gemini-2.0-flash-").append(i)
+                    .append("\", \"version\": \"2.0\", \"displayName\": \"Gemini 2.0 Flash ").append(i)
+                    .append("\", \"description\": \"Fast and versatile multimodal model for scaling across diverse tasks\", ")
+                    .append("\"inputTokenLimit\": 1048576, \"outputTokenLimit\": 8192, ")
+                    .append("\"supportedGenerationMethods\": [\"generateContent\", \"countTokens\"]}");
+            openAi.append(separator).append("{\"id\": \"").append(i % 3 == 0 ? "text-embedding-" : "gpt-4o-")
+                    .append(i).append("\", \"object\": \"model\", \"created\": 1715367049, \"owned_by\": \"system\"}");
+            anthropic.append(separator).append("{\"type\": \"model\", \"id\": \"claude-3-5-sonnet-").append(i)
+                    .append("\", \"display_name\": \"Claude 3.5 Sonnet\", \"created_at\": \"2024-10-22T00:00:00Z\"}");
+            ollama.append(separator).append("{\"name\": \"llama3.1:").append(i).append("b\", \"model\": \"llama3.1:")
+                    .append(i).append("b\", \"modified_at\": \"2024-09-03T10:20:14.1Z\", \"size\": 4661230766, ")
+                    .append("\"digest\": \"42182419e9508c30c4b1fe55015f06b65f4ca4b9e28a744be55008d21998a093\", ")
+                    .append("\"details\": {\"format\": \"gguf\", \"family\": \"llama\", \"parameter_size\": \"8.0B\", ")
+                    .append("\"quantization_level\": \"Q4_0\"}}");
+        }
+        googleAiBody = google.append("]}").toString();
+        openAiBody = openAi.append("]}").toString();
+        anthropicBody = anthropic.append("], \"has_more\": false}").toString();
+        ollamaBody = ollama.append("]}").toString();
+    }
+
+    @Benchmark
+    public List<String> googleAi() throws IOException {
+        return ModelListFormat.GOOGLE_AI.parse(new StringReader(googleAiBody));
+    }
+
+    @Benchmark
+    public List<String> openAi() throws IOException {
+        return ModelListFormat.OPENAI.parse(new StringReader(openAiBody));
+    }
+
+    @Benchmark
+    public List<String> anthropic() throws IOException {
+        return ModelListFormat.ANTHROPIC.parse(new StringReader(anthropicBody));
+    }
+
+    @Benchmark
+    public List<String> ollama() throws IOException {
+        return ModelListFormat.OLLAMA.parse(new StringReader(ollamaBody));
+    }
+}
@@ -0,0 +1,73 @@
+package com.keksss.abap.ai.core;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Assembly of the result view HTML from model answers, both for answers
+ * that are complete HTML documents (as the default prompt asks for) and for
+ * plain text
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultHtmlBenchmark {
+
+    /** Answer length in characters */
+    @Param({ "2000", "20000", "200000" })
+    public int answerSize;
+
+    private final LocalDateTime timestamp = LocalDateTime.of(2024, 5, 17, 10, 42, 7);
+    private AnalysisResult htmlAnswer;
+    private AnalysisResult textAnswer;
+
+    @Setup
+    public void setUp() {
+        StringBuilder html = new StringBuilder("<!DOCTYPE html><html><head><style>body { font-family: sans-serif; }"
+                + "</style></head><body><h2>Root cause</h2>");
+        StringBuilder text = new StringBuilder("Root cause\n\n");
+        int paragraph = 0;
+        while (html.length() < answerSize) {
+            String sentence = "The division in line 42 of ZCL_ORDER_PRICING=============CM003 fails because "
+                    + "IV_QUANTITY is zero for item " + paragraph + ".";
+            html.append("<p>").append(sentence).append("</p>");
+            if (paragraph % 5 == 0) {
+                html.append("<pre><code>IF iv_quantity &lt;&gt; 0.\n  rv_price = iv_net_value / iv_quantity.\nENDIF.</code></pre>");
+            }
+            text.append(sentence).append("\n\n");
+            paragraph++;
+        }
+        htmlAnswer = AnalysisResult.success(html.append("</body></html>").toString());
+        textAnswer = AnalysisResult.success(text.toString());
+    }
+
+    @Benchmark
+    public String htmlPage() {
+        return AnalysisHtmlBuilder.resultPage(htmlAnswer, timestamp);
+    }
+
+    @Benchmark
+    public String textPage() {
+        return AnalysisHtmlBuilder.resultPage(textAnswer, timestamp);
+    }
+
+    @Benchmark
+    public String htmlFragment() {
+        return AnalysisHtmlBuilder.resultFragment(htmlAnswer);
+    }
+}
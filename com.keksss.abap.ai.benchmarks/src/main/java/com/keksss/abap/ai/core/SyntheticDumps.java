@@ -0,0 +1,211 @@
+package com.keksss.abap.ai.core;
+
+import java.util.Random;
+
+/**
+ * Generates ST22 dump text for benchmarks. The layout follows real dumps:
+ * header, the explanatory sections, termination point with source extract,
+ * a call stack with recursive repeats and a large "Chosen variables" part,
+ * which is what makes real dumps grow to megabytes. Output is deterministic
+ * for a given size and seed.
+ */
+final class SyntheticDumps {
+
+    private SyntheticDumps() {
+    }
+
+    /**
+     * Generates a dump of about the given size
+     *
+     * @param targetChars approximate length in characters; the fixed sections
+     *                    alone take about 6 KB
+     * @param seed        random seed
+     * @return dump text
+     */
+    static String generate(int targetChars, long seed) {
+        Random random = new Random(seed);
+        StringBuilder dump = new StringBuilder(targetChars + 4096);
+
+        dump.append("Category               ABAP Programming Error\n")
+                .append("Runtime Errors         UNCAUGHT_EXCEPTION\n")
+                .append("Except.                CX_SY_ZERODIVIDE\n")
+                .append("ABAP Program           ZCL_ORDER_PRICING=============CP\n")
+                .append("Application Component  SD-BF-PR\n")
+                .append("Date and Time          2024-05-17 10:42:")
+                .append(String.format("%02d", random.nextInt(60))).append('\n')
+                .append("\n");
+
+        section(dump, "Short Text");
+        dump.append("    An exception has occurred which was not caught.\n\n");
+
+        section(dump, "What happened?");
+        dump.append("    The exception 'CX_SY_ZERODIVIDE' was raised, but it was not caught anywhere\n")
+                .append("    along the call hierarchy.\n\n")
+                .append("    Since exceptions represent error situations and this error was not\n")
+                .append("    adequately responded to, the running ABAP program\n")
+                .append("    'ZCL_ORDER_PRICING=============CP' has to be terminated.\n\n");
+
+        section(dump, "What can you do?");
+        dump.append("    Note down which actions and inputs caused the error.\n\n")
+                .append("    To process the problem further, contact you SAP system\n")
+                .append("    administrator.\n\n")
+                .append("    Using Transaction ST22 for ABAP Dump Analysis, you can look\n")
+                .append("    at and manage termination messages, and you can also\n")
+                .append("    keep them for a long time.\n\n");
+
+        section(dump, "Error analysis");
+        dump.append("    An exception has occurred which is explained in more detail below. The\n")
+                .append("    exception is assigned to class 'CX_SY_ZERODIVIDE' and was not caught in\n")
+                .append("    procedure 'CALCULATE_UNIT_PRICE' \"(METHOD)\", nor was it propagated by a\n")
+                .append("    RAISING clause.\n")
+                .append("    The reason for the exception is:\n")
+                .append("    In the current program 'ZCL_ORDER_PRICING=============CP', an arithmetic\n")
+                .append("    operation ('DIVIDE', '/', 'DIV' or 'MOD') with a type P operand attempted\n")
+                .append("    to divide by zero.\n\n");
+
+        section(dump, "How to correct the error");
+        dump.append("    If the error occures in a non-modified SAP program, you may be able to\n")
+                .append("    find an interim solution in an SAP Note.\n")
+                .append("    If you have access to SAP Notes, carry out a search with the following\n")
+                .append("    keywords:\n\n")
+                .append("    \"UNCAUGHT_EXCEPTION\" \"CX_SY_ZERODIVIDE\"\n")
+                .append("    \"ZCL_ORDER_PRICING=============CP\" or \"ZCL_ORDER_PRICING=============CM003\"\n")
+                .append("    \"CALCULATE_UNIT_PRICE\"\n\n");
+
+        section(dump, "System environment");
+        dump.append("    SAP Release..... 758\n")
+                .append("    SAP Basis Level. 0001\n\n")
+                .append("    Application server... \"s4app01\"\n")
+                .append("    Network address...... \"10.12.4.21\"\n")
+                .append("    Operating system..... \"Linux\"\n")
+                .append("    Database type..... \"HDB\"\n\n");
+
+        section(dump, "User and Transaction");
+        dump.append("    Client.............. 100\n")
+                .append("    User................ \"DEVELOPER").append(random.nextInt(100)).append("\"\n")
+                .append("    Language key........ \"E\"\n")
+                .append("    Transaction......... \"VA01 \"\n")
+                .append("    Program............. \"SAPMV45A\"\n\n");
+
+        section(dump, "Information on where terminated");
+        dump.append("    The termination occurred in the ABAP program \"ZCL_ORDER_PRICING=============CP\"\n")
+                .append("     in \"CALCULATE_UNIT_PRICE\".\n")
+                .append("    The main program was \"SAPMV45A \".\n\n")
+                .append("    In the source code you have the termination point in line 42\n")
+                .append("    of the (Include) program \"ZCL_ORDER_PRICING=============CM003\".\n\n");
+
+        section(dump, "Source Code Extract");
+        dump.append("Line  SourceCde\n\n");
+        for (int line = 30; line <= 54; line++) {
+            dump.append(line == 42 ? ">>>>>" : String.format("%5d", line)).append("|");
+            if (line == 42) {
+                dump.append("    rv_price = iv_net_value / iv_quantity.\n");
+            } else {
+                dump.append("    lv_value_").append(line).append(" = ls_item-kbetr * ls_item-kpein.\n");
+            }
+        }
+        dump.append('\n');
+
+        section(dump, "Contents of system fields");
+        dump.append("Name     Val.\n\n")
+                .append("SY-SUBRC 0\n").append("SY-INDEX 0\n").append("SY-TABIX 1\n")
+                .append("SY-DBCNT 1\n").append("SY-UNAME DEVELOPER\n").append("SY-DATUM 20240517\n\n");
+
+        // Deep recursion is a common reason for huge dumps
+        section(dump, "Active Calls/Events");
+        dump.append("No.   Ty.          Program                             Include                             Line\n")
+                .append("      Name\n\n");
+        int frames = Math.max(8, Math.min(400, targetChars / 20_000));
+        int number = frames;
+        dump.append(String.format("%5d METHOD       %-35s %-35s %5d\n", number--,
+                "ZCL_ORDER_PRICING=============CP", "ZCL_ORDER_PRICING=============CM003", 42))
+                .append("      ZCL_ORDER_PRICING=>CALCULATE_UNIT_PRICE\n");
+        while (number > 2) {
+            dump.append(String.format("%5d METHOD       %-35s %-35s %5d\n", number--,
+                    "ZCL_ORDER_PRICING=============CP", "ZCL_ORDER_PRICING=============CM002", 88))
+                    .append("      ZCL_ORDER_PRICING=>PRICE_ITEM\n");
+        }
+        dump.append(String.format("%5d FORM         %-35s %-35s %5d\n", 2, "SAPMV45A", "MV45AF0B_BELEG_SICHERN", 120))
+                .append("      BELEG_SICHERN\n")
+                .append(String.format("%5d MODULE (PAI) %-35s %-35s %5d\n", 1, "SAPMV45A", "MV45AI0F_FCODE_BEARBEITEN", 60))
+                .append("      FCODE_BEARBEITEN\n\n");
+
+        // Variables fill the rest up to the requested size
+        section(dump, "Chosen variables");
+        dump.append("Name\n    Val.\n\n");
+        int variable = 0;
+        int tailReserve = 2048;
+        while (dump.length() < targetChars - tailReserve) {
+            appendVariable(dump, random, variable++);
+        }
+
+        section(dump, "Internal notes");
+        dump.append("    The termination was triggered in function \"ab_genprot\"\n")
+                .append("    of the SAP kernel, in line 1908 of the module\n")
+                .append("    \"//bas/758_REL/src/krn/runt/abrabax.c#5\".\n\n");
+
+        section(dump, "Active Calls in SAP Kernel");
+        for (int i = 1; i <= 12; i++) {
+            dump.append(String.format("Call Stack Line %d: disp+work (0x%08x)\n", i, random.nextInt()));
+        }
+        dump.append('\n');
+
+        section(dump, "List of ABAP programs affected");
+        dump.append("Index  Typ  Program                             Group  Date        Time      Size\n")
+                .append("    0  Prg  SAPMV45A                                0  2024-02-12  11:20:31  2150400\n")
+                .append("    1  Prg  ZCL_ORDER_PRICING=============CP        1  2024-05-16  09:02:11    88064\n");
+        return dump.toString();
+    }
+
+    private static void section(StringBuilder dump, String headline) {
+        dump.append(headline).append("\n\n");
+    }
+
+    private static void appendVariable(StringBuilder dump, Random random, int index) {
+        switch (index % 4) {
+            case 0:
+                dump.append("IV_QUANTITY_").append(index).append('\n')
+                        .append("    0\n")
+                        .append("    000C\n")
+                        .append("    000C\n\n");
+                break;
+            case 1:
+                dump.append("LS_ITEM_").append(index).append('\n')
+                        .append("    ").append(index).append("   TAN  ").append(randomWord(random, 18))
+                        .append("  ").append(random.nextInt(100_000)).append(",00  EUR\n")
+                        .append("    ").append(hex(random, 64)).append('\n')
+                        .append("    ").append(hex(random, 64)).append("\n\n");
+                break;
+            case 2:
+                dump.append("LT_CONDITIONS_").append(index).append('\n')
+                        .append("    Table IT_").append(random.nextInt(5000)).append("[")
+                        .append(random.nextInt(2000)).append("x512]\n")
+                        .append("    \\CLASS=ZCL_ORDER_PRICING\\METHOD=PRICE_ITEM\\DATA=LT_CONDITIONS\n")
+                        .append("    Table reference: ").append(random.nextInt(900)).append('\n')
+                        .append("    TABH+  0(20) = ").append(hex(random, 40)).append('\n')
+                        .append("    TABH+ 20(20) = ").append(hex(random, 40)).append("\n\n");
+                break;
+            default:
+                dump.append("SY-REPID").append('\n')
+                        .append("    ZCL_ORDER_PRICING=============CP\n")
+                        .append("    5544444454444544443333333333333333333333\n")
+                        .append("    A3CFF245F029E9E7DDDDDDDDDDDDD30000000000\n\n");
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('A' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static String hex(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = Character.forDigit(random.nextInt(16), 16);
+        }
+        return new String(chars).toUpperCase();
+    }
+}
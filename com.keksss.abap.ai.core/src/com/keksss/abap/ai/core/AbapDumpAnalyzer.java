@@ -1,10 +1,73 @@
 package com.keksss.abap.ai.core;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Service for analyzing ABAP dumps using configured LLM
  */
 public class AbapDumpAnalyzer {
 
+    /** Lower bound for the dump share of the prompt, even with huge templates */
+    private static final int MIN_DUMP_TOKENS = 1000;
+
+    /** Instructions first, dump last, so requests share the longest possible prefix */
+    private static final String DEFAULT_PROMPT = "You are an expert ABAP developer analyzing a runtime dump/error.\n\n"
+            + "Please analyze the ABAP dump below and provide:\n"
+            + "1. Root cause analysis\n"
+            + "2. Possible solutions or fixes\n"
+            + "3. Best practices to prevent this error\n"
+            + "4. Any relevant SAP notes or documentation references if applicable\n\n"
+            + "Provide a clear, concise analysis that would help a developer resolve this issue.\n\n"
+            + "Dump Title: {title}\n\n"
+            + "ABAP Dump Content:\n"
+            + "---\n"
+            + "{dump_content}\n"
+            + "---";
+
+    /** Instructions of the calls summarizing one chunk of an oversized dump */
+    private static final String CHUNK_INSTRUCTIONS = "You are an expert ABAP developer. You receive one part of an "
+            + "ABAP runtime error dump that is too large to be analyzed at once.\n\n"
+            + "Summarize what in this part may help to explain or fix the error: relevant call stack frames, "
+            + "statements around the termination point, suspicious variable values, unusual system settings. "
+            + "Quote names and values exactly. Use at most 200 words and do not guess about parts you have not "
+            + "seen. If nothing in this part is relevant, answer \"Nothing relevant.\"";
+
+    /** Allowance for the chunk label and separators around a chunk */
+    private static final int CHUNK_LABEL_TOKENS = 32;
+
+    /** Instructions of the calls merging summaries that do not fit the final prompt together */
+    private static final String FOLD_INSTRUCTIONS = "You are an expert ABAP developer. You receive summaries of "
+            + "consecutive parts of an ABAP runtime error dump that is too large to be analyzed at once.\n\n"
+            + "Merge them into one summary of what may help to explain or fix the error. Keep names and values "
+            + "exactly. Use at most 200 words. If nothing is relevant, answer \"Nothing relevant.\"";
+
+    /** Introduces the summaries after the dump's core in the final prompt */
+    private static final String SUMMARIES_HEADING = "\nSummaries of the remaining sections, which were too large "
+            + "to include:\n";
+
+    /**
+     * Runs chunk summaries of all analyses, sized to
+     * {@link PreferenceHelper#getMaxParallelAnalyses()} before each use, so
+     * parallel analyses of oversized dumps queue instead of multiplying threads
+     */
+    private static final ThreadPoolExecutor CHUNK_SUMMARY_EXECUTOR = new ThreadPoolExecutor(1, 1, 60,
+            TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "ABAP AI chunk summary");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        CHUNK_SUMMARY_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
     private final LlmClient aiClient;
 
     public AbapDumpAnalyzer() {
@@ -18,8 +81,36 @@ public class AbapDumpAnalyzer {
      * @return Analysis result containing AI insights
      */
     public AnalysisResult analyzeDump(String title, String dumpContent) {
-        // Get LLM configuration
-        LlmConfig config = PreferenceHelper.getLlmConfig();
+        return analyzeDump(title, dumpContent, null);
+    }
+
+    /**
+     * Analyzes an ABAP dump, streaming partial output to the listener as the
+     * model generates it
+     * 
+     * @param dumpContent The ABAP dump content to analyze
+     * @param listener    Receiver of partial text, or null for a blocking call
+     * @return Analysis result containing the complete AI insights
+     */
+    public AnalysisResult analyzeDump(String title, String dumpContent, AnalysisStreamListener listener) {
+        return analyze(new AnalysisRequest.Builder()
+                .title(title)
+                .dumpContent(dumpContent)
+                .streamListener(listener)
+                .build());
+    }
+
+    /**
+     * Analyzes an ABAP dump. Results are served from and stored in the
+     * {@link AnalysisCache} unless the request forces a fresh analysis. The
+     * request's cancellation token aborts the analysis at any stage.
+     * 
+     * @param request dump and analysis options
+     * @return Analysis result containing AI insights
+     */
+    public AnalysisResult analyze(AnalysisRequest request) {
+        // One configuration for the whole request, even if preferences change meanwhile
+        LlmConfig config = request.getConfig() != null ? request.getConfig() : PreferenceHelper.getLlmConfig();
 
         // Check if API key is configured (if required by provider)
         if (config.getProvider().requiresApiKey() &&
@@ -30,51 +121,447 @@ public class AbapDumpAnalyzer {
                             "Window -> Preferences -> ABAP AI Tools");
         }
 
-        // Construct a specialized prompt for ABAP dump analysis
-        String prompt = constructAnalysisPrompt(title, dumpContent);
+        CancellationToken cancellation = request.getCancellation();
+        if (cancellation.isCancelled()) {
+            return AnalysisResult.cancelled();
+        }
+
+        long started = System.nanoTime();
+        AnalysisMetrics metrics = AnalysisMetrics.getInstance();
+        String dumpContent = request.getDumpContent();
+        String customPrompt = PreferenceHelper.getDumpAnalyzerPrompt();
+
+        ParsedDump parsedDump = DumpParser.parse(dumpContent);
+        // Counted once, when first needed, for the map-reduce decision and the compaction
+        DumpCompactor.MeasuredDump measuredDump = new DumpCompactor.MeasuredDump(parsedDump,
+                TokenCounter.forConfig(config));
+        boolean mapReduce = usesMapReduce(config, customPrompt, request.getTitle(), measuredDump);
+        AnalysisCache cache = AnalysisCache.getInstance();
+        String cacheKey = cacheKey(config, customPrompt, request.getTitle(), dumpContent, parsedDump, mapReduce);
+        if (!request.isForceReanalyze()) {
+            String cached = cache.get(cacheKey);
+            if (cached == null) {
+                // Opened while being pre-analyzed: wait for that answer instead of asking twice
+                AnalysisResult pending = PreAnalyzer.getInstance().awaitInFlight(cacheKey, cancellation);
+                cached = pending != null && pending.isSuccess() ? pending.getAnalysisText() : null;
+            }
+            if (cached != null) {
+                metrics.recordCacheHit(config);
+                return AnalysisResult.cached(cached);
+            }
+        }
+
+        if (mapReduce) {
+            return mapReduce(request, config, customPrompt, measuredDump, cacheKey, started);
+        }
+
+        LlmPrompt prompt = buildPrompt(config, customPrompt, request.getTitle(), measuredDump);
+        metrics.recordLatency(config, AnalysisMetrics.Phase.PROMPT_BUILD, AnalysisMetrics.elapsedMillis(started));
+        if (cancellation.isCancelled()) {
+            return AnalysisResult.cancelled();
+        }
+
+        return analyzePrompt(request, config, parsedDump, cacheKey, prompt, started);
+    }
+
+    /**
+     * Analyzes a dump too large for one prompt: the sections outside its
+     * core are cut into chunks that are summarized in parallel, then the
+     * core and the summaries are analyzed with the configured prompt
+     */
+    private AnalysisResult mapReduce(AnalysisRequest request, LlmConfig config, String customPrompt,
+            DumpCompactor.MeasuredDump measuredDump, String cacheKey, long started) {
+        CancellationToken cancellation = request.getCancellation();
+        AnalysisMetrics metrics = AnalysisMetrics.getInstance();
+        ParsedDump parsedDump = measuredDump.getDump();
+        TokenCounter tokenCounter = measuredDump.getCounter();
+        int dumpBudget = dumpBudget(config, customPrompt, request.getTitle(), tokenCounter);
+        String context = errorContext(parsedDump);
+        int chunkTokens = Math.max(MIN_DUMP_TOKENS, config.getMaxInputTokens()
+                - tokenCounter.count(CHUNK_INSTRUCTIONS) - tokenCounter.count(context) - CHUNK_LABEL_TOKENS);
+        List<DumpChunker.Chunk> chunks = DumpChunker.chunks(parsedDump, chunkTokens, tokenCounter);
+        if (chunks.isEmpty()) {
+            // Everything oversized is core: compacting is all that can be done
+            LlmPrompt prompt = buildPrompt(config, customPrompt, request.getTitle(), measuredDump);
+            metrics.recordLatency(config, AnalysisMetrics.Phase.PROMPT_BUILD, AnalysisMetrics.elapsedMillis(started));
+            return analyzePrompt(request, config, parsedDump, cacheKey, prompt, started);
+        }
+        metrics.recordLatency(config, AnalysisMetrics.Phase.PROMPT_BUILD, AnalysisMetrics.elapsedMillis(started));
+
+        long summariesStarted = System.nanoTime();
+        List<String> texts = new ArrayList<>();
+        for (DumpChunker.Chunk chunk : chunks) {
+            texts.add(context + "\n" + chunk.getLabel() + ":\n---\n" + chunk.getText() + "\n---");
+        }
+        List<AnalysisResult> results = summarize(config, CHUNK_INSTRUCTIONS, texts, cancellation);
+        if (cancellation.isCancelled()) {
+            return AnalysisResult.cancelled();
+        }
+        if (results.stream().noneMatch(AnalysisResult::isSuccess)) {
+            return results.get(0);
+        }
+        List<Summary> summaries = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            summaries.add(new Summary(chunks.get(i).getLabel(), results.get(i)));
+        }
+
+        // The core keeps at most half the budget, the summaries share the rest
+        String core = DumpCompactor.compact(DumpChunker.core(parsedDump), dumpBudget / 2, tokenCounter);
+        int summaryBudget = dumpBudget - tokenCounter.count(core) - tokenCounter.count(SUMMARIES_HEADING);
+        summaries = foldSummaries(config, context, summaries, summaryBudget, chunkTokens, tokenCounter, cancellation);
+        if (summaries == null) {
+            return AnalysisResult.cancelled();
+        }
+        metrics.recordLatency(config, AnalysisMetrics.Phase.CHUNK_SUMMARIES,
+                AnalysisMetrics.elapsedMillis(summariesStarted));
+
+        StringBuilder content = new StringBuilder(core).append(SUMMARIES_HEADING).append(Summary.join(summaries));
+        // Tokens may merge across the joints; the prompt must fit all the same
+        String dumpText = DumpCompactor.fits(content.toString(), dumpBudget, tokenCounter) ? content.toString()
+                : tokenCounter.truncate(content.toString(), dumpBudget);
+
+        LlmPrompt prompt = constructAnalysisPrompt(customPrompt, request.getTitle(), dumpText);
+        boolean partial = summaries.stream().anyMatch(summary -> !summary.complete);
+        return analyzePrompt(request, config, parsedDump, cacheKey, prompt, started, partial);
+    }
+
+    /**
+     * Merges consecutive summaries in groups until all of them fit the
+     * budget, however many chunks there are. Every round at least halves
+     * their number; a single summary still too large is truncated.
+     *
+     * @param summaryBudget tokens the summaries may take together
+     * @param groupTokens   tokens of summaries merged by one call
+     * @return summaries within the budget, or null if cancelled
+     */
+    private List<Summary> foldSummaries(LlmConfig config, String context, List<Summary> summaries,
+            int summaryBudget, int groupTokens, TokenCounter tokenCounter, CancellationToken cancellation) {
+        while (tokenCounter.count(Summary.join(summaries)) > summaryBudget) {
+            if (summaries.size() == 1) {
+                Summary only = summaries.get(0);
+                return List.of(new Summary(only.firstLabel, only.lastLabel,
+                        tokenCounter.truncate(only.text, summaryBudget), only.complete));
+            }
+
+            // No summary takes more than half a group, so each group merges at least two
+            List<List<Summary>> groups = new ArrayList<>();
+            List<Summary> group = new ArrayList<>();
+            int tokens = 0;
+            for (Summary summary : summaries) {
+                Summary part = new Summary(summary.firstLabel, summary.lastLabel,
+                        tokenCounter.truncate(summary.text, groupTokens / 2), summary.complete);
+                int partTokens = tokenCounter.count(part.text);
+                if (group.size() >= 2 && tokens + partTokens > groupTokens) {
+                    groups.add(group);
+                    group = new ArrayList<>();
+                    tokens = 0;
+                }
+                group.add(part);
+                tokens += partTokens;
+            }
+            groups.add(group);
+
+            List<String> texts = new ArrayList<>();
+            for (List<Summary> members : groups) {
+                texts.add(context + "\n" + Summary.join(members));
+            }
+            List<AnalysisResult> merged = summarize(config, FOLD_INSTRUCTIONS, texts, cancellation);
+            if (cancellation.isCancelled()) {
+                return null;
+            }
+            List<Summary> folded = new ArrayList<>();
+            for (int i = 0; i < groups.size(); i++) {
+                List<Summary> members = groups.get(i);
+                folded.add(new Summary(members.get(0).firstLabel, members.get(members.size() - 1).lastLabel,
+                        merged.get(i), members.stream().allMatch(member -> member.complete)));
+            }
+            summaries = folded;
+        }
+        return summaries;
+    }
+
+    /**
+     * Sends one prompt per text with at most
+     * {@link PreferenceHelper#getMaxParallelAnalyses()} calls at a time,
+     * across all analyses
+     *
+     * @return one result per text, in order
+     */
+    private List<AnalysisResult> summarize(LlmConfig config, String instructions, List<String> texts,
+            CancellationToken cancellation) {
+        AnalysisResult[] results = new AnalysisResult[texts.size()];
+        AtomicInteger next = new AtomicInteger();
+        int maxParallel = PreferenceHelper.getMaxParallelAnalyses();
+        resizeChunkSummaryExecutor(maxParallel);
+        int workers = Math.min(maxParallel, texts.size());
+        CompletableFuture<?>[] running = new CompletableFuture<?>[workers];
+        for (int w = 0; w < workers; w++) {
+            running[w] = CompletableFuture.runAsync(() -> {
+                for (int i = next.getAndIncrement(); i < texts.size(); i = next.getAndIncrement()) {
+                    try {
+                        results[i] = cancellation.isCancelled() ? AnalysisResult.cancelled()
+                                : aiClient.analyzeText(config, LlmPrompt.of(instructions, texts.get(i)), cancellation);
+                    } catch (RuntimeException e) {
+                        results[i] = AnalysisResult.failure(e.getMessage());
+                    }
+                }
+            }, CHUNK_SUMMARY_EXECUTOR);
+        }
+        CompletableFuture.allOf(running).join();
+        return Arrays.asList(results);
+    }
+
+    private static synchronized void resizeChunkSummaryExecutor(int size) {
+        // The core size must never exceed the maximum, so the order depends on the direction
+        if (size > CHUNK_SUMMARY_EXECUTOR.getMaximumPoolSize()) {
+            CHUNK_SUMMARY_EXECUTOR.setMaximumPoolSize(size);
+            CHUNK_SUMMARY_EXECUTOR.setCorePoolSize(size);
+        } else if (size < CHUNK_SUMMARY_EXECUTOR.getMaximumPoolSize()) {
+            CHUNK_SUMMARY_EXECUTOR.setCorePoolSize(size);
+            CHUNK_SUMMARY_EXECUTOR.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Runtime error, exception and termination point, repeated in every
+     * chunk so each summary knows what it is looking for
+     */
+    private static String errorContext(ParsedDump dump) {
+        StringBuilder context = new StringBuilder();
+        appendIfSet(context, "Runtime error", dump.getRuntimeError());
+        appendIfSet(context, "Exception", dump.getExceptionClass());
+        appendIfSet(context, "Program", dump.getProgram());
+        appendIfSet(context, "Include", dump.getInclude());
+        if (dump.getLine() >= 0) {
+            appendIfSet(context, "Line", String.valueOf(dump.getLine()));
+        }
+        return context.toString();
+    }
+
+    private static void appendIfSet(StringBuilder context, String key, String value) {
+        if (value != null && !value.isEmpty()) {
+            context.append(key).append(": ").append(value).append('\n');
+        }
+    }
+
+    /**
+     * Sends a built prompt, then caches and records the answer
+     *
+     * @param request    dump and analysis options
+     * @param config     configuration to send the prompt with
+     * @param parsedDump the dump
+     * @param cacheKey   key the answer is cached under
+     * @param prompt     prompt built by {@link #buildPrompt}
+     * @param started    {@link System#nanoTime()} when the analysis began
+     * @return Analysis result containing AI insights
+     */
+    AnalysisResult analyzePrompt(AnalysisRequest request, LlmConfig config, ParsedDump parsedDump, String cacheKey,
+            LlmPrompt prompt, long started) {
+        return analyzePrompt(request, config, parsedDump, cacheKey, prompt, started, false);
+    }
 
+    /**
+     * @param partial true if the prompt lacks summaries of some parts; the
+     *                answer is then neither cached nor recorded, so the next
+     *                request analyzes the dump again
+     */
+    private AnalysisResult analyzePrompt(AnalysisRequest request, LlmConfig config, ParsedDump parsedDump,
+            String cacheKey, LlmPrompt prompt, long started, boolean partial) {
         // Call LLM through client
-        AnalysisResult result = aiClient.analyzeText(prompt);
+        AnalysisResult result = request.getStreamListener() != null
+                ? aiClient.analyzeTextStreaming(config, prompt, request.getStreamListener(),
+                        request.getCancellation())
+                : aiClient.analyzeText(config, prompt, request.getCancellation());
+        if (result.isSuccess() && partial) {
+            result.markPartial();
+        }
 
-        if (result.isSuccess()) {
-            return AnalysisResult.success(result.getAnalysisText() );
+        // Answers of a backup provider are not cached under the primary's key,
+        // so the next request tries the configured provider again
+        if (result.isSuccess() && !result.isFallback() && !result.isPartial()) {
+            AnalysisCache.getInstance().put(cacheKey, result.getAnalysisText());
+        }
+        if (result.isSuccess() && !result.isPartial()) {
+            LlmConfig answeredBy = servedBy(config, result);
+            AnalysisMetrics.getInstance().recordLatency(answeredBy, AnalysisMetrics.Phase.TOTAL,
+                    AnalysisMetrics.elapsedMillis(started));
+            AnalysisHistory.getInstance().add(request.getTitle(), parsedDump, answeredBy.getProvider(),
+                    answeredBy.getModel(), result.getAnalysisText());
         }
 
         return result;
     }
 
     /**
-     * Constructs a detailed prompt for ABAP dump analysis
+     * Computes the cache key of a dump. Repeats of the same error share one
+     * cached analysis unless grouping by signature is switched off. The
+     * title is part of the key only if the prompt template renders it, as
+     * the answer may then refer to it.
+     *
+     * @param config       configuration the dump is analyzed with
+     * @param customPrompt prompt template from the preferences, or null for the default
+     * @param title        dump title
+     * @param dumpContent  raw dump text
+     * @param parsedDump   the parsed dump
+     * @param mapReduce    result of {@link #usesMapReduce}
+     * @return cache key
      */
-    private String constructAnalysisPrompt(String title, String dumpContent) {
-        String customPrompt = PreferenceHelper.getDumpAnalyzerPrompt();
+    static String cacheKey(LlmConfig config, String customPrompt, String title, String dumpContent,
+            ParsedDump parsedDump, boolean mapReduce) {
+        String dumpIdentity = PreferenceHelper.isGroupBySignatureEnabled()
+                ? DumpSignature.of(parsedDump).getKey()
+                : dumpContent;
+        String renderedTitle = template(customPrompt).contains("{title}") ? (title != null ? title : "") : null;
+        return AnalysisCache.computeKey(dumpIdentity, customPrompt, renderedTitle, mapReduce, config);
+    }
+
+    /**
+     * Decides whether a dump is summarized in chunks instead of compacted
+     * into one prompt. The two answers differ, so the decision is part of
+     * the cache key.
+     *
+     * @param config       configuration providing tokenizer and input budget
+     * @param customPrompt prompt template from the preferences, or null for the default
+     * @param title        dump title
+     * @param measuredDump the dump, counted with the tokenizer of the configuration
+     * @return true if map-reduce is enabled and the dump exceeds the budget
+     */
+    static boolean usesMapReduce(LlmConfig config, String customPrompt, String title,
+            DumpCompactor.MeasuredDump measuredDump) {
+        if (!PreferenceHelper.isMapReduceEnabled()) {
+            return false;
+        }
+        int dumpBudget = dumpBudget(config, customPrompt, title, measuredDump.getCounter());
+        return !measuredDump.fits(dumpBudget);
+    }
 
-        if (customPrompt != null && !customPrompt.trim().isEmpty()) {
-            // Use custom prompt from preferences, replacing placeholders
-            return customPrompt
-                    .replace("{title}", title != null ? title : "")
-                    .replace("{dump_content}", dumpContent);
+    /**
+     * The configuration that answered: the primary or one of its fallbacks
+     */
+    private static LlmConfig servedBy(LlmConfig config, AnalysisResult result) {
+        if (result.isFallback()) {
+            for (LlmConfig fallback : config.getFallbacks()) {
+                if (fallback.getProvider() == result.getProvider()) {
+                    return fallback;
+                }
+            }
         }
+        return config;
+    }
+
+    /**
+     * Builds the prompt for a dump, shrinking oversized dumps so the prompt
+     * fits the model's input budget
+     *
+     * @param config       configuration providing tokenizer and input budget
+     * @param customPrompt prompt template from the preferences, or null for the default
+     * @param title        dump title
+     * @param parsedDump   the dump
+     * @return prompt split into instructions and dump specific content
+     */
+    static LlmPrompt buildPrompt(LlmConfig config, String customPrompt, String title, ParsedDump parsedDump) {
+        return buildPrompt(config, customPrompt, title,
+                new DumpCompactor.MeasuredDump(parsedDump, TokenCounter.forConfig(config)));
+    }
 
+    /**
+     * Builds the prompt for a dump, reusing the token counts of an earlier
+     * budget check
+     *
+     * @param config       configuration providing the input budget
+     * @param customPrompt prompt template from the preferences, or null for the default
+     * @param title        dump title
+     * @param measuredDump the dump, counted with the tokenizer of the configuration
+     * @return prompt split into instructions and dump specific content
+     */
+    static LlmPrompt buildPrompt(LlmConfig config, String customPrompt, String title,
+            DumpCompactor.MeasuredDump measuredDump) {
+        int dumpBudget = dumpBudget(config, customPrompt, title, measuredDump.getCounter());
+        String compactedDump = DumpCompactor.compact(measuredDump, dumpBudget);
+
+        // Construct a specialized prompt for ABAP dump analysis
+        return constructAnalysisPrompt(customPrompt, title, compactedDump);
+    }
+
+    /**
+     * Tokens left for the dump once the prompt template is filled in
+     */
+    private static int dumpBudget(LlmConfig config, String customPrompt, String title, TokenCounter tokenCounter) {
+        int instructionTokens = tokenCounter.count(constructAnalysisPrompt(customPrompt, title, "").getText());
+        return Math.max(MIN_DUMP_TOKENS, config.getMaxInputTokens() - instructionTokens);
+    }
+
+    /**
+     * Constructs a detailed prompt for ABAP dump analysis. The template is
+     * split before the paragraph holding its first placeholder: everything
+     * above is identical for all dumps and becomes the instructions, the
+     * rest is filled in and becomes the content.
+     */
+    private static LlmPrompt constructAnalysisPrompt(String customPrompt, String title, String dumpContent) {
         // Fallback to hardcoded default if preference is missing (though Initializer
         // should set it)
-        StringBuilder prompt = new StringBuilder();
-
-        prompt.append("You are an expert ABAP developer analyzing a runtime dump/error.\n\n");
-        if (title != null && !title.isEmpty()) {
-            prompt.append("Dump Title: ").append(title).append("\n");
-        }
-        prompt.append("Please analyze the following ABAP dump and provide:\n");
-        prompt.append("1. Root cause analysis\n");
-        prompt.append("2. Possible solutions or fixes\n");
-        prompt.append("3. Best practices to prevent this error\n");
-        prompt.append("4. Any relevant SAP notes or documentation references if applicable\n\n");
-        prompt.append("ABAP Dump Content:\n");
-        prompt.append("---\n");
-        prompt.append(dumpContent);
-        prompt.append("\n---\n\n");
-        prompt.append("Provide a clear, concise analysis that would help a developer resolve this issue.");
-
-        return prompt.toString();
+        String template = template(customPrompt);
+        int split = instructionsEnd(template);
+        return LlmPrompt.of(template.substring(0, split).strip(), template.substring(split).strip()
+                .replace("{title}", title != null ? title : "")
+                .replace("{dump_content}", dumpContent));
+    }
+
+    private static String template(String customPrompt) {
+        return customPrompt != null && !customPrompt.trim().isEmpty() ? customPrompt : DEFAULT_PROMPT;
+    }
+
+    private static int instructionsEnd(String template) {
+        int title = template.indexOf("{title}");
+        int dump = template.indexOf("{dump_content}");
+        int first = title < 0 ? dump : dump < 0 ? title : Math.min(title, dump);
+        if (first < 0) {
+            return template.length();
+        }
+        int paragraph = template.lastIndexOf("\n\n", first);
+        if (paragraph >= 0) {
+            return paragraph;
+        }
+        return Math.max(0, template.lastIndexOf('\n', first));
+    }
+
+    /**
+     * Summary of one or more consecutive chunks, labelled for the final prompt
+     */
+    private static final class Summary {
+        private final String firstLabel;
+        private final String lastLabel;
+        private final String text;
+        /** False if this or a merged summary failed */
+        private final boolean complete;
+
+        private Summary(String label, AnalysisResult result) {
+            this(label, label, result, true);
+        }
+
+        private Summary(String firstLabel, String lastLabel, AnalysisResult result, boolean membersComplete) {
+            this(firstLabel, lastLabel, result.isSuccess() ? result.getAnalysisText().strip()
+                    : "(summary unavailable: " + result.getErrorMessage() + ")",
+                    membersComplete && result.isSuccess());
+        }
+
+        private Summary(String firstLabel, String lastLabel, String text, boolean complete) {
+            this.firstLabel = firstLabel;
+            this.lastLabel = lastLabel;
+            this.text = text;
+            this.complete = complete;
+        }
+
+        private String label() {
+            return firstLabel.equals(lastLabel) ? firstLabel : firstLabel + " to " + lastLabel;
+        }
+
+        private static String join(List<Summary> summaries) {
+            StringBuilder joined = new StringBuilder();
+            for (Summary summary : summaries) {
+                joined.append('[').append(summary.label()).append("]\n").append(summary.text).append('\n');
+            }
+            return joined.toString();
+        }
     }
 }
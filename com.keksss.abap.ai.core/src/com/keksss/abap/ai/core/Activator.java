@@ -1,5 +1,9 @@
 package com.keksss.abap.ai.core;
 
+import java.io.File;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 
@@ -11,11 +15,35 @@ public class Activator implements BundleActivator {
 		return context;
 	}
 
+	/**
+	 * Returns the workspace state location of the core bundle, or null when
+	 * the bundle is not running (e.g. outside of OSGi)
+	 */
+	static File getStateLocation() {
+		if (context == null) {
+			return null;
+		}
+		try {
+			IPath location = Platform.getStateLocation(context.getBundle());
+			return location != null ? location.toFile() : null;
+		} catch (Exception e) {
+			System.err.println("Error resolving state location: " + e.getMessage());
+			return null;
+		}
+	}
+
 	public void start(BundleContext bundleContext) throws Exception {
 		Activator.context = bundleContext;
+		PreferenceHelper.startListening();
+		LlmModelRegistry.getInstance().start();
 	}
 
 	public void stop(BundleContext bundleContext) throws Exception {
+		PreAnalyzer.getInstance().cancelPending();
+		LlmModelRegistry.getInstance().shutdown();
+		AnalysisHistory.getInstance().close();
+		LlmCircuitBreaker.resetAll();
+		PreferenceHelper.stopListening();
 		Activator.context = null;
 	}
 
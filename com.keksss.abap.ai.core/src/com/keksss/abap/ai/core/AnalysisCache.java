@@ -0,0 +1,224 @@
+package com.keksss.abap.ai.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Disk-backed, content-addressed cache of dump analyses.
+ * Entries live in the core bundle's state location, one file per key, and are
+ * bounded by total size (least recently used entries are evicted first) and by
+ * age (entries older than the configured TTL are ignored and deleted).
+ */
+public class AnalysisCache {
+
+    private static final String CACHE_DIRECTORY = "analysis-cache";
+    private static final String ENTRY_SUFFIX = ".txt";
+    private static final String HEADER_PREFIX = "v1 ";
+
+    private static final AnalysisCache INSTANCE = new AnalysisCache();
+
+    /** Access-ordered index: iteration starts at the least recently used entry */
+    private final LinkedHashMap<String, Long> entrySizes = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private File directory;
+    private boolean loaded;
+
+    private AnalysisCache() {
+    }
+
+    /**
+     * Get the shared cache instance
+     *
+     * @return AnalysisCache
+     */
+    public static AnalysisCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Computes the cache key for an analysis request
+     *
+     * @param dumpIdentity   raw dump text (normalized before hashing) or a
+     *                       {@link DumpSignature} key
+     * @param promptTemplate prompt template the request is rendered with
+     * @param title          dump title if the template renders it, otherwise null
+     * @param mapReduce      true if the answer is synthesized from chunk summaries
+     * @param config         LLM configuration; the API key is not part of the key
+     * @return hex encoded SHA-256 key
+     */
+    public static String computeKey(String dumpIdentity, String promptTemplate, String title, boolean mapReduce,
+            LlmConfig config) {
+        MessageDigest digest = Digests.sha256();
+        Digests.update(digest, normalize(dumpIdentity));
+        Digests.update(digest, promptTemplate != null ? promptTemplate : "");
+        Digests.update(digest, title != null ? title : "");
+        Digests.update(digest, mapReduce ? "map-reduce" : "compact");
+        Digests.update(digest, config.getProvider().name());
+        Digests.update(digest, config.getModel());
+        Digests.update(digest, config.getBaseUrl() != null ? config.getBaseUrl().trim() : "");
+        Digests.update(digest, String.valueOf(config.getTemperature()));
+        Digests.update(digest, String.valueOf(config.getMaxTokens()));
+        Digests.update(digest, String.valueOf(config.getMaxInputTokens()));
+        return Digests.hex(digest.digest());
+    }
+
+    /**
+     * Looks up a cached analysis
+     *
+     * @param key key from {@link #computeKey(String, String, String, boolean, LlmConfig)}
+     * @return cached analysis text, or null on miss, expiry or when disabled
+     */
+    public synchronized String get(String key) {
+        if (!PreferenceHelper.isAnalysisCacheEnabled() || !ensureLoaded() || !entrySizes.containsKey(key)) {
+            return null;
+        }
+
+        File file = entryFile(key);
+        try {
+            String stored = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+            int headerEnd = stored.indexOf('\n');
+            if (!stored.startsWith(HEADER_PREFIX) || headerEnd < 0) {
+                remove(key);
+                return null;
+            }
+
+            long createdAt = Long.parseLong(stored.substring(HEADER_PREFIX.length(), headerEnd).trim());
+            long ttlMillis = PreferenceHelper.getAnalysisCacheTtlHours() * 3_600_000L;
+            if (ttlMillis > 0 && System.currentTimeMillis() - createdAt > ttlMillis) {
+                remove(key);
+                return null;
+            }
+
+            // Persist recency so LRU order survives restarts
+            file.setLastModified(System.currentTimeMillis());
+            return stored.substring(headerEnd + 1);
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error reading analysis cache entry: " + e.getMessage());
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Stores an analysis and evicts least recently used entries if the cache
+     * exceeds its size limit
+     *
+     * @param key          key from {@link #computeKey(String, String, String, boolean, LlmConfig)}
+     * @param analysisText analysis text to store
+     */
+    public synchronized void put(String key, String analysisText) {
+        if (!PreferenceHelper.isAnalysisCacheEnabled() || analysisText == null || !ensureLoaded()) {
+            return;
+        }
+
+        File file = entryFile(key);
+        try {
+            byte[] bytes = (HEADER_PREFIX + System.currentTimeMillis() + "\n" + analysisText)
+                    .getBytes(StandardCharsets.UTF_8);
+            Path temp = Files.createTempFile(directory.toPath(), key, ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Long previous = entrySizes.put(key, (long) bytes.length);
+            totalBytes += bytes.length - (previous != null ? previous : 0L);
+            evict();
+        } catch (IOException e) {
+            System.err.println("Error writing analysis cache entry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes all cached analyses
+     */
+    public synchronized void clear() {
+        if (!ensureLoaded()) {
+            return;
+        }
+        for (String key : new ArrayList<>(entrySizes.keySet())) {
+            remove(key);
+        }
+    }
+
+    private void evict() {
+        long maxBytes = PreferenceHelper.getAnalysisCacheMaxSizeMb() * 1024L * 1024L;
+        Iterator<Map.Entry<String, Long>> it = entrySizes.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.getValue();
+            entryFile(eldest.getKey()).delete();
+        }
+    }
+
+    private void remove(String key) {
+        Long size = entrySizes.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        entryFile(key).delete();
+    }
+
+    /**
+     * Builds the in-memory index from the cache directory on first use
+     */
+    private boolean ensureLoaded() {
+        if (loaded) {
+            return directory != null;
+        }
+        loaded = true;
+
+        File stateLocation = Activator.getStateLocation();
+        if (stateLocation == null) {
+            return false;
+        }
+        File dir = new File(stateLocation, CACHE_DIRECTORY);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("Error creating analysis cache directory: " + dir);
+            return false;
+        }
+        directory = dir;
+
+        File[] files = dir.listFiles((d, name) -> name.endsWith(ENTRY_SUFFIX));
+        if (files != null) {
+            List<File> sorted = Arrays.asList(files);
+            sorted.sort(Comparator.comparingLong(File::lastModified));
+            for (File file : sorted) {
+                String name = file.getName();
+                entrySizes.put(name.substring(0, name.length() - ENTRY_SUFFIX.length()), file.length());
+                totalBytes += file.length();
+            }
+        }
+        return true;
+    }
+
+    private File entryFile(String key) {
+        return new File(directory, key + ENTRY_SUFFIX);
+    }
+
+    /**
+     * Normalizes line endings and trailing whitespace so the same dump exported
+     * through different paths hashes identically
+     */
+    static String normalize(String dumpContent) {
+        if (dumpContent == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(dumpContent.length());
+        for (String line : dumpContent.split("\r\n|\r|\n")) {
+            sb.append(line.stripTrailing()).append('\n');
+        }
+        return sb.toString().trim();
+    }
+}
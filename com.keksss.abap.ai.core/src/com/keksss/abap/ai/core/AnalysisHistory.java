@@ -0,0 +1,842 @@
+package com.keksss.abap.ai.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Searchable history of completed analyses, kept in the core bundle's state
+ * location.
+ * <p>
+ * Records are appended to segment files that are read through memory
+ * mappings; the oldest segments are deleted once the history exceeds its size
+ * limit. An inverted index over titles, exception names, models and result
+ * text maps lower-case terms to record ids and is matched by prefix. The index
+ * is saved next to the segments and only records appended after the last save
+ * are indexed again on startup.
+ */
+public final class AnalysisHistory {
+
+    private static final String HISTORY_DIRECTORY = "analysis-history";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final String INDEX_FILE = "index.dat";
+
+    private static final int RECORD_MAGIC = 0x41484952;
+    private static final int INDEX_MAGIC = 0x41484958;
+    private static final int INDEX_VERSION = 1;
+    /** Magic, body length and CRC-32 of the body */
+    private static final int RECORD_HEADER_BYTES = 12;
+
+    /** A segment is closed and a new one started beyond this size */
+    static final long SEGMENT_BYTES = 4L * 1024 * 1024;
+    /** The index is saved after this many additions and on shutdown */
+    private static final int INDEX_SAVE_INTERVAL = 16;
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private static final Pattern NON_TEXT_ELEMENTS = Pattern.compile("(?is)<(style|script)[^>]*>.*?</\\1>");
+
+    private static final AnalysisHistory INSTANCE = new AnalysisHistory();
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final TreeMap<String, Postings> index = new TreeMap<>();
+    private final AtomicLong version = new AtomicLong();
+    /** Segment number and offset of each live record, indexed by id - firstId */
+    private long[] locations = new long[256];
+    private int recordCount;
+    private int firstId;
+    private int unsavedRecords;
+    private FileChannel appendChannel;
+    private File directory;
+    private boolean loaded;
+
+    private AnalysisHistory() {
+    }
+
+    /**
+     * Get the shared history instance
+     *
+     * @return AnalysisHistory
+     */
+    public static AnalysisHistory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * A history record without its result text, which is read on demand by
+     * {@link AnalysisHistory#getResult(int)}
+     */
+    public static final class Entry {
+
+        private final int id;
+        private final long timestamp;
+        private final String title;
+        private final String signature;
+        private final String errorName;
+        private final String provider;
+        private final String model;
+
+        private Entry(int id, long timestamp, String title, String signature, String errorName, String provider,
+                String model) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.title = title;
+            this.signature = signature;
+            this.errorName = errorName;
+            this.provider = provider;
+            this.model = model;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        /** Time of the analysis in epoch milliseconds */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        /** {@link DumpSignature} key of the dump */
+        public String getSignature() {
+            return signature;
+        }
+
+        /** Runtime error or exception class, empty if unknown */
+        public String getErrorName() {
+            return errorName;
+        }
+
+        /** Display name of the provider that answered */
+        public String getProvider() {
+            return provider;
+        }
+
+        public String getModel() {
+            return model;
+        }
+    }
+
+    /**
+     * Appends an analysis to the history. Does nothing if the history is
+     * disabled or not available.
+     *
+     * @param title     dump title
+     * @param dump      the analyzed dump
+     * @param provider  provider that answered
+     * @param model     model that answered
+     * @param result    analysis text
+     */
+    public synchronized void add(String title, ParsedDump dump, LlmProvider provider, String model, String result) {
+        if (!PreferenceHelper.isAnalysisHistoryEnabled() || result == null || !ensureLoaded()) {
+            return;
+        }
+        String errorName = dump.getRuntimeError() != null ? dump.getRuntimeError()
+                : dump.getExceptionClass() != null ? dump.getExceptionClass() : "";
+        String[] fields = { title != null ? title : "", DumpSignature.of(dump).getKey(), errorName,
+                provider.getDisplayName(), model != null ? model : "", result };
+
+        int bodyBytes = 8;
+        byte[][] encoded = new byte[fields.length][];
+        for (int i = 0; i < fields.length; i++) {
+            encoded[i] = fields[i].getBytes(StandardCharsets.UTF_8);
+            bodyBytes += 4 + encoded[i].length;
+        }
+        ByteBuffer body = ByteBuffer.allocate(bodyBytes);
+        body.putLong(System.currentTimeMillis());
+        for (byte[] field : encoded) {
+            body.putInt(field.length).put(field);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + bodyBytes);
+        record.putInt(RECORD_MAGIC).putInt(bodyBytes).putInt((int) crc.getValue()).put(body.array()).flip();
+
+        try {
+            Segment segment = segments.get(segments.size() - 1);
+            if (segment.size > 0 && segment.size + record.remaining() > SEGMENT_BYTES) {
+                segment = startSegment(segment.number + 1);
+            }
+            long offset = segment.size;
+            while (record.hasRemaining()) {
+                appendChannel.write(record);
+            }
+            segment.size += RECORD_HEADER_BYTES + bodyBytes;
+
+            int id = addLocation(segment.number, offset);
+            indexRecord(id, fields);
+            evict();
+            version.incrementAndGet();
+            if (++unsavedRecords >= INDEX_SAVE_INTERVAL) {
+                saveIndex();
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing analysis history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds analyses whose title, error name, model or result contains words
+     * starting with every word of the query
+     *
+     * @param query words to search for; blank returns the latest entries
+     * @param limit maximum number of entries
+     * @return matching entries, newest first
+     */
+    public synchronized List<Entry> search(String query, int limit) {
+        if (!ensureLoaded() || recordCount == 0) {
+            return Collections.emptyList();
+        }
+        Set<String> words = new LinkedHashSet<>();
+        tokenize(query, words, false);
+
+        BitSet matches = null;
+        for (String word : words) {
+            BitSet wordMatches = new BitSet(recordCount);
+            for (Postings postings : index.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                postings.addTo(wordMatches, firstId, recordCount);
+            }
+            if (matches == null) {
+                matches = wordMatches;
+            } else {
+                matches.and(wordMatches);
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        int ordinal = matches != null ? matches.previousSetBit(recordCount - 1) : recordCount - 1;
+        while (ordinal >= 0 && entries.size() < limit) {
+            Entry entry = readEntry(firstId + ordinal);
+            if (entry != null) {
+                entries.add(entry);
+            }
+            ordinal = matches != null ? matches.previousSetBit(ordinal - 1) : ordinal - 1;
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the analysis text of a history entry
+     *
+     * @param id entry id
+     * @return analysis text, or null if the entry no longer exists
+     */
+    public synchronized String getResult(int id) {
+        ByteBuffer body = readBody(id);
+        if (body == null) {
+            return null;
+        }
+        body.getLong();
+        for (int i = 0; i < 5; i++) {
+            skipString(body);
+        }
+        return readString(body);
+    }
+
+    /**
+     * Returns the number of entries in the history
+     *
+     * @return entry count
+     */
+    public synchronized int size() {
+        return ensureLoaded() ? recordCount : 0;
+    }
+
+    /**
+     * Returns a counter that changes whenever entries are added or removed,
+     * so views can tell cheaply whether to search again
+     *
+     * @return version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Deletes all entries
+     */
+    public synchronized void clear() {
+        if (!ensureLoaded()) {
+            return;
+        }
+        try {
+            int next = segments.get(segments.size() - 1).number + 1;
+            for (Segment segment : new ArrayList<>(segments)) {
+                deleteSegment(segment);
+            }
+            segments.clear();
+            index.clear();
+            firstId += recordCount;
+            recordCount = 0;
+            startSegment(next);
+            saveIndex();
+            version.incrementAndGet();
+        } catch (IOException e) {
+            System.err.println("Error clearing analysis history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the index and releases the open segment. Called when the bundle
+     * stops; the history reopens itself on the next use.
+     */
+    public synchronized void close() {
+        if (directory != null) {
+            saveIndex();
+        }
+        closeAppendChannel();
+        segments.clear();
+        index.clear();
+        recordCount = 0;
+        firstId = 0;
+        directory = null;
+        loaded = false;
+    }
+
+    // ========== Records ==========
+
+    private Entry readEntry(int id) {
+        ByteBuffer body = readBody(id);
+        if (body == null) {
+            return null;
+        }
+        long timestamp = body.getLong();
+        return new Entry(id, timestamp, readString(body), readString(body), readString(body), readString(body),
+                readString(body));
+    }
+
+    /**
+     * Returns a view of a record's body positioned at its start, or null if
+     * the record is gone or damaged
+     */
+    private ByteBuffer readBody(int id) {
+        if (!ensureLoaded() || id < firstId || id >= firstId + recordCount) {
+            return null;
+        }
+        long location = locations[id - firstId];
+        Segment segment = findSegment((int) (location >>> 32));
+        if (segment == null) {
+            return null;
+        }
+        try {
+            ByteBuffer map = segment.map();
+            int offset = (int) location;
+            int length = map.getInt(offset + 4);
+            return map.duplicate().position(offset + RECORD_HEADER_BYTES).limit(offset + RECORD_HEADER_BYTES + length)
+                    .slice();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reading analysis history: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the length of the valid record at an offset, or -1 if the
+     * record is incomplete or damaged (e.g. after a crash during a write)
+     */
+    private static int validRecordLength(ByteBuffer map, int offset, boolean checkCrc) {
+        if (offset + RECORD_HEADER_BYTES > map.limit() || map.getInt(offset) != RECORD_MAGIC) {
+            return -1;
+        }
+        int length = map.getInt(offset + 4);
+        if (length < 8 || offset + RECORD_HEADER_BYTES + length > map.limit()) {
+            return -1;
+        }
+        if (checkCrc) {
+            CRC32 crc = new CRC32();
+            crc.update(map.duplicate().position(offset + RECORD_HEADER_BYTES)
+                    .limit(offset + RECORD_HEADER_BYTES + length));
+            if ((int) crc.getValue() != map.getInt(offset + 8)) {
+                return -1;
+            }
+        }
+        return RECORD_HEADER_BYTES + length;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        buffer.position(buffer.position() + length);
+    }
+
+    private int addLocation(int segmentNumber, long offset) {
+        if (recordCount == locations.length) {
+            locations = Arrays.copyOf(locations, locations.length * 2);
+        }
+        locations[recordCount] = ((long) segmentNumber << 32) | offset;
+        return firstId + recordCount++;
+    }
+
+    // ========== Segments ==========
+
+    /**
+     * A segment file and its read-only mapping. The mapping is renewed when
+     * records were appended beyond its end.
+     */
+    private final class Segment {
+
+        private final int number;
+        private final File file;
+        private long size;
+        private MappedByteBuffer map;
+
+        Segment(int number, File file, long size) {
+            this.number = number;
+            this.file = file;
+            this.size = size;
+        }
+
+        ByteBuffer map() throws IOException {
+            if (map == null || map.limit() < size) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+            }
+            return map;
+        }
+    }
+
+    private Segment startSegment(int number) throws IOException {
+        closeAppendChannel();
+        Segment segment = new Segment(number, segmentFile(number), 0);
+        appendChannel = FileChannel.open(segment.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segments.add(segment);
+        return segment;
+    }
+
+    private Segment findSegment(int number) {
+        for (Segment segment : segments) {
+            if (segment.number == number) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Deletes the oldest segments while the history exceeds its size limit;
+     * the segment being written is kept
+     */
+    private void evict() {
+        long maxBytes = PreferenceHelper.getAnalysisHistoryMaxSizeMb() * 1024L * 1024L;
+        long totalBytes = 0;
+        for (Segment segment : segments) {
+            totalBytes += segment.size;
+        }
+        boolean evicted = false;
+        while (totalBytes > maxBytes && segments.size() > 1) {
+            Segment oldest = segments.get(0);
+            int removed = 0;
+            while (removed < recordCount && (int) (locations[removed] >>> 32) == oldest.number) {
+                removed++;
+            }
+            System.arraycopy(locations, removed, locations, 0, recordCount - removed);
+            recordCount -= removed;
+            firstId += removed;
+            totalBytes -= oldest.size;
+            deleteSegment(oldest);
+            evicted = true;
+        }
+        if (evicted) {
+            retainIndex(firstId + recordCount);
+            saveIndex();
+        }
+    }
+
+    private void deleteSegment(Segment segment) {
+        if (segment == segments.get(segments.size() - 1)) {
+            closeAppendChannel();
+        }
+        segments.remove(segment);
+        segment.map = null;
+        // A file that is still mapped cannot be deleted on Windows; it is
+        // removed on the next start because it precedes the first saved segment
+        if (!segment.file.delete()) {
+            segment.file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Keeps only ids of live records below the given end
+     */
+    private void retainIndex(int endId) {
+        for (Map.Entry<String, Postings> term : index.entrySet()) {
+            term.setValue(term.getValue().retain(firstId, endId));
+        }
+        index.values().removeIf(Postings::isEmpty);
+    }
+
+    private void closeAppendChannel() {
+        if (appendChannel != null) {
+            try {
+                appendChannel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing analysis history: " + e.getMessage());
+            }
+            appendChannel = null;
+        }
+    }
+
+    private File segmentFile(int number) {
+        return new File(directory, String.format(Locale.ROOT, "%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    // ========== Index ==========
+
+    /**
+     * Ascending record ids of one term, stored as variable-length deltas to
+     * keep the index small. Ids only grow, so additions append.
+     */
+    private static final class Postings {
+
+        private byte[] data = new byte[4];
+        private int length;
+        private int last = -1;
+
+        void add(int id) {
+            if (id == last) {
+                return;
+            }
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            int delta = id - last - 1;
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            last = id;
+        }
+
+        void addTo(BitSet bits, int firstId, int count) {
+            int id = -1;
+            int position = 0;
+            while (position < length) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                id += delta + 1;
+                if (id >= firstId && id < firstId + count) {
+                    bits.set(id - firstId);
+                }
+            }
+        }
+
+        /** Copy with only the ids in [fromId, endId) */
+        Postings retain(int fromId, int endId) {
+            BitSet bits = new BitSet();
+            addTo(bits, fromId, endId - fromId);
+            Postings retained = new Postings();
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                retained.add(fromId + i);
+            }
+            return retained;
+        }
+
+        boolean isEmpty() {
+            return length == 0;
+        }
+    }
+
+    private void indexRecord(int id, String[] fields) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(fields[0], terms, true);
+        tokenize(fields[2], terms, true);
+        tokenize(fields[3], terms, true);
+        tokenize(fields[4], terms, true);
+        String result = fields[5];
+        if (result.indexOf('<') >= 0) {
+            result = NON_TEXT_ELEMENTS.matcher(result).replaceAll(" ");
+        }
+        tokenize(result, terms, true);
+        for (String term : terms) {
+            index.computeIfAbsent(term, key -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * Splits text into lower-case words of letters, digits and underscores,
+     * skipping markup tags and character references. For indexing, the parts
+     * of names like CX_SY_ZERODIVIDE are added as well, so "zerodivide" finds
+     * them.
+     */
+    static void tokenize(String text, Set<String> terms, boolean withParts) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '<') {
+                int end = text.indexOf('>', i);
+                i = end < 0 ? length : end + 1;
+                continue;
+            }
+            if (c == '&') {
+                int end = text.indexOf(';', i);
+                i = end > i && end - i <= 10 ? end + 1 : i + 1;
+                continue;
+            }
+            if (!isWordChar(c)) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length && isWordChar(text.charAt(i))) {
+                i++;
+            }
+            addTerm(text.substring(start, i), terms);
+            if (withParts && text.indexOf('_', start) >= 0 && text.indexOf('_', start) < i) {
+                for (String part : text.substring(start, i).split("_+")) {
+                    addTerm(part, terms);
+                }
+            }
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static void addTerm(String word, Set<String> terms) {
+        if (word.length() >= MIN_TERM_LENGTH && word.length() <= MAX_TERM_LENGTH) {
+            terms.add(word.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Writes the index with the id range it covers; replaced atomically
+     */
+    private void saveIndex() {
+        unsavedRecords = 0;
+        if (directory == null) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile(directory.toPath(), "index", ".tmp");
+            try (OutputStream file = Files.newOutputStream(temp);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 65536))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(INDEX_VERSION);
+                out.writeInt(segments.isEmpty() ? 0 : segments.get(0).number);
+                out.writeInt(firstId);
+                out.writeInt(recordCount);
+                out.writeInt(index.size());
+                for (Map.Entry<String, Postings> term : index.entrySet()) {
+                    Postings postings = term.getValue();
+                    out.writeUTF(term.getKey());
+                    out.writeInt(postings.last);
+                    out.writeInt(postings.length);
+                    out.write(postings.data, 0, postings.length);
+                }
+            }
+            Files.move(temp, new File(directory, INDEX_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving analysis history index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the saved index
+     *
+     * @return first segment, first id and number of indexed records, or null
+     *         if there is no usable index
+     */
+    private long[] loadIndex() {
+        File file = new File(directory, INDEX_FILE);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                return null;
+            }
+            int firstSegment = in.readInt();
+            int indexedFirstId = in.readInt();
+            int indexedCount = in.readInt();
+            int terms = in.readInt();
+            for (int t = 0; t < terms; t++) {
+                String term = in.readUTF();
+                Postings postings = new Postings();
+                postings.last = in.readInt();
+                postings.length = in.readInt();
+                postings.data = new byte[Math.max(4, postings.length)];
+                in.readFully(postings.data, 0, postings.length);
+                index.put(term, postings);
+            }
+            return new long[] { firstSegment, indexedFirstId, indexedCount };
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reading analysis history index, rebuilding it: " + e.getMessage());
+            index.clear();
+            return null;
+        }
+    }
+
+    // ========== Loading ==========
+
+    /**
+     * Opens the history on first use: maps the segments, locates their
+     * records and indexes the records the saved index does not cover
+     */
+    private boolean ensureLoaded() {
+        if (loaded) {
+            return directory != null;
+        }
+        loaded = true;
+
+        File stateLocation = Activator.getStateLocation();
+        if (stateLocation == null) {
+            return false;
+        }
+        File dir = new File(stateLocation, HISTORY_DIRECTORY);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("Error creating analysis history directory: " + dir);
+            return false;
+        }
+        directory = dir;
+
+        try {
+            load();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error opening analysis history: " + e.getMessage());
+            closeAppendChannel();
+            directory = null;
+            return false;
+        }
+    }
+
+    private void load() throws IOException {
+        long[] saved = loadIndex();
+        int firstSegment = saved != null ? (int) saved[0] : 0;
+        firstId = saved != null ? (int) saved[1] : 0;
+        int indexedCount = saved != null ? (int) saved[2] : 0;
+
+        File[] files = directory.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        List<Integer> numbers = new ArrayList<>();
+        for (File file : files != null ? files : new File[0]) {
+            String name = file.getName();
+            try {
+                int number = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length()));
+                if (number < firstSegment) {
+                    // Evicted while it was still mapped
+                    file.delete();
+                } else {
+                    numbers.add(number);
+                }
+            } catch (NumberFormatException e) {
+                // Not a segment
+            }
+        }
+        Collections.sort(numbers);
+
+        for (int n = 0; n < numbers.size(); n++) {
+            int number = numbers.get(n);
+            File file = segmentFile(number);
+            Segment segment = new Segment(number, file, file.length());
+            segments.add(segment);
+            ByteBuffer map = segment.map();
+            int offset = 0;
+            while (offset < map.limit()) {
+                // Records covered by the saved index were checked when they were added
+                int length = validRecordLength(map, offset, recordCount >= indexedCount);
+                if (length < 0) {
+                    break;
+                }
+                int id = addLocation(number, offset);
+                if (recordCount > indexedCount) {
+                    indexRecord(id, readFields(map, offset));
+                    unsavedRecords++;
+                }
+                offset += length;
+            }
+            if (offset < map.limit()) {
+                System.err.println("Ignoring damaged analysis history data in " + file.getName());
+                segment.size = offset;
+                segment.map = null;
+                if (n == numbers.size() - 1) {
+                    // Cut the torn tail so new records follow the last good one
+                    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                        channel.truncate(offset);
+                    }
+                }
+            }
+        }
+        if (recordCount < indexedCount) {
+            // Segments were lost, so saved ids no longer match record positions
+            System.err.println("Analysis history segments are missing, rebuilding the index");
+            index.clear();
+            for (int ordinal = 0; ordinal < recordCount; ordinal++) {
+                Segment segment = findSegment((int) (locations[ordinal] >>> 32));
+                indexRecord(firstId + ordinal, readFields(segment.map(), (int) locations[ordinal]));
+            }
+            unsavedRecords = recordCount;
+        }
+
+        if (segments.isEmpty() || segments.get(segments.size() - 1).size >= SEGMENT_BYTES) {
+            startSegment(segments.isEmpty() ? firstSegment : segments.get(segments.size() - 1).number + 1);
+        } else {
+            appendChannel = FileChannel.open(segments.get(segments.size() - 1).file.toPath(),
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        if (unsavedRecords > 0) {
+            saveIndex();
+        }
+    }
+
+    private static String[] readFields(ByteBuffer map, int offset) {
+        ByteBuffer body = map.duplicate().position(offset + RECORD_HEADER_BYTES);
+        body.getLong();
+        String[] fields = new String[6];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = readString(body);
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,150 @@
+package com.keksss.abap.ai.core;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the HTML shown in the result view from analysis results.
+ * Models either answer with a complete HTML document (as the default prompt
+ * asks) or with Markdown/plain text, which is rendered by
+ * {@link MarkdownRenderer}. Building a page can take a while for large
+ * answers, so callers run it off the UI thread.
+ */
+public final class AnalysisHtmlBuilder {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final Pattern BODY_CONTENT = Pattern.compile("(?is)<body[^>]*>(.*?)(</body>|$)");
+    private static final Pattern BODY_OPEN = Pattern.compile("(?i)<body[^>]*>");
+    private static final Pattern STYLE_CONTENT = Pattern.compile("(?is)<style[^>]*>(.*?)</style>");
+
+    private static final String PAGE_STYLE = "body { font-family: sans-serif; padding: 10px; }" +
+            ".header { color: #555; font-size: 0.9em; margin-bottom: 15px; }" +
+            ".title { font-size: 1.2em; font-weight: bold; margin-bottom: 20px; }" +
+            ".content { border: 1px solid #ccc; padding: 15px; background-color: #f9f9f9; border-radius: 5px; }" +
+            MarkdownRenderer.STYLE;
+
+    private static final String PAGE_START = "<html><head><style>" + PAGE_STYLE + "</style></head><body>";
+    private static final String PAGE_END = "</body></html>";
+
+    private AnalysisHtmlBuilder() {
+    }
+
+    /**
+     * Builds a complete page for a single analysis
+     *
+     * @param result    analysis result
+     * @param timestamp time shown in the page header
+     * @return HTML document
+     */
+    public static String resultPage(AnalysisResult result, LocalDateTime timestamp) {
+        if (!result.isSuccess()) {
+            return "<html><body><h3>Error</h3><p>" + MarkdownRenderer.escapeHtml(result.getErrorMessage())
+                    + "</p></body></html>";
+        }
+
+        String dateStr = timestamp.format(DATE_FORMAT);
+        String timeStr = timestamp.format(TIME_FORMAT);
+        String analysisText = result.getAnalysisText();
+        String cachedNote = result.isFromCache() ? " (cached result)"
+                : result.isFallback() ? " (answered by " + result.getProvider().getDisplayName() + ")" : "";
+        if (result.isPartial()) {
+            cachedNote += " (incomplete: parts of the dump could not be summarized)";
+        }
+
+        if (isHtmlDocument(analysisText)) {
+            // Inject the timestamp header for consistency but preserve the HTML structure
+            String timestampHtml = "<div style='font-family: sans-serif; color: #555; font-size: 0.9em; padding: 10px; border-bottom: 1px solid #eee; background-color: #fcfcfc;'>Analysis Date: "
+                    + dateStr + ", Time: " + timeStr + cachedNote + "</div>";
+            Matcher body = BODY_OPEN.matcher(analysisText);
+            if (!body.find()) {
+                return analysisText;
+            }
+            return new StringBuilder(analysisText.length() + timestampHtml.length())
+                    .append(analysisText, 0, body.end())
+                    .append(timestampHtml)
+                    .append(analysisText, body.end(), analysisText.length())
+                    .toString();
+        }
+
+        // Treat as Markdown
+        String content = textToHtml(analysisText);
+        return new StringBuilder(PAGE_START.length() + content.length() + 160)
+                .append(PAGE_START)
+                .append("<div class='header'>Date: ").append(dateStr).append(", Time: ").append(timeStr)
+                .append(cachedNote).append("</div>")
+                .append("<div class='content'>").append(content).append("</div>")
+                .append(PAGE_END)
+                .toString();
+    }
+
+    /**
+     * Builds the markup for one analysis embedded in a larger page, e.g. one
+     * entry of a batch. Full HTML documents are reduced to their body content.
+     *
+     * @param result analysis result
+     * @return HTML fragment
+     */
+    public static String resultFragment(AnalysisResult result) {
+        if (!result.isSuccess()) {
+            return "<div class='error'><b>Error:</b> " + MarkdownRenderer.escapeHtml(result.getErrorMessage())
+                    + "</div>";
+        }
+
+        String analysisText = result.getAnalysisText();
+        if (isHtmlDocument(analysisText)) {
+            return bodyContent(analysisText);
+        }
+        return textToHtml(analysisText);
+    }
+
+    /**
+     * Returns the content of the body element of an HTML document
+     *
+     * @param html HTML document
+     * @return body markup, or the input itself if it has no body element
+     */
+    public static String bodyContent(String html) {
+        Matcher matcher = BODY_CONTENT.matcher(html);
+        return matcher.find() ? matcher.group(1) : html;
+    }
+
+    /**
+     * Collects the style sheets of an HTML document
+     *
+     * @param html HTML document
+     * @return content of all style elements, empty if there are none
+     */
+    public static String styles(String html) {
+        StringBuilder styles = new StringBuilder();
+        Matcher matcher = STYLE_CONTENT.matcher(html);
+        while (matcher.find()) {
+            styles.append(matcher.group(1)).append('\n');
+        }
+        return styles.toString();
+    }
+
+    /**
+     * Checks whether the model answered with a full HTML document
+     *
+     * @param analysisText analysis text
+     * @return true if the text starts with a doctype or html tag
+     */
+    public static boolean isHtmlDocument(String analysisText) {
+        if (analysisText == null) {
+            return false;
+        }
+        int start = 0;
+        while (start < analysisText.length() && Character.isWhitespace(analysisText.charAt(start))) {
+            start++;
+        }
+        return analysisText.regionMatches(true, start, "<!doctype", 0, 9)
+                || analysisText.regionMatches(true, start, "<html", 0, 5);
+    }
+
+    private static String textToHtml(String analysisText) {
+        return MarkdownRenderer.toHtml(analysisText);
+    }
+}
@@ -0,0 +1,258 @@
+package com.keksss.abap.ai.core;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dev.langchain4j.model.anthropic.AnthropicTokenUsage;
+import dev.langchain4j.model.openai.OpenAiTokenUsage;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * Performance statistics of AI calls per provider and model: latency of each
+ * phase of an analysis, token usage reported by the provider, cache hits and
+ * failures. Values are aggregated into {@link LatencyHistogram}s so the
+ * memory used does not grow with the number of calls. Statistics live for the
+ * IDE session.
+ */
+public final class AnalysisMetrics {
+
+    /**
+     * Measured phases of an analysis
+     */
+    public enum Phase {
+        /** Parsing, cache lookup, compaction and prompt construction */
+        PROMPT_BUILD("Prompt build"),
+        /** Parallel summaries of an oversized dump's chunks before the final call */
+        CHUNK_SUMMARIES("Chunk summaries"),
+        /** Getting the chat model from the registry, creating it if needed */
+        MODEL_ACQUISITION("Model acquisition"),
+        /** Request sent until the first streamed token arrived */
+        FIRST_TOKEN("First token"),
+        /** Whole analysis of a successful, uncached request */
+        TOTAL("Total");
+
+        private final String displayName;
+
+        Phase(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static final AnalysisMetrics INSTANCE = new AnalysisMetrics();
+
+    // Sorted so the dashboard lists models in a stable order
+    private final Map<String, ModelMetrics> models = new ConcurrentSkipListMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private AnalysisMetrics() {
+    }
+
+    /**
+     * Get the shared metrics instance
+     *
+     * @return AnalysisMetrics
+     */
+    public static AnalysisMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records the duration of a phase
+     *
+     * @param config configuration of the call
+     * @param phase  measured phase
+     * @param millis duration in milliseconds
+     */
+    public void recordLatency(LlmConfig config, Phase phase, long millis) {
+        metricsFor(config).latencies.get(phase).record(millis);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Records a response and the token usage the provider reported with it
+     *
+     * @param config configuration of the call
+     * @param usage  token usage from the response metadata, may be null
+     */
+    void recordResponse(LlmConfig config, TokenUsage usage) {
+        ModelMetrics metrics = metricsFor(config);
+        metrics.responses.incrementAndGet();
+        if (usage != null && usage.inputTokenCount() != null) {
+            metrics.inputTokens.record(usage.inputTokenCount());
+        }
+        if (usage != null && usage.outputTokenCount() != null) {
+            metrics.outputTokens.record(usage.outputTokenCount());
+        }
+        Integer cached = cachedInputTokens(usage);
+        if (cached != null) {
+            metrics.cachedInputTokens.record(cached);
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return input tokens served from the provider's prompt cache, or null
+     *         if the provider does not report them
+     */
+    private static Integer cachedInputTokens(TokenUsage usage) {
+        if (usage instanceof AnthropicTokenUsage) {
+            return ((AnthropicTokenUsage) usage).cacheReadInputTokens();
+        }
+        if (usage instanceof OpenAiTokenUsage && ((OpenAiTokenUsage) usage).inputTokensDetails() != null) {
+            return ((OpenAiTokenUsage) usage).inputTokensDetails().cachedTokens();
+        }
+        return null;
+    }
+
+    /**
+     * Records an analysis served from the {@link AnalysisCache}
+     *
+     * @param config configuration of the request
+     */
+    public void recordCacheHit(LlmConfig config) {
+        metricsFor(config).cacheHits.incrementAndGet();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Records a failed call
+     *
+     * @param config  configuration of the call
+     * @param message error message, kept as the model's last error
+     */
+    public void recordFailure(LlmConfig config, String message) {
+        ModelMetrics metrics = metricsFor(config);
+        metrics.failures.incrementAndGet();
+        metrics.lastError = message;
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return statistics of every model used so far, ordered by provider and model
+     */
+    public List<ModelMetrics> getModels() {
+        return new ArrayList<>(models.values());
+    }
+
+    /**
+     * Changes whenever a value is recorded, so viewers only redraw on change
+     *
+     * @return modification counter
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Discards all statistics
+     */
+    public void reset() {
+        models.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return milliseconds passed since a {@link System#nanoTime()} value
+     */
+    static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private ModelMetrics metricsFor(LlmConfig config) {
+        String model = config.getModel() != null && !config.getModel().trim().isEmpty()
+                ? config.getModel().trim()
+                : "default";
+        return models.computeIfAbsent(config.getProvider().name() + "/" + model,
+                key -> new ModelMetrics(config.getProvider(), model));
+    }
+
+    /**
+     * Statistics of one provider and model
+     */
+    public static final class ModelMetrics {
+        private final LlmProvider provider;
+        private final String model;
+        private final Map<Phase, LatencyHistogram> latencies = new EnumMap<>(Phase.class);
+        private final LatencyHistogram inputTokens = new LatencyHistogram();
+        private final LatencyHistogram outputTokens = new LatencyHistogram();
+        private final LatencyHistogram cachedInputTokens = new LatencyHistogram();
+        private final AtomicLong responses = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong cacheHits = new AtomicLong();
+        private volatile String lastError;
+
+        private ModelMetrics(LlmProvider provider, String model) {
+            this.provider = provider;
+            this.model = model;
+            for (Phase phase : Phase.values()) {
+                latencies.put(phase, new LatencyHistogram());
+            }
+        }
+
+        public LlmProvider getProvider() {
+            return provider;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        /**
+         * @param phase measured phase
+         * @return durations of the phase in milliseconds
+         */
+        public LatencyHistogram getLatency(Phase phase) {
+            return latencies.get(phase);
+        }
+
+        /**
+         * @return input tokens per response, as reported by the provider
+         */
+        public LatencyHistogram getInputTokens() {
+            return inputTokens;
+        }
+
+        /**
+         * @return input tokens per response read from the provider's prompt
+         *         cache, for providers reporting them
+         */
+        public LatencyHistogram getCachedInputTokens() {
+            return cachedInputTokens;
+        }
+
+        /**
+         * @return output tokens per response, as reported by the provider
+         */
+        public LatencyHistogram getOutputTokens() {
+            return outputTokens;
+        }
+
+        public long getResponses() {
+            return responses.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        public long getCacheHits() {
+            return cacheHits.get();
+        }
+
+        /**
+         * @return message of the most recent failure, or null
+         */
+        public String getLastError() {
+            return lastError;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.keksss.abap.ai.core;
+
+/**
+ * Parameters of a single dump analysis using Builder pattern
+ */
+public class AnalysisRequest {
+    private final String title;
+    private final String dumpContent;
+    private final AnalysisStreamListener streamListener;
+    private final boolean forceReanalyze;
+    private final LlmConfig config;
+    private final CancellationToken cancellation;
+
+    private AnalysisRequest(Builder builder) {
+        this.title = builder.title;
+        this.dumpContent = builder.dumpContent;
+        this.streamListener = builder.streamListener;
+        this.forceReanalyze = builder.forceReanalyze;
+        this.config = builder.config;
+        this.cancellation = builder.cancellation != null ? builder.cancellation : new CancellationToken();
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDumpContent() {
+        return dumpContent;
+    }
+
+    /**
+     * @return receiver of partial output, or null for a blocking analysis
+     */
+    public AnalysisStreamListener getStreamListener() {
+        return streamListener;
+    }
+
+    /**
+     * @return true if cached results must be ignored and replaced
+     */
+    public boolean isForceReanalyze() {
+        return forceReanalyze;
+    }
+
+    /**
+     * @return configuration used for the whole analysis, or null to use the
+     *         current preferences snapshot
+     */
+    public LlmConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return token that aborts the analysis, including a running request
+     */
+    public CancellationToken getCancellation() {
+        return cancellation;
+    }
+
+    /**
+     * Builder for AnalysisRequest
+     */
+    public static class Builder {
+        private String title;
+        private String dumpContent = "";
+        private AnalysisStreamListener streamListener;
+        private boolean forceReanalyze;
+        private LlmConfig config;
+        private CancellationToken cancellation;
+
+        public Builder title(String title) {
+            this.title = title;
+            return this;
+        }
+
+        public Builder dumpContent(String dumpContent) {
+            this.dumpContent = dumpContent;
+            return this;
+        }
+
+        public Builder streamListener(AnalysisStreamListener streamListener) {
+            this.streamListener = streamListener;
+            return this;
+        }
+
+        public Builder forceReanalyze(boolean forceReanalyze) {
+            this.forceReanalyze = forceReanalyze;
+            return this;
+        }
+
+        public Builder config(LlmConfig config) {
+            this.config = config;
+            return this;
+        }
+
+        public Builder cancellation(CancellationToken cancellation) {
+            this.cancellation = cancellation;
+            return this;
+        }
+
+        public AnalysisRequest build() {
+            return new AnalysisRequest(this);
+        }
+    }
+}
@@ -8,6 +8,11 @@ public class AnalysisResult {
     private boolean success;
     private String analysisText;
     private String errorMessage;
+    private boolean fromCache;
+    private LlmProvider provider;
+    private boolean fallback;
+    private boolean cancelled;
+    private boolean partial;
 
     public AnalysisResult(boolean success, String analysisText, String errorMessage) {
         this.success = success;
@@ -22,6 +27,15 @@ public class AnalysisResult {
         return new AnalysisResult(true, analysisText, null);
     }
 
+    /**
+     * Creates a successful result served from the analysis cache
+     */
+    public static AnalysisResult cached(String analysisText) {
+        AnalysisResult result = new AnalysisResult(true, analysisText, null);
+        result.fromCache = true;
+        return result;
+    }
+
     /**
      * Creates a failed result
      */
@@ -29,6 +43,15 @@ public class AnalysisResult {
         return new AnalysisResult(false, null, errorMessage);
     }
 
+    /**
+     * Creates the result of a cancelled analysis
+     */
+    public static AnalysisResult cancelled() {
+        AnalysisResult result = new AnalysisResult(false, null, "Analysis was cancelled.");
+        result.cancelled = true;
+        return result;
+    }
+
     public boolean isSuccess() {
         return success;
     }
@@ -40,4 +63,55 @@ public class AnalysisResult {
     public String getErrorMessage() {
         return errorMessage;
     }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    /**
+     * @return true if the analysis was cancelled before it completed
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return provider that produced the analysis, or null if unknown (e.g.
+     *         cached results)
+     */
+    public LlmProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * @return true if a backup provider answered instead of the configured one
+     */
+    public boolean isFallback() {
+        return fallback;
+    }
+
+    /**
+     * @return true if parts of an oversized dump could not be summarized, so
+     *         the analysis may miss details; such results are not cached
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * Marks the analysis as based on an incomplete set of summaries
+     */
+    AnalysisResult markPartial() {
+        this.partial = true;
+        return this;
+    }
+
+    /**
+     * Records which provider produced this result
+     */
+    AnalysisResult servedBy(LlmProvider provider, boolean fallback) {
+        this.provider = provider;
+        this.fallback = fallback;
+        return this;
+    }
 }
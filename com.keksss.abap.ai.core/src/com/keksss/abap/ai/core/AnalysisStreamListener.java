@@ -0,0 +1,25 @@
+package com.keksss.abap.ai.core;
+
+/**
+ * Receives partial LLM output while a streaming analysis is in progress.
+ * Callbacks arrive on a provider I/O thread, never on the UI thread.
+ */
+@FunctionalInterface
+public interface AnalysisStreamListener {
+
+    /**
+     * Called for every chunk of text produced by the model
+     * 
+     * @param text the newly generated text fragment
+     */
+    void onPartialText(String text);
+
+    /**
+     * Called when the text received so far is discarded because its provider
+     * failed; the following fragments start the answer of another provider
+     * 
+     * @param provider provider whose answer follows
+     */
+    default void onRestart(LlmProvider provider) {
+    }
+}
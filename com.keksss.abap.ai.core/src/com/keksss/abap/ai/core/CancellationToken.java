@@ -0,0 +1,118 @@
+package com.keksss.abap.ai.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancellation signal for one analysis. Cancelling runs the registered
+ * callbacks, which abort waits, release callers blocked on a response and
+ * tear down streaming requests. A token created with a parent is cancelled
+ * together with it until it is detached.
+ */
+public final class CancellationToken {
+
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private final List<Runnable> callbacks = new ArrayList<>();
+    private final Runnable parentRegistration;
+
+    public CancellationToken() {
+        this.parentRegistration = null;
+    }
+
+    /**
+     * @param parent token whose cancellation also cancels this one; call
+     *               {@link #detach()} once the work this token guards has ended
+     */
+    public CancellationToken(CancellationToken parent) {
+        this.parentRegistration = parent.onCancel(this::cancel);
+    }
+
+    /**
+     * Stops following the parent's cancellation, so a long-lived parent does
+     * not keep finished children. Cancelling the token detaches it as well.
+     */
+    public void detach() {
+        if (parentRegistration != null) {
+            parentRegistration.run();
+        }
+    }
+
+    /**
+     * Cancels the analysis; only the first call has an effect
+     */
+    public void cancel() {
+        List<Runnable> toRun;
+        synchronized (callbacks) {
+            if (isCancelled()) {
+                return;
+            }
+            cancelled.countDown();
+            toRun = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        detach();
+        for (Runnable callback : toRun) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error in cancellation callback: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return true once {@link #cancel()} was called
+     */
+    public boolean isCancelled() {
+        return cancelled.getCount() == 0;
+    }
+
+    /**
+     * Registers a callback run on cancellation, or at once if already cancelled
+     *
+     * @param callback callback; must not block
+     * @return action unregistering the callback, to be run once the work it
+     *         would cancel has ended
+     */
+    public Runnable onCancel(Runnable callback) {
+        synchronized (callbacks) {
+            if (!isCancelled()) {
+                callbacks.add(callback);
+                return () -> {
+                    synchronized (callbacks) {
+                        callbacks.remove(callback);
+                    }
+                };
+            }
+        }
+        callback.run();
+        return () -> {
+        };
+    }
+
+    /**
+     * @throws CancellationException if the token was cancelled
+     */
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Analysis was cancelled");
+        }
+    }
+
+    /**
+     * Sleeps unless cancelled meanwhile
+     *
+     * @param millis time to wait
+     * @throws CancellationException if the token is cancelled before or while waiting
+     * @throws InterruptedException  if the thread is interrupted
+     */
+    public void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            cancelled.await(millis, TimeUnit.MILLISECONDS);
+        }
+        throwIfCancelled();
+    }
+}
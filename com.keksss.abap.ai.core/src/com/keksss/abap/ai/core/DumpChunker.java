@@ -0,0 +1,168 @@
+package com.keksss.abap.ai.core;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits dumps too large for one prompt. The sections explaining the error
+ * are kept together as the dump's core; all other sections are grouped into
+ * call stack, source extract, variables and environment and cut into chunks
+ * of a token budget along line boundaries, so each chunk can be summarized
+ * separately.
+ */
+final class DumpChunker {
+
+    /**
+     * Groups of sections summarized separately
+     */
+    enum Part {
+        CALL_STACK("Call stack"),
+        SOURCE("Source code extract"),
+        VARIABLES("Variables"),
+        ENVIRONMENT("Environment");
+
+        private final String displayName;
+
+        Part(String displayName) {
+            this.displayName = displayName;
+        }
+
+        String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static final Map<DumpSectionType, Part> SECTION_PARTS = new EnumMap<>(DumpSectionType.class);
+
+    static {
+        SECTION_PARTS.put(DumpSectionType.ACTIVE_CALLS, Part.CALL_STACK);
+        SECTION_PARTS.put(DumpSectionType.APPLICATION_CALLS, Part.CALL_STACK);
+        SECTION_PARTS.put(DumpSectionType.KERNEL_CALLS, Part.CALL_STACK);
+        SECTION_PARTS.put(DumpSectionType.SOURCE_CODE_EXTRACT, Part.SOURCE);
+        SECTION_PARTS.put(DumpSectionType.CHOSEN_VARIABLES, Part.VARIABLES);
+        SECTION_PARTS.put(DumpSectionType.SYSTEM_FIELDS, Part.VARIABLES);
+        SECTION_PARTS.put(DumpSectionType.APPLICATION_TABLES, Part.VARIABLES);
+        SECTION_PARTS.put(DumpSectionType.CONTROL_BLOCKS, Part.VARIABLES);
+        SECTION_PARTS.put(DumpSectionType.WHAT_CAN_YOU_DO, Part.ENVIRONMENT);
+        SECTION_PARTS.put(DumpSectionType.SYSTEM_ENVIRONMENT, Part.ENVIRONMENT);
+        SECTION_PARTS.put(DumpSectionType.USER_AND_TRANSACTION, Part.ENVIRONMENT);
+        SECTION_PARTS.put(DumpSectionType.APPLICATION_INFORMATION, Part.ENVIRONMENT);
+        SECTION_PARTS.put(DumpSectionType.INTERNAL_NOTES, Part.ENVIRONMENT);
+        SECTION_PARTS.put(DumpSectionType.PROGRAMS_AFFECTED, Part.ENVIRONMENT);
+        SECTION_PARTS.put(DumpSectionType.SPOOL_ERROR, Part.ENVIRONMENT);
+    }
+
+    /**
+     * Consecutive lines of one part, at most one token budget long
+     */
+    static final class Chunk {
+        private final Part part;
+        private final String text;
+        private int number;
+        private int count;
+
+        private Chunk(Part part, String text) {
+            this.part = part;
+            this.text = text;
+        }
+
+        Part getPart() {
+            return part;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        /**
+         * @return e.g. "Variables (part 2 of 3)"
+         */
+        String getLabel() {
+            return count > 1 ? part.getDisplayName() + " (part " + number + " of " + count + ")"
+                    : part.getDisplayName();
+        }
+    }
+
+    private DumpChunker() {
+    }
+
+    /**
+     * @param dump parsed dump
+     * @return preamble, short text, error analysis, termination point and
+     *         correction hints; the sections not split into chunks
+     */
+    static String core(ParsedDump dump) {
+        StringBuilder core = new StringBuilder();
+        for (ParsedDump.Section section : dump.getSections()) {
+            if (!SECTION_PARTS.containsKey(section.getType())) {
+                core.append(section.getHeader()).append(DumpCompactor.collapse(dump, section));
+            }
+        }
+        return core.toString();
+    }
+
+    /**
+     * Cuts all sections outside the core into chunks
+     *
+     * @param dump        parsed dump
+     * @param chunkTokens maximum tokens per chunk
+     * @param counter     tokenizer matching the target model
+     * @return chunks ordered by part, empty if the dump has only core sections
+     */
+    static List<Chunk> chunks(ParsedDump dump, int chunkTokens, TokenCounter counter) {
+        Map<Part, StringBuilder> texts = new EnumMap<>(Part.class);
+        for (ParsedDump.Section section : dump.getSections()) {
+            Part part = SECTION_PARTS.get(section.getType());
+            if (part != null) {
+                texts.computeIfAbsent(part, p -> new StringBuilder())
+                        .append(section.getHeader()).append(DumpCompactor.collapse(dump, section));
+            }
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        for (Map.Entry<Part, StringBuilder> entry : texts.entrySet()) {
+            List<Chunk> partChunks = split(entry.getKey(), entry.getValue().toString(), chunkTokens, counter);
+            for (int i = 0; i < partChunks.size(); i++) {
+                partChunks.get(i).number = i + 1;
+                partChunks.get(i).count = partChunks.size();
+            }
+            chunks.addAll(partChunks);
+        }
+        return chunks;
+    }
+
+    private static List<Chunk> split(Part part, String text, int chunkTokens, TokenCounter counter) {
+        List<Chunk> chunks = new ArrayList<>();
+        StringBuilder chunk = new StringBuilder();
+        int tokens = 0;
+        int pos = 0;
+        while (pos < text.length()) {
+            int newline = text.indexOf('\n', pos);
+            int next = newline < 0 ? text.length() : newline + 1;
+            String line = text.substring(pos, next);
+            int lineTokens = counter.count(line);
+            if (lineTokens > chunkTokens) {
+                line = counter.truncate(line, chunkTokens);
+                lineTokens = chunkTokens;
+            }
+            if (tokens + lineTokens > chunkTokens && chunk.length() > 0) {
+                addChunk(chunks, part, chunk);
+                chunk.setLength(0);
+                tokens = 0;
+            }
+            chunk.append(line);
+            tokens += lineTokens;
+            pos = next;
+        }
+        addChunk(chunks, part, chunk);
+        return chunks;
+    }
+
+    private static void addChunk(List<Chunk> chunks, Part part, StringBuilder chunk) {
+        if (!chunk.toString().isBlank()) {
+            chunks.add(new Chunk(part, chunk.toString()));
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package com.keksss.abap.ai.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shrinks ST22 dump text to fit a token budget before it is put into the
+ * prompt. Repeated lines and call-stack frames are collapsed, low-value
+ * sections (system environment, kernel calls, ...) are dropped first, and the
+ * remaining sections are abbreviated by priority until the text fits.
+ */
+public final class DumpCompactor {
+
+    /** Sections at or below this priority are dropped before anything is abbreviated */
+    private static final int DROPPABLE_PRIORITY = 4;
+    private static final int MIN_SECTION_TOKENS = 64;
+
+    private static final Map<DumpSectionType, Integer> SECTION_PRIORITIES = new EnumMap<>(DumpSectionType.class);
+
+    static {
+        SECTION_PRIORITIES.put(DumpSectionType.PREAMBLE, 10);
+        SECTION_PRIORITIES.put(DumpSectionType.SHORT_TEXT, 10);
+        SECTION_PRIORITIES.put(DumpSectionType.ERROR_ANALYSIS, 9);
+        SECTION_PRIORITIES.put(DumpSectionType.WHERE_TERMINATED, 9);
+        SECTION_PRIORITIES.put(DumpSectionType.WHAT_HAPPENED, 8);
+        SECTION_PRIORITIES.put(DumpSectionType.SOURCE_CODE_EXTRACT, 8);
+        SECTION_PRIORITIES.put(DumpSectionType.ACTIVE_CALLS, 7);
+        SECTION_PRIORITIES.put(DumpSectionType.HOW_TO_CORRECT, 6);
+        SECTION_PRIORITIES.put(DumpSectionType.CHOSEN_VARIABLES, 4);
+        SECTION_PRIORITIES.put(DumpSectionType.WHAT_CAN_YOU_DO, 3);
+        SECTION_PRIORITIES.put(DumpSectionType.SYSTEM_FIELDS, 3);
+        SECTION_PRIORITIES.put(DumpSectionType.USER_AND_TRANSACTION, 2);
+        SECTION_PRIORITIES.put(DumpSectionType.APPLICATION_TABLES, 2);
+        SECTION_PRIORITIES.put(DumpSectionType.APPLICATION_CALLS, 2);
+        SECTION_PRIORITIES.put(DumpSectionType.APPLICATION_INFORMATION, 2);
+        SECTION_PRIORITIES.put(DumpSectionType.SYSTEM_ENVIRONMENT, 1);
+        SECTION_PRIORITIES.put(DumpSectionType.PROGRAMS_AFFECTED, 1);
+        SECTION_PRIORITIES.put(DumpSectionType.INTERNAL_NOTES, 1);
+        SECTION_PRIORITIES.put(DumpSectionType.KERNEL_CALLS, 1);
+        SECTION_PRIORITIES.put(DumpSectionType.CONTROL_BLOCKS, 1);
+        SECTION_PRIORITIES.put(DumpSectionType.SPOOL_ERROR, 1);
+    }
+
+    private DumpCompactor() {
+    }
+
+    /**
+     * Compacts dump text so it fits the token budget
+     *
+     * @param dumpContent raw dump text
+     * @param tokenBudget maximum number of tokens for the dump text
+     * @param counter     tokenizer matching the target model
+     * @return the dump itself if it is shorter than the budget, the dump with
+     *         repeated lines collapsed if that fits, otherwise a compacted
+     *         version
+     */
+    public static String compact(String dumpContent, int tokenBudget, TokenCounter counter) {
+        if (dumpContent == null || dumpContent.isEmpty()) {
+            return "";
+        }
+        if (dumpContent.length() <= tokenBudget) {
+            return dumpContent;
+        }
+        return compact(new MeasuredDump(DumpParser.parse(dumpContent), counter), tokenBudget);
+    }
+
+    /**
+     * Compacts an already parsed dump so it fits the token budget
+     *
+     * @param dump        parsed dump
+     * @param tokenBudget maximum number of tokens for the dump text
+     * @param counter     tokenizer matching the target model
+     * @return the dump text itself if it is shorter than the budget, the dump
+     *         with repeated lines collapsed if that fits, otherwise a compacted
+     *         version
+     */
+    public static String compact(ParsedDump dump, int tokenBudget, TokenCounter counter) {
+        return compact(new MeasuredDump(dump, counter), tokenBudget);
+    }
+
+    /**
+     * Compacts a dump whose budget may already have been checked, reusing
+     * the token counts taken for that check
+     *
+     * @param dump        parsed dump with its token counts
+     * @param tokenBudget maximum number of tokens for the dump text
+     * @return the dump text itself if it is shorter than the budget, the dump
+     *         with repeated lines collapsed if that fits, otherwise a compacted
+     *         version
+     */
+    static String compact(MeasuredDump dump, int tokenBudget) {
+        String dumpContent = dump.getDump().getText();
+        if (dumpContent.isEmpty() || dumpContent.length() <= tokenBudget) {
+            return dumpContent;
+        }
+        if (dump.fits(tokenBudget)) {
+            return dump.collapsedText();
+        }
+        return compactSections(dump, tokenBudget);
+    }
+
+    /**
+     * @return true if the text is within the budget and needs no compaction
+     */
+    static boolean fits(String dumpContent, int tokenBudget, TokenCounter counter) {
+        // Every token covers at least one character
+        return dumpContent.length() <= tokenBudget || counter.count(dumpContent) <= tokenBudget;
+    }
+
+    private static String compactSections(MeasuredDump measured, int tokenBudget) {
+        ParsedDump dump = measured.getDump();
+        TokenCounter counter = measured.getCounter();
+        String dumpContent = dump.getText();
+        measured.measure();
+        List<Section> sections = new ArrayList<>();
+        int total = measured.totalTokens;
+        for (int i = 0; i < measured.bodies.length; i++) {
+            ParsedDump.Section parsed = dump.getSections().get(i);
+            Section section = new Section(parsed.getHeader(), SECTION_PRIORITIES.get(parsed.getType()));
+            section.body = measured.bodies[i];
+            section.tokens = measured.sectionTokens[i];
+            sections.add(section);
+        }
+
+        List<Section> byPriority = new ArrayList<>(sections);
+        byPriority.sort(Comparator.comparingInt(s -> s.priority));
+
+        // 1. Drop low-value sections entirely
+        for (Section section : byPriority) {
+            if (total <= tokenBudget || section.priority > DROPPABLE_PRIORITY) {
+                break;
+            }
+            String placeholder = "[section omitted: ~" + section.tokens + " tokens]\n";
+            int newTokens = counter.count(section.header) + counter.count(placeholder);
+            total -= section.tokens - newTokens;
+            section.body = placeholder;
+            section.tokens = newTokens;
+        }
+
+        // 2. Abbreviate the remaining sections, least important first
+        for (Section section : byPriority) {
+            if (total <= tokenBudget) {
+                break;
+            }
+            if (section.priority <= DROPPABLE_PRIORITY) {
+                continue;
+            }
+            int target = Math.max(MIN_SECTION_TOKENS, section.tokens - (total - tokenBudget));
+            if (target >= section.tokens) {
+                continue;
+            }
+            section.body = abbreviate(section.body, target, counter);
+            int newTokens = counter.count(section.header) + counter.count(section.body);
+            total -= section.tokens - newTokens;
+            section.tokens = newTokens;
+        }
+
+        StringBuilder result = new StringBuilder(dumpContent.length() / 2);
+        for (Section section : sections) {
+            result.append(section.header).append(section.body);
+        }
+
+        // 3. Hard limit as a last resort
+        return counter.truncate(result.toString(), tokenBudget);
+    }
+
+    /**
+     * Body of a section with repeated lines and recursive call stack frames
+     * collapsed
+     *
+     * @param dump    parsed dump
+     * @param section section of the dump
+     * @return collapsed section body
+     */
+    static String collapse(ParsedDump dump, ParsedDump.Section section) {
+        return section.getType() == DumpSectionType.ACTIVE_CALLS
+                ? collapseFrames(dump, section)
+                : collapseLines(section.getBody());
+    }
+
+    /**
+     * Collapses runs of identical lines that are longer than the note
+     * replacing them
+     */
+    private static String collapseLines(String body) {
+        StringBuilder result = new StringBuilder(body.length());
+        int repeats = 0;
+        int runStart = 0;
+        int previousStart = -1;
+        int previousEnd = -1;
+        int pos = 0;
+        while (pos < body.length()) {
+            int newline = body.indexOf('\n', pos);
+            int next = newline < 0 ? body.length() : newline + 1;
+            int lineEnd = newline < 0 ? body.length() : newline;
+            boolean repeated = previousStart >= 0 && lineEnd - pos == previousEnd - previousStart
+                    && body.regionMatches(pos, body, previousStart, lineEnd - pos)
+                    && !isBlank(body, pos, lineEnd);
+            if (repeated) {
+                repeats++;
+            } else {
+                appendRepeatedLines(result, body, runStart, pos, repeats);
+                repeats = 0;
+                result.append(body, pos, next);
+                previousStart = pos;
+                previousEnd = lineEnd;
+                runStart = next;
+            }
+            pos = next;
+        }
+        appendRepeatedLines(result, body, runStart, pos, repeats);
+        return result.toString();
+    }
+
+    private static void appendRepeatedLines(StringBuilder result, String body, int start, int end, int repeats) {
+        if (repeats > 0 && repeatNote(repeats, false).length() < end - start) {
+            appendRepeatNote(result, repeats, false);
+        } else {
+            result.append(body, start, end);
+        }
+    }
+
+    /**
+     * Collapses runs of call stack frames that differ only in their frame
+     * number (deep recursion)
+     */
+    private static String collapseFrames(ParsedDump dump, ParsedDump.Section section) {
+        String text = dump.getText();
+        StringBuilder result = new StringBuilder(section.getEnd() - section.getBodyStart());
+        int pos = section.getBodyStart();
+        ParsedDump.Frame previous = null;
+        int repeats = 0;
+
+        for (ParsedDump.Frame frame : dump.getFrames()) {
+            if (frame.getStart() < section.getBodyStart() || frame.getEnd() > section.getEnd()) {
+                continue;
+            }
+            if (previous != null && sameCall(text, previous, frame)) {
+                repeats++;
+            } else {
+                appendRepeatNote(result, repeats, true);
+                repeats = 0;
+                result.append(text, pos, frame.getEnd());
+                previous = frame;
+            }
+            pos = frame.getEnd();
+        }
+        appendRepeatNote(result, repeats, true);
+        result.append(text, pos, section.getEnd());
+        return result.toString();
+    }
+
+    private static boolean isBlank(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two frames ignoring the frame number
+     */
+    private static boolean sameCall(String text, ParsedDump.Frame a, ParsedDump.Frame b) {
+        int length = a.getEnd() - a.typeStart;
+        return length == b.getEnd() - b.typeStart && text.regionMatches(a.typeStart, text, b.typeStart, length);
+    }
+
+    private static void appendRepeatNote(StringBuilder result, int repeats, boolean callStack) {
+        if (repeats > 0) {
+            if (result.length() > 0 && result.charAt(result.length() - 1) != '\n') {
+                result.append('\n');
+            }
+            result.append(repeatNote(repeats, callStack));
+        }
+    }
+
+    private static String repeatNote(int repeats, boolean callStack) {
+        return "    [" + repeats + (callStack ? " identical frames" : " identical lines") + " omitted]\n";
+    }
+
+    /**
+     * Keeps the head and tail lines of a section within the target token count
+     */
+    private static String abbreviate(String body, int targetTokens, TokenCounter counter) {
+        String[] lines = body.split("\n", -1);
+        int headBudget = targetTokens * 2 / 3;
+        int tailBudget = targetTokens - headBudget;
+
+        int head = 0;
+        int used = 0;
+        while (head < lines.length) {
+            int tokens = counter.count(lines[head]) + 1;
+            if (used + tokens > headBudget) {
+                break;
+            }
+            used += tokens;
+            head++;
+        }
+
+        int tail = lines.length;
+        used = 0;
+        while (tail > head) {
+            int tokens = counter.count(lines[tail - 1]) + 1;
+            if (used + tokens > tailBudget) {
+                break;
+            }
+            used += tokens;
+            tail--;
+        }
+
+        if (head >= tail) {
+            return body;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < head; i++) {
+            sb.append(lines[i]).append('\n');
+        }
+        sb.append("    [... ").append(tail - head).append(" lines omitted ...]\n");
+        for (int i = tail; i < lines.length; i++) {
+            sb.append(lines[i]);
+            if (i < lines.length - 1) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A parsed dump whose sections are collapsed and counted once, when a
+     * budget check first needs it. The counts are shared by all checks on the
+     * dump and by its compaction. Sections start at line beginnings, so their
+     * counts add up to about the count of the whole text.
+     */
+    static final class MeasuredDump {
+        private final ParsedDump dump;
+        private final TokenCounter counter;
+        private String[] bodies;
+        private int[] sectionTokens;
+        private int totalTokens;
+
+        /**
+         * @param dump    parsed dump
+         * @param counter tokenizer matching the target model
+         */
+        MeasuredDump(ParsedDump dump, TokenCounter counter) {
+            this.dump = dump;
+            this.counter = counter;
+        }
+
+        ParsedDump getDump() {
+            return dump;
+        }
+
+        TokenCounter getCounter() {
+            return counter;
+        }
+
+        /**
+         * @return true if the dump with repeated lines collapsed is within the
+         *         budget and needs no further compaction
+         */
+        boolean fits(int tokenBudget) {
+            // Every token covers at least one character
+            if (dump.getText().length() <= tokenBudget) {
+                return true;
+            }
+            measure();
+            return totalTokens <= tokenBudget;
+        }
+
+        /**
+         * @return dump text with repeated lines and frames collapsed
+         */
+        String collapsedText() {
+            measure();
+            List<ParsedDump.Section> sections = dump.getSections();
+            StringBuilder text = new StringBuilder(dump.getText().length());
+            for (int i = 0; i < bodies.length; i++) {
+                text.append(sections.get(i).getHeader()).append(bodies[i]);
+            }
+            return text.toString();
+        }
+
+        private void measure() {
+            if (bodies != null) {
+                return;
+            }
+            List<ParsedDump.Section> sections = dump.getSections();
+            String[] collapsed = new String[sections.size()];
+            int[] tokens = new int[sections.size()];
+            for (int i = 0; i < collapsed.length; i++) {
+                collapsed[i] = collapse(dump, sections.get(i));
+                tokens[i] = counter.count(sections.get(i).getHeader()) + counter.count(collapsed[i]);
+                totalTokens += tokens[i];
+            }
+            sectionTokens = tokens;
+            bodies = collapsed;
+        }
+    }
+
+    private static class Section {
+        final String header;
+        final int priority;
+        String body = "";
+        int tokens;
+
+        Section(String header, int priority) {
+            this.header = header;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.keksss.abap.ai.core;
+
+/**
+ * Single-pass parser for ST22 dump text.
+ * Walks the text line by line without splitting or copying it and records
+ * sections, the termination point and the call stack as offsets in a
+ * {@link ParsedDump}. Unknown layouts degrade gracefully: anything that cannot
+ * be recognized is simply left unset.
+ */
+public final class DumpParser {
+
+    private static final String[] FRAME_TYPES = {
+            "METHOD", "FUNCTION", "FORM", "EVENT", "MODULE", "TRANSACTION", "REPORT", "CALL" };
+
+    private DumpParser() {
+    }
+
+    /**
+     * Parses dump text
+     *
+     * @param dumpContent raw dump text, may be null
+     * @return parsed dump; never null
+     */
+    public static ParsedDump parse(String dumpContent) {
+        String text = dumpContent != null ? dumpContent : "";
+        ParsedDump dump = new ParsedDump(text);
+        ParsedDump.Section section = dump.new Section(DumpSectionType.PREAMBLE, 0, 0);
+        dump.sections.add(section);
+        ParsedDump.Frame frame = null;
+
+        int length = text.length();
+        int pos = 0;
+        while (pos < length) {
+            int newline = text.indexOf('\n', pos);
+            int lineEnd = newline < 0 ? length : newline;
+            int next = newline < 0 ? length : newline + 1;
+            int start = skipWhitespace(text, pos, lineEnd);
+            int end = trimEnd(text, start, lineEnd);
+
+            if (start < end) {
+                DumpSectionType type = DumpSectionType.matchHeadline(text, start, end);
+                if (type != null) {
+                    section.end = pos;
+                    if (frame != null) {
+                        frame.end = pos;
+                        frame = null;
+                    }
+                    section = dump.new Section(type, pos, next);
+                    dump.sections.add(section);
+                } else {
+                    switch (section.getType()) {
+                        case PREAMBLE:
+                            parseKeyValue(dump, text, start, end);
+                            break;
+                        case WHERE_TERMINATED:
+                            parseKeyValue(dump, text, start, end);
+                            parseTerminationSentence(dump, text, start, end);
+                            break;
+                        case SHORT_TEXT:
+                        case WHAT_HAPPENED:
+                        case ERROR_ANALYSIS:
+                            findExceptionClass(dump, text, start, end);
+                            break;
+                        case SOURCE_CODE_EXTRACT:
+                            parseSourceMarker(dump, text, start, end);
+                            break;
+                        case ACTIVE_CALLS:
+                            ParsedDump.Frame started = parseFrameLine(dump, text, pos, start, end);
+                            if (started != null) {
+                                if (frame != null) {
+                                    frame.end = pos;
+                                }
+                                frame = started;
+                                dump.frames.add(frame);
+                            } else if (frame != null && frame.eventStart < 0) {
+                                frame.eventStart = start;
+                                frame.eventEnd = end;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            pos = next;
+        }
+
+        section.end = length;
+        if (frame != null) {
+            frame.end = length;
+        }
+        return dump;
+    }
+
+    /**
+     * Header lines such as "Runtime Errors         COMPUTE_INT_ZERODIVIDE":
+     * a key, at least two blanks, then the value
+     */
+    private static void parseKeyValue(ParsedDump dump, String text, int start, int end) {
+        int keyEnd = start;
+        while (keyEnd < end && text.charAt(keyEnd) != '\t'
+                && !(text.charAt(keyEnd) == ' ' && keyEnd + 1 < end && text.charAt(keyEnd + 1) == ' ')) {
+            keyEnd++;
+        }
+        int valueStart = skipWhitespace(text, keyEnd, end);
+        if (keyEnd == start || valueStart >= end) {
+            return;
+        }
+
+        if (keyIs(text, start, keyEnd, "Runtime Errors") || keyIs(text, start, keyEnd, "Runtime Error")) {
+            if (dump.runtimeErrorStart < 0) {
+                dump.runtimeErrorStart = valueStart;
+                dump.runtimeErrorEnd = end;
+            }
+        } else if (keyIs(text, start, keyEnd, "Except.") || keyIs(text, start, keyEnd, "Exception")) {
+            if (dump.exceptionStart < 0) {
+                dump.exceptionStart = valueStart;
+                dump.exceptionEnd = end;
+            }
+        } else if (keyIs(text, start, keyEnd, "Program") || keyIs(text, start, keyEnd, "ABAP Program")) {
+            if (dump.programStart < 0) {
+                dump.programStart = valueStart;
+                dump.programEnd = end;
+            }
+        } else if (keyIs(text, start, keyEnd, "Include")) {
+            if (dump.includeStart < 0) {
+                dump.includeStart = valueStart;
+                dump.includeEnd = end;
+            }
+        } else if (keyIs(text, start, keyEnd, "Line") || keyIs(text, start, keyEnd, "Row")) {
+            if (dump.line < 0) {
+                dump.line = parseNumber(text, valueStart, end);
+            }
+        }
+    }
+
+    /**
+     * Classic wording of "Information on where terminated", e.g.
+     * 'The termination occurred in the ABAP program "ZTEST" ...' and
+     * '... termination point in line 12 of the (Include) program "ZTEST".'
+     */
+    private static void parseTerminationSentence(ParsedDump dump, String text, int start, int end) {
+        int include = indexOfIgnoreCase(text, "(Include) program \"", start, end);
+        if (include >= 0) {
+            if (dump.includeStart < 0) {
+                int valueStart = include + "(Include) program \"".length();
+                int valueEnd = closingQuote(text, valueStart, end);
+                dump.includeStart = valueStart;
+                dump.includeEnd = trimEnd(text, valueStart, valueEnd);
+            }
+        } else if (dump.programStart < 0) {
+            int program = indexOfIgnoreCase(text, "program \"", start, end);
+            if (program >= 0) {
+                int valueStart = program + "program \"".length();
+                int valueEnd = closingQuote(text, valueStart, end);
+                dump.programStart = valueStart;
+                dump.programEnd = trimEnd(text, valueStart, valueEnd);
+            }
+        }
+
+        if (dump.line < 0) {
+            int inLine = indexOfIgnoreCase(text, "in line ", start, end);
+            if (inLine >= 0) {
+                dump.line = parseNumber(text, inLine + "in line ".length(), end);
+            }
+        }
+    }
+
+    /**
+     * Finds the first class name starting with CX_ (optionally in a /NAMESPACE/)
+     */
+    private static void findExceptionClass(ParsedDump dump, String text, int start, int end) {
+        if (dump.exceptionStart >= 0) {
+            return;
+        }
+        for (int cx = start; cx + 3 <= end; cx++) {
+            if (text.startsWith("CX_", cx) && (cx == start || !isIdentifierChar(text.charAt(cx - 1)))) {
+                int classStart = cx;
+                while (classStart > start && (text.charAt(classStart - 1) == '/'
+                        || (classStart < cx && isIdentifierChar(text.charAt(classStart - 1))))) {
+                    classStart--;
+                }
+                int classEnd = cx;
+                while (classEnd < end && isIdentifierChar(text.charAt(classEnd))) {
+                    classEnd++;
+                }
+                dump.exceptionStart = classStart;
+                dump.exceptionEnd = classEnd;
+                return;
+            }
+        }
+    }
+
+    /**
+     * The termination line is marked with ">>>>>" in the source extract
+     */
+    private static void parseSourceMarker(ParsedDump dump, String text, int start, int end) {
+        if (dump.line < 0 && text.startsWith(">>>>>", start)) {
+            dump.line = parseNumber(text, start + 5, end);
+        }
+    }
+
+    /**
+     * Recognizes "   5 METHOD   ZCL_X=====CP   ZCL_X=====CM001   12"
+     *
+     * @return the new frame, or null if the line does not start a frame
+     */
+    private static ParsedDump.Frame parseFrameLine(ParsedDump dump, String text, int lineStart, int start, int end) {
+        int numberEnd = start;
+        while (numberEnd < end && Character.isDigit(text.charAt(numberEnd))) {
+            numberEnd++;
+        }
+        if (numberEnd == start || numberEnd == end || !isWhitespace(text.charAt(numberEnd))) {
+            return null;
+        }
+
+        int typeStart = skipWhitespace(text, numberEnd, end);
+        int typeEnd = tokenEnd(text, typeStart, end);
+        if (!isFrameType(text, typeStart, typeEnd)) {
+            return null;
+        }
+
+        ParsedDump.Frame frame = dump.new Frame(lineStart);
+        frame.number = parseNumber(text, start, numberEnd);
+        frame.typeStart = typeStart;
+        frame.typeEnd = typeEnd;
+
+        int programStart = skipWhitespace(text, typeEnd, end);
+        int programEnd = tokenEnd(text, programStart, end);
+        if (programStart < programEnd) {
+            frame.programStart = programStart;
+            frame.programEnd = programEnd;
+
+            int includeStart = skipWhitespace(text, programEnd, end);
+            int includeEnd = tokenEnd(text, includeStart, end);
+            if (includeStart < includeEnd) {
+                frame.includeStart = includeStart;
+                frame.includeEnd = includeEnd;
+
+                int lineStartOffset = skipWhitespace(text, includeEnd, end);
+                frame.line = parseNumber(text, lineStartOffset, tokenEnd(text, lineStartOffset, end));
+            }
+        }
+        return frame;
+    }
+
+    private static boolean isFrameType(String text, int start, int end) {
+        for (String type : FRAME_TYPES) {
+            if (type.length() == end - start && text.startsWith(type, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean keyIs(String text, int start, int end, String key) {
+        return key.length() == end - start && text.regionMatches(true, start, key, 0, key.length());
+    }
+
+    private static int indexOfIgnoreCase(String text, String needle, int from, int to) {
+        int last = to - needle.length();
+        for (int i = from; i <= last; i++) {
+            if (text.regionMatches(true, i, needle, 0, needle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int closingQuote(String text, int from, int end) {
+        int quote = text.indexOf('"', from);
+        return quote >= 0 && quote < end ? quote : end;
+    }
+
+    /**
+     * Parses the first run of digits in the range
+     *
+     * @return the number, or -1 if the range contains no digits
+     */
+    private static int parseNumber(String text, int start, int end) {
+        int i = start;
+        while (i < end && !Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i == end) {
+            return -1;
+        }
+        long value = 0;
+        while (i < end && Character.isDigit(text.charAt(i)) && value <= Integer.MAX_VALUE) {
+            value = value * 10 + (text.charAt(i) - '0');
+            i++;
+        }
+        return value <= Integer.MAX_VALUE ? (int) value : -1;
+    }
+
+    private static int tokenEnd(String text, int start, int end) {
+        int i = start;
+        while (i < end && !isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipWhitespace(String text, int start, int end) {
+        int i = start;
+        while (i < end && isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trimEnd(String text, int start, int end) {
+        int i = end;
+        while (i > start && isWhitespace(text.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
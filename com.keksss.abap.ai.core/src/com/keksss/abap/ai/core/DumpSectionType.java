@@ -0,0 +1,65 @@
+package com.keksss.abap.ai.core;
+
+/**
+ * Known ST22 dump sections, identified by their headline
+ */
+public enum DumpSectionType {
+    /** Text before the first headline: runtime error, exception, date and time */
+    PREAMBLE(null),
+    SHORT_TEXT("Short Text"),
+    WHAT_HAPPENED("What happened?"),
+    WHAT_CAN_YOU_DO("What can you do?"),
+    ERROR_ANALYSIS("Error analysis"),
+    HOW_TO_CORRECT("How to correct the error"),
+    SYSTEM_ENVIRONMENT("System environment"),
+    USER_AND_TRANSACTION("User and Transaction"),
+    WHERE_TERMINATED("Information on where terminated"),
+    SOURCE_CODE_EXTRACT("Source Code Extract"),
+    SYSTEM_FIELDS("Contents of system fields"),
+    ACTIVE_CALLS("Active Calls/Events"),
+    CHOSEN_VARIABLES("Chosen variables"),
+    APPLICATION_TABLES("Directory of Application Tables"),
+    APPLICATION_CALLS("Application Calls"),
+    APPLICATION_INFORMATION("Application Information"),
+    INTERNAL_NOTES("Internal notes"),
+    KERNEL_CALLS("Active Calls in SAP Kernel"),
+    PROGRAMS_AFFECTED("List of ABAP programs affected"),
+    CONTROL_BLOCKS("ABAP Control Blocks (CONT)"),
+    SPOOL_ERROR("Spool Error Information");
+
+    private static final DumpSectionType[] VALUES = values();
+
+    private final String headline;
+
+    DumpSectionType(String headline) {
+        this.headline = headline;
+    }
+
+    /**
+     * Get the headline as printed in ST22
+     *
+     * @return headline, or null for {@link #PREAMBLE}
+     */
+    public String getHeadline() {
+        return headline;
+    }
+
+    /**
+     * Matches a trimmed line against the known headlines, ignoring case
+     *
+     * @param text  text containing the line
+     * @param start start offset of the trimmed line
+     * @param end   end offset (exclusive) of the trimmed line
+     * @return matching section type, or null if the line is not a headline
+     */
+    static DumpSectionType matchHeadline(String text, int start, int end) {
+        int length = end - start;
+        for (DumpSectionType type : VALUES) {
+            if (type.headline != null && type.headline.length() == length
+                    && text.regionMatches(true, start, type.headline, 0, length)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
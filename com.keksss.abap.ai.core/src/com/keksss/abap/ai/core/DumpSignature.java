@@ -0,0 +1,133 @@
+package com.keksss.abap.ai.core;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Identity of a runtime error independent of when, where and for whom it
+ * occurred: runtime error, exception class, termination point and the top of
+ * the call stack. Dumps with the same signature are repeats of one error and
+ * need to be analyzed only once.
+ */
+public final class DumpSignature {
+
+    /** Number of innermost call stack frames that are part of the signature */
+    static final int TOP_FRAMES = 5;
+
+    private final String key;
+    private final boolean specific;
+    private final String description;
+
+    private DumpSignature(String key, boolean specific, String description) {
+        this.key = key;
+        this.specific = specific;
+        this.description = description;
+    }
+
+    /**
+     * Extracts the signature of a parsed dump. If the dump does not reveal the
+     * error (unknown layout), the signature falls back to the normalized
+     * content so only identical dumps match.
+     *
+     * @param dump parsed dump
+     * @return DumpSignature
+     */
+    public static DumpSignature of(ParsedDump dump) {
+        String runtimeError = dump.getRuntimeError();
+        String exceptionClass = dump.getExceptionClass();
+        String program = dump.getProgram();
+        boolean specific = runtimeError != null || exceptionClass != null || (program != null && dump.getLine() >= 0);
+
+        MessageDigest digest = Digests.sha256();
+        if (!specific) {
+            Digests.update(digest, "content");
+            Digests.update(digest, AnalysisCache.normalize(dump.getText()));
+            return new DumpSignature(Digests.hex(digest.digest()), false, "unrecognized dump");
+        }
+
+        Digests.update(digest, "v1");
+        Digests.update(digest, runtimeError);
+        Digests.update(digest, exceptionClass);
+        Digests.update(digest, program);
+        Digests.update(digest, dump.getInclude());
+        Digests.update(digest, String.valueOf(dump.getLine()));
+        List<ParsedDump.Frame> frames = dump.getFrames();
+        for (int i = 0; i < Math.min(TOP_FRAMES, frames.size()); i++) {
+            ParsedDump.Frame frame = frames.get(i);
+            Digests.update(digest, frame.getType());
+            Digests.update(digest, frame.getProgram());
+            Digests.update(digest, frame.getInclude());
+            Digests.update(digest, String.valueOf(frame.getLine()));
+            Digests.update(digest, frame.getEvent());
+        }
+
+        StringBuilder description = new StringBuilder();
+        description.append(runtimeError != null ? runtimeError : exceptionClass != null ? exceptionClass : "error");
+        if (program != null) {
+            description.append(" in ").append(program);
+            if (dump.getLine() >= 0) {
+                description.append(" line ").append(dump.getLine());
+            }
+        }
+        return new DumpSignature(Digests.hex(digest.digest()), true, description.toString());
+    }
+
+    /**
+     * Groups items by the signature of their dump, keeping the order in which
+     * signatures first appear. The first item of each group is its
+     * representative.
+     *
+     * @param items       items to group, e.g. feed entries
+     * @param dumpContent function returning the dump text of an item
+     * @return groups keyed by signature
+     */
+    public static <T> Map<DumpSignature, List<T>> group(List<T> items, Function<T, String> dumpContent) {
+        Map<DumpSignature, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            DumpSignature signature = of(DumpParser.parse(dumpContent.apply(item)));
+            groups.computeIfAbsent(signature, s -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * @return hex encoded SHA-256 of the signature fields
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return false if the signature is only a content hash because the dump
+     *         could not be parsed
+     */
+    public boolean isSpecific() {
+        return specific;
+    }
+
+    /**
+     * @return short readable form, e.g. "COMPUTE_INT_ZERODIVIDE in ZTEST line 12"
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof DumpSignature && key.equals(((DumpSignature) obj).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return description + " [" + key.substring(0, 12) + "]";
+    }
+}
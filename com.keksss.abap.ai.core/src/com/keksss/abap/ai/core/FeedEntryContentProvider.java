@@ -0,0 +1,259 @@
+package com.keksss.abap.ai.core;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IStorage;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.Platform;
+
+/**
+ * Reads title and dump text from ADT feed entries. Feed reader classes are
+ * internal, so entries are accessed through adapters and through method
+ * handles resolved once per entry class. Dump storage is decoded while it is
+ * streamed and bounded in size; oversized sections are cut as they are read,
+ * so megabytes of variable contents are never held in memory.
+ */
+public final class FeedEntryContentProvider {
+
+    private static final String FEED_ENTRY_CLASS = "com.sap.adt.feedreader.internal.feed.AbapFeedEntry";
+
+    /** Characters kept per section, more than any prompt budget can take */
+    static final int MAX_SECTION_CHARS = 256 * 1024;
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+    /** Getters of each entry class, null where a class has none */
+    private static final ClassValue<EntryAccessors> ENTRY_ACCESSORS = new ClassValue<>() {
+        @Override
+        protected EntryAccessors computeValue(Class<?> type) {
+            return new EntryAccessors(type);
+        }
+    };
+
+    /** getValue() of the content objects returned for summary and description */
+    private static final ClassValue<MethodHandle> VALUE_GETTERS = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return getter(type, "getValue");
+        }
+    };
+
+    private FeedEntryContentProvider() {
+    }
+
+    /**
+     * @param element element of the Feeds view
+     * @return true if the element is a feed entry
+     */
+    public static boolean isFeedEntry(Object element) {
+        return element != null && element.getClass().getName().equals(FEED_ENTRY_CLASS);
+    }
+
+    /**
+     * @param entry feed entry
+     * @return entry title, or its string form if it has none
+     */
+    public static String readTitle(Object entry) {
+        Object title = invoke(ENTRY_ACCESSORS.get(entry.getClass()).title, entry);
+        return title instanceof String ? (String) title : entry.toString();
+    }
+
+    /**
+     * Reads the dump text of an entry, bounded by the configured maximum size
+     *
+     * @param entry feed entry
+     * @return dump text, the entry summary or description as fallback, or an
+     *         empty string
+     */
+    public static String readContent(Object entry) {
+        return readContent(entry, PreferenceHelper.getDumpMaxSizeKb() * 1024L);
+    }
+
+    /**
+     * Reads the dump text of an entry
+     *
+     * @param entry    feed entry
+     * @param maxBytes bytes read from the entry's storage at most
+     * @return dump text, the entry summary or description as fallback, or an
+     *         empty string
+     */
+    public static String readContent(Object entry, long maxBytes) {
+        IStorage storage = adapt(entry, IFile.class);
+        if (storage == null) {
+            storage = adapt(entry, IStorage.class);
+        }
+        String content = "";
+        if (storage != null) {
+            try (InputStream in = storage.getContents()) {
+                content = read(in, maxBytes);
+            } catch (Exception e) {
+                System.err.println("Error reading feed entry content: " + e.getMessage());
+            }
+        }
+
+        EntryAccessors accessors = ENTRY_ACCESSORS.get(entry.getClass());
+        if (content.isEmpty()) {
+            content = textOf(invoke(accessors.summary, entry));
+        }
+        if (content.isEmpty()) {
+            content = textOf(invoke(accessors.description, entry));
+        }
+        return content;
+    }
+
+    /**
+     * Decodes UTF-8 dump text from a stream. Lines of a section beyond
+     * {@link #MAX_SECTION_CHARS} are skipped and replaced by a note, as is
+     * everything after maxBytes.
+     *
+     * @param in       dump text; not closed
+     * @param maxBytes bytes read at most
+     * @return dump text
+     * @throws IOException if the stream cannot be read
+     */
+    static String read(InputStream in, long maxBytes) throws IOException {
+        BoundedInputStream bounded = new BoundedInputStream(in, maxBytes);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(bounded, StandardCharsets.UTF_8));
+        StringBuilder text = new StringBuilder((int) Math.min(maxBytes, 64 * 1024));
+        int sectionChars = 0;
+        int omittedLines = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (isHeadline(line)) {
+                appendOmitted(text, omittedLines);
+                omittedLines = 0;
+                sectionChars = 0;
+            } else if (sectionChars >= MAX_SECTION_CHARS) {
+                omittedLines++;
+                continue;
+            }
+            text.append(line).append('\n');
+            sectionChars += line.length() + 1;
+        }
+        appendOmitted(text, omittedLines);
+        if (bounded.truncated) {
+            text.append("    [... dump truncated after ").append(maxBytes / 1024).append(" KB ...]\n");
+        }
+        return text.toString();
+    }
+
+    private static boolean isHeadline(String line) {
+        int start = 0;
+        int end = line.length();
+        while (start < end && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        return start < end && DumpSectionType.matchHeadline(line, start, end) != null;
+    }
+
+    private static void appendOmitted(StringBuilder text, int omittedLines) {
+        if (omittedLines > 0) {
+            text.append("    [... ").append(omittedLines).append(" lines omitted ...]\n");
+        }
+    }
+
+    private static <T> T adapt(Object entry, Class<T> type) {
+        T adapter = Platform.getAdapterManager().getAdapter(entry, type);
+        if (adapter == null && entry instanceof IAdaptable) {
+            adapter = ((IAdaptable) entry).getAdapter(type);
+        }
+        return adapter;
+    }
+
+    /**
+     * Text of a summary or description, which is either a content object
+     * with getValue() or plain text
+     */
+    private static String textOf(Object content) {
+        if (content == null) {
+            return "";
+        }
+        MethodHandle getValue = VALUE_GETTERS.get(content.getClass());
+        Object value = getValue != null ? invoke(getValue, content) : content.toString();
+        return value instanceof String ? (String) value : "";
+    }
+
+    private static Object invoke(MethodHandle getter, Object target) {
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return getter.invokeExact(target);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle getter(Class<?> type, String name) {
+        try {
+            return MethodHandles.publicLookup().unreflect(type.getMethod(name)).asType(GETTER);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static final class EntryAccessors {
+        private final MethodHandle title;
+        private final MethodHandle summary;
+        private final MethodHandle description;
+
+        private EntryAccessors(Class<?> type) {
+            this.title = getter(type, "getTitle");
+            this.summary = getter(type, "getSummary");
+            this.description = getter(type, "getDescription");
+        }
+    }
+
+    /**
+     * Ends the stream after a number of bytes and remembers whether more
+     * were available
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+        private boolean truncated;
+
+        private BoundedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.remaining = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                if (!truncated && in.read() >= 0) {
+                    truncated = true;
+                }
+                return -1;
+            }
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return 0;
+        }
+    }
+}
@@ -4,16 +4,8 @@ import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
 
 import dev.langchain4j.model.chat.ChatLanguageModel;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
-import java.util.ArrayList;
 import java.util.List;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonArray;
+import java.util.Map;
 
 /**
  * Client for interacting with Google AI Gemini API using LangChain4j
@@ -74,52 +66,13 @@ public class GoogleAiClient {
      * @throws Exception if API call fails
      */
     public List<String> fetchAvailableModels(String apiKey) throws Exception {
-        List<String> models = new ArrayList<>();
-
         try {
             // Using direct REST API for listing models
-            URL url = URI.create("https://generativelanguage.googleapis.com/v1beta/models?key=" + apiKey).toURL();
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Content-Type", "application/json");
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-
-                // Use Gson for JSON parsing
-                Gson gson = new Gson();
-                JsonObject jsonResponse = gson.fromJson(response.toString(), JsonObject.class);
-
-                if (jsonResponse.has("models")) {
-                    JsonArray modelsArray = jsonResponse.getAsJsonArray("models");
-                    for (int i = 0; i < modelsArray.size(); i++) {
-                        JsonObject model = modelsArray.get(i).getAsJsonObject();
-                        if (model.has("name")) {
-                            String name = model.get("name").getAsString();
-                            if (name.startsWith("models/")) {
-                                name = name.substring(7);
-                            }
-                            models.add(name);
-                        }
-                    }
-                }
-            } else {
-                throw new Exception("HTTP " + responseCode);
-            }
-            connection.disconnect();
-
+            return HttpTransport.getInstance().get(
+                    "https://generativelanguage.googleapis.com/v1beta/models?key=" + apiKey, Map.of(),
+                    ModelListFormat.GOOGLE_AI::parse);
         } catch (Exception e) {
-            throw new Exception("Failed to fetch models: " + e.getMessage(), e);
+            throw new Exception("Failed to fetch models: " + HttpTransport.describe(e), e);
         }
-
-        return models;
     }
 }
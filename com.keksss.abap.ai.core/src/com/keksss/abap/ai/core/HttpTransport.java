@@ -0,0 +1,269 @@
+package com.keksss.abap.ai.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Shared HTTP transport for plain REST calls such as model discovery.
+ * One {@link HttpClient} is reused for all requests so connections are kept
+ * alive and pooled, HTTP/2 is negotiated where the server supports it, and
+ * every request is bounded by a connect timeout and a deadline for the whole
+ * exchange, headers and body, so a server stalling mid-response cannot hang
+ * its caller.
+ */
+public final class HttpTransport {
+
+    static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    /** Deadline for the response, from sending the request to the end of its body */
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final HttpTransport INSTANCE = new HttpTransport();
+
+    private final HttpClient client;
+
+    private HttpTransport() {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Get the shared transport instance
+     *
+     * @return HttpTransport
+     */
+    public static HttpTransport getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Reads a response body as it arrives, e.g. with a streaming JSON parser
+     *
+     * @param <T> parse result
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        /**
+         * @param body UTF-8 decoded body; closed by the transport afterwards
+         * @return parse result
+         * @throws IOException if the body cannot be read or parsed
+         */
+        T read(Reader body) throws IOException;
+    }
+
+    /**
+     * Sends a GET request without blocking the caller and parses the body
+     * while it is received, without buffering it as a whole
+     *
+     * @param <T>        parse result
+     * @param url        request URL
+     * @param headers    request headers
+     * @param bodyReader parser for the response body
+     * @return future completed with the parse result, or exceptionally with an
+     *         {@link HttpStatusException} for non-2xx responses or an
+     *         IOException for transport, timeout and parse failures
+     */
+    public <T> CompletableFuture<T> getAsync(String url, Map<String, String> headers, BodyReader<T> bodyReader) {
+        HttpRequest request;
+        try {
+            request = buildGet(url, headers);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        // The client completes its futures on its own executor, so reading
+        // the body here does not block the connection's selector thread
+        return withDeadline(client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    try {
+                        return readBody(response, bodyReader, deadline);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }));
+    }
+
+    /**
+     * Sends a GET request, waits for the response and parses the body while
+     * it is received
+     *
+     * @param <T>        parse result
+     * @param url        request URL
+     * @param headers    request headers
+     * @param bodyReader parser for the response body
+     * @return parse result
+     * @throws HttpStatusException  for non-2xx responses
+     * @throws IOException          for transport, timeout and parse failures
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public <T> T get(String url, Map<String, String> headers, BodyReader<T> bodyReader)
+            throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        return readBody(client.send(buildGet(url, headers), HttpResponse.BodyHandlers.ofInputStream()), bodyReader,
+                deadline);
+    }
+
+    /**
+     * Describes a transport failure in words suitable for the UI
+     *
+     * @param error failure, possibly wrapped in a CompletionException
+     * @return readable message
+     */
+    public static String describe(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof HttpConnectTimeoutException) {
+            return "Connection timed out after " + CONNECT_TIMEOUT.toSeconds() + " s";
+        }
+        if (cause instanceof HttpTimeoutException || cause instanceof TimeoutException) {
+            return "No response within " + REQUEST_TIMEOUT.toSeconds() + " s";
+        }
+        if (cause instanceof ConnectException && cause.getMessage() == null) {
+            return "Connection refused";
+        }
+        return cause.getMessage() != null && !cause.getMessage().isBlank() ? cause.getMessage()
+                : cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Strips CompletionException wrappers added by asynchronous stages
+     *
+     * @param error failure
+     * @return underlying cause
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Fails a future with an {@link HttpTimeoutException} once the request
+     * deadline has passed
+     */
+    private static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future) {
+        return future.orTimeout(REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(error -> CompletableFuture.failedFuture(unwrap(error) instanceof TimeoutException
+                        ? new HttpTimeoutException("No response within " + REQUEST_TIMEOUT.toSeconds() + " s")
+                        : error));
+    }
+
+    /**
+     * Parses the body, closing it at the deadline; closing the stream
+     * releases a read blocked on a server that stopped sending
+     */
+    private static <T> T readBody(HttpResponse<InputStream> response, BodyReader<T> bodyReader, long deadline)
+            throws IOException {
+        try (InputStream body = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw statusException(response);
+            }
+            CompletableFuture.delayedExecutor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                    .execute(() -> closeQuietly(body));
+            try {
+                return bodyReader.read(new InputStreamReader(body, StandardCharsets.UTF_8));
+            } catch (IOException | RuntimeException e) {
+                if (System.nanoTime() - deadline >= 0) {
+                    throw new HttpTimeoutException("No response within " + REQUEST_TIMEOUT.toSeconds() + " s");
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            // Already closed or broken; nothing left to release
+        }
+    }
+
+    private static HttpStatusException statusException(HttpResponse<?> response) {
+        return new HttpStatusException(response.statusCode(),
+                parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null)));
+    }
+
+    /**
+     * Parses a Retry-After header given in seconds or as HTTP date
+     *
+     * @param value header value, may be null
+     * @return delay in milliseconds, or -1 if absent or invalid
+     */
+    static long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        try {
+            return Math.max(0, (long) (Double.parseDouble(value.trim()) * 1000));
+        } catch (NumberFormatException e) {
+            // Not a number of seconds, try an HTTP date
+        }
+        try {
+            return Math.max(0, Duration.between(java.time.Instant.now(),
+                    java.time.ZonedDateTime.parse(value.trim(),
+                            java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME).toInstant()).toMillis());
+        } catch (java.time.format.DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static HttpRequest buildGet(String url, Map<String, String> headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .GET();
+        headers.forEach(builder::header);
+        return builder.build();
+    }
+
+    /**
+     * Non-2xx HTTP response
+     */
+    public static class HttpStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int statusCode;
+        private final long retryAfterMillis;
+
+        public HttpStatusException(int statusCode) {
+            this(statusCode, -1);
+        }
+
+        public HttpStatusException(int statusCode, long retryAfterMillis) {
+            super("HTTP " + statusCode);
+            this.statusCode = statusCode;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * @return delay requested by the Retry-After header in milliseconds,
+         *         or -1 if the response had none
+         */
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+}
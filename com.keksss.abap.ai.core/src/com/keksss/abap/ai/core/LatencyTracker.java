@@ -0,0 +1,78 @@
+package com.keksss.abap.ai.core;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recent time-to-first-token samples per provider. The 95th
+ * percentile tells how long a healthy request usually takes to start
+ * answering, which is used as the hedging delay.
+ */
+public final class LatencyTracker {
+
+    /** Samples kept per provider */
+    static final int WINDOW = 50;
+
+    /** Percentiles are not reported from fewer samples */
+    static final int MIN_SAMPLES = 5;
+
+    private static final LatencyTracker INSTANCE = new LatencyTracker();
+
+    private final Map<LlmProvider, Window> windows = new EnumMap<>(LlmProvider.class);
+
+    private LatencyTracker() {
+    }
+
+    /**
+     * Get the shared tracker instance
+     *
+     * @return LatencyTracker
+     */
+    public static LatencyTracker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records the time a request took until the first token arrived
+     *
+     * @param provider provider that answered
+     * @param millis   time to first token in milliseconds
+     */
+    public synchronized void recordFirstToken(LlmProvider provider, long millis) {
+        windows.computeIfAbsent(provider, p -> new Window()).add(millis);
+    }
+
+    /**
+     * Returns a percentile of the recorded times to first token
+     *
+     * @param provider   provider
+     * @param percentile percentile between 0 and 100
+     * @return milliseconds, or -1 if fewer than {@link #MIN_SAMPLES} samples exist
+     */
+    public synchronized long getFirstTokenPercentile(LlmProvider provider, double percentile) {
+        Window window = windows.get(provider);
+        if (window == null || window.size < MIN_SAMPLES) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(window.samples, window.size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+
+    /**
+     * Ring buffer of the latest samples
+     */
+    private static class Window {
+        final long[] samples = new long[WINDOW];
+        int size;
+        int next;
+
+        void add(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % WINDOW;
+            size = Math.min(size + 1, WINDOW);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.keksss.abap.ai.core;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker per LLM provider. After a number of consecutive failures
+ * the circuit opens and requests fail immediately instead of waiting for
+ * model construction and network timeouts. While open, the provider is
+ * probed in the background with a cheap model list request; the first
+ * request after the open period is let through as a trial (half-open) and
+ * closes the circuit again on success.
+ */
+public final class LlmCircuitBreaker {
+
+    /**
+     * Circuit state
+     */
+    public enum State {
+        /** Provider healthy, requests pass */
+        CLOSED,
+        /** Provider known bad, requests fail fast */
+        OPEN,
+        /** Open period over, one trial request decides */
+        HALF_OPEN
+    }
+
+    private static final Map<LlmProvider, LlmCircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService PROBES = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LLM circuit probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LlmProvider provider;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private Permit trial;
+    private String lastError;
+    private LlmConfig lastConfig;
+    private ScheduledFuture<?> probe;
+
+    private LlmCircuitBreaker(LlmProvider provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Get the circuit breaker of a provider
+     *
+     * @param provider LLM provider
+     * @return LlmCircuitBreaker shared by all requests to the provider
+     */
+    public static LlmCircuitBreaker forProvider(LlmProvider provider) {
+        return BREAKERS.computeIfAbsent(provider, LlmCircuitBreaker::new);
+    }
+
+    /**
+     * Admission of one request. Its outcome is reported once through the
+     * permit, so only the trial request itself can end a half-open trial.
+     */
+    public final class Permit {
+        private boolean settled;
+
+        private Permit() {
+        }
+
+        /**
+         * Records a successful request and closes the circuit
+         */
+        public void recordSuccess() {
+            synchronized (LlmCircuitBreaker.this) {
+                if (settle()) {
+                    LlmCircuitBreaker.this.recordSuccess();
+                }
+            }
+        }
+
+        /**
+         * Records a failed request. Failures caused by the request itself (bad
+         * request, rate limit) or by cancellation say nothing about the
+         * provider's health and only end the request's trial, if it was one.
+         *
+         * @param config configuration of the failed request, used for probing
+         * @param error  the failure
+         */
+        public void recordFailure(LlmConfig config, Throwable error) {
+            synchronized (LlmCircuitBreaker.this) {
+                boolean wasTrial = trial == this;
+                if (!settle() || !countsAsFailure(error)) {
+                    return;
+                }
+                lastConfig = config;
+                lastError = describeRootCause(error);
+                consecutiveFailures++;
+                if (wasTrial || consecutiveFailures >= PreferenceHelper.getCircuitFailureThreshold()) {
+                    open();
+                }
+            }
+        }
+
+        /**
+         * Gives up the request without a verdict on the provider, e.g. when
+         * it was abandoned for a faster one
+         */
+        public void release() {
+            synchronized (LlmCircuitBreaker.this) {
+                settle();
+            }
+        }
+
+        /**
+         * @return false if the outcome was already reported
+         */
+        private boolean settle() {
+            if (settled) {
+                return false;
+            }
+            settled = true;
+            if (trial == this) {
+                trial = null;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Checks whether a request may be sent. In half-open state only one trial
+     * request is let through at a time.
+     *
+     * @return permit to report the request's outcome with, or null if the
+     *         request must not be sent
+     */
+    public synchronized Permit allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntil) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trial != null) {
+                return null;
+            }
+            trial = new Permit();
+            return trial;
+        }
+        return state == State.CLOSED ? new Permit() : null;
+    }
+
+    /**
+     * Records a success outside of a request, e.g. of a probe, and closes
+     * the circuit
+     */
+    synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trial = null;
+        lastError = null;
+        cancelProbe();
+    }
+
+    /**
+     * @return current state
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntil) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Describes a state other than closed for the UI
+     *
+     * @return e.g. "Ollama (Local) unavailable (Connection refused), next try in 25 s",
+     *         or null while the circuit is closed
+     */
+    public synchronized String describe() {
+        switch (getState()) {
+            case OPEN:
+                long seconds = Math.max(1, (openUntil - System.currentTimeMillis() + 999) / 1000);
+                return provider.getDisplayName() + " unavailable after " + consecutiveFailures + " failures"
+                        + (lastError != null ? " (" + lastError + ")" : "") + ", next try in " + seconds + " s";
+            case HALF_OPEN:
+                return provider.getDisplayName() + " recovering, testing with the next request";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Closes all circuits and stops background probes
+     */
+    static void resetAll() {
+        for (LlmCircuitBreaker breaker : BREAKERS.values()) {
+            breaker.recordSuccess();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        // A trial still running can no longer close the circuit on its own failure
+        trial = null;
+        long openMillis = PreferenceHelper.getCircuitOpenSeconds() * 1000L;
+        openUntil = System.currentTimeMillis() + openMillis;
+        cancelProbe();
+        // Probe a little before the open period ends so a recovered provider
+        // is usable right away
+        probe = PROBES.schedule(this::probe, Math.max(1000, openMillis * 3 / 4), TimeUnit.MILLISECONDS);
+    }
+
+    private void probe() {
+        LlmConfig config;
+        synchronized (this) {
+            if (state == State.CLOSED || lastConfig == null) {
+                return;
+            }
+            config = lastConfig;
+        }
+        new LlmClient().fetchAvailableModelsAsync(config).whenComplete((models, error) -> {
+            if (error == null) {
+                recordSuccess();
+            } else if (countsAsFailure(error)) {
+                synchronized (this) {
+                    if (state != State.CLOSED) {
+                        lastError = describeRootCause(error);
+                        open();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * SDKs wrap transport errors in plain RuntimeExceptions; the first
+     * specific cause is the most telling, e.g. "Connection refused"
+     */
+    private static String describeRootCause(Throwable error) {
+        Throwable cause = HttpTransport.unwrap(error);
+        while ((cause.getClass() == RuntimeException.class
+                || cause instanceof java.util.concurrent.ExecutionException)
+                && cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return HttpTransport.describe(cause);
+    }
+
+    private void cancelProbe() {
+        if (probe != null) {
+            probe.cancel(false);
+            probe = null;
+        }
+    }
+
+    /**
+     * Connection failures, timeouts, authentication errors and server errors
+     * count; client errors caused by the request itself do not
+     */
+    static boolean countsAsFailure(Throwable error) {
+        Throwable cause = HttpTransport.unwrap(error);
+        if (cause instanceof InterruptedException || cause instanceof CancellationException) {
+            return false;
+        }
+        int status = LlmRetry.statusCode(error);
+        return status != 400 && status != 413 && status != 422 && status != 429;
+    }
+}
@@ -1,17 +1,18 @@
 package com.keksss.abap.ai.core;
 
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
-import java.util.ArrayList;
 import java.util.List;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonArray;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Universal client for interacting with LLM providers using LangChain4j
@@ -25,8 +26,31 @@ public class LlmClient {
      * @return Analysis result from AI
      */
     public AnalysisResult analyzeText(String prompt) {
-        LlmConfig config = PreferenceHelper.getLlmConfig();
+        return analyzeText(PreferenceHelper.getLlmConfig(), prompt);
+    }
+
+    /**
+     * Analyzes text using the given LLM configuration via LangChain4j. If the
+     * configuration has fallbacks, backup providers take over when the
+     * primary fails (see {@link LlmFailover}).
+     * 
+     * @param config LLM configuration to use for this call
+     * @param prompt The prompt/text to analyze
+     * @return Analysis result from AI
+     */
+    public AnalysisResult analyzeText(LlmConfig config, String prompt) {
+        return analyzeText(config, LlmPrompt.of(prompt));
+    }
 
+    /**
+     * Analyzes a prompt of instructions and content using the given LLM
+     * configuration via LangChain4j
+     * 
+     * @param config LLM configuration to use for this call
+     * @param prompt instructions, sent as system message, and content
+     * @return Analysis result from AI
+     */
+    public AnalysisResult analyzeText(LlmConfig config, LlmPrompt prompt) {
         if (config.getProvider().requiresApiKey() &&
                 (config.getApiKey() == null || config.getApiKey().trim().isEmpty())) {
             return AnalysisResult.failure(
@@ -34,30 +58,59 @@ public class LlmClient {
                             ". Please set it in Preferences -> ABAP AI Tools.");
         }
 
-        if (prompt == null || prompt.trim().isEmpty()) {
+        if (prompt == null || prompt.isBlank()) {
             return AnalysisResult.failure("No content to analyze.");
         }
 
+        if (!config.getFallbacks().isEmpty()) {
+            return new LlmFailover(config, null, new CancellationToken()).run(prompt);
+        }
+
+        // Fail fast while the provider is known to be down
+        LlmCircuitBreaker breaker = LlmCircuitBreaker.forProvider(config.getProvider());
+        LlmCircuitBreaker.Permit permit = breaker.allowRequest();
+        if (permit == null) {
+            String errorMsg = unavailableMessage(breaker, config);
+            AnalysisMetrics.getInstance().recordFailure(config, errorMsg);
+            return AnalysisResult.failure(errorMsg);
+        }
+
         try {
-            // Create model through factory
-            ChatLanguageModel model = LlmClientFactory.createChatModel(config);
+            // Reuse cached model (and its HTTP connections) for this config
+            long acquisitionStart = System.nanoTime();
+            ChatLanguageModel model = LlmModelRegistry.getInstance().getChatModel(config);
+            AnalysisMetrics.getInstance().recordLatency(config, AnalysisMetrics.Phase.MODEL_ACQUISITION,
+                    AnalysisMetrics.elapsedMillis(acquisitionStart));
+
+            // Generate response using LangChain4j, throttled and retried per provider
+            ChatResponse response = LlmRetry.call(config, LlmRetry.estimateTokens(config, prompt), () -> true,
+                    new CancellationToken(), () -> model.chat(prompt.toMessages()));
+            permit.recordSuccess();
+            AnalysisMetrics.getInstance().recordResponse(config, response.tokenUsage());
 
-            // Generate response using LangChain4j
-            String result = model.chat(prompt);
+            String result = response.aiMessage() != null ? response.aiMessage().text() : null;
 
             if (result == null || result.trim().isEmpty()) {
                 return AnalysisResult.failure("AI returned empty response.");
             }
 
-            return AnalysisResult.success(result);
+            return AnalysisResult.success(result).servedBy(config.getProvider(), false);
 
         } catch (CoreAiException e) {
+            permit.recordFailure(config, e);
             String errorMsg = e.getMessage();
+            AnalysisMetrics.getInstance().recordFailure(config, errorMsg);
             System.err.println(errorMsg);
             e.printStackTrace();
             return AnalysisResult.failure(errorMsg);
+        } catch (InterruptedException e) {
+            permit.recordFailure(config, e);
+            Thread.currentThread().interrupt();
+            return AnalysisResult.failure("Analysis was interrupted.");
         } catch (Exception e) {
+            permit.recordFailure(config, e);
             String errorMsg = "Error calling LLM API: " + e.getMessage();
+            AnalysisMetrics.getInstance().recordFailure(config, errorMsg);
             System.err.println(errorMsg);
             e.printStackTrace();
             return AnalysisResult.failure(errorMsg);
@@ -65,248 +118,300 @@ public class LlmClient {
     }
 
     /**
-     * Fetches available models from the configured provider
+     * Analyzes text with a request that can be cancelled while it runs.
+     * Cancellable requests are sent through the streaming API, because only
+     * a stream can be torn down before the answer is complete.
      * 
-     * @return List of model names
-     * @throws CoreAiException if API call fails
+     * @param config       LLM configuration to use for this call
+     * @param prompt       instructions, sent as system message, and content
+     * @param cancellation token that aborts the request
+     * @return Analysis result from AI, or a cancelled result
      */
-    public List<String> fetchAvailableModels() throws CoreAiException {
-        LlmConfig config = PreferenceHelper.getLlmConfig();
+    public AnalysisResult analyzeText(LlmConfig config, LlmPrompt prompt, CancellationToken cancellation) {
+        return analyzeTextStreaming(config, prompt, text -> {
+        }, cancellation);
+    }
 
-        switch (config.getProvider()) {
-            case GOOGLE_AI:
-                return fetchGoogleAiModels(config.getApiKey());
-            case OPENAI:
-                return fetchOpenAiModels(config.getApiKey());
-            case ANTHROPIC:
-                return fetchAnthropicModels();
-            case OLLAMA:
-                return fetchOllamaModels(config.getBaseUrl());
-            default:
-                throw new CoreAiException(config.getProvider(),
-                        "Fetching models not supported for: " + config.getProvider());
-        }
+    /**
+     * Analyzes text using the configured LLM provider's streaming API. Partial
+     * output is pushed to the listener as it arrives; the method blocks until
+     * the response is complete.
+     * 
+     * @param prompt   The prompt/text to analyze
+     * @param listener Receiver of partial text fragments
+     * @return Analysis result with the complete response text
+     */
+    public AnalysisResult analyzeTextStreaming(String prompt, AnalysisStreamListener listener) {
+        return analyzeTextStreaming(PreferenceHelper.getLlmConfig(), prompt, listener);
     }
 
     /**
-     * Fetch available Google AI models
+     * Analyzes text using the given LLM configuration's streaming API, with
+     * failover and optional hedging if the configuration has fallbacks
+     * 
+     * @param config   LLM configuration to use for this call
+     * @param prompt   The prompt/text to analyze
+     * @param listener Receiver of partial text fragments
+     * @return Analysis result with the complete response text
      */
-    private List<String> fetchGoogleAiModels(String apiKey) throws CoreAiException {
-        List<String> models = new ArrayList<>();
+    public AnalysisResult analyzeTextStreaming(LlmConfig config, String prompt, AnalysisStreamListener listener) {
+        return analyzeTextStreaming(config, LlmPrompt.of(prompt), listener, new CancellationToken());
+    }
+
+    /**
+     * Analyzes text using the given LLM configuration's streaming API.
+     * Cancelling the token releases the caller at once and aborts the stream,
+     * so an abandoned analysis stops using the connection and output tokens.
+     * 
+     * @param config       LLM configuration to use for this call
+     * @param prompt       instructions, sent as system message, and content
+     * @param listener     Receiver of partial text fragments
+     * @param cancellation token that aborts the request
+     * @return Analysis result with the complete response text, or a cancelled result
+     */
+    public AnalysisResult analyzeTextStreaming(LlmConfig config, LlmPrompt prompt, AnalysisStreamListener listener,
+            CancellationToken cancellation) {
+        if (cancellation.isCancelled()) {
+            return AnalysisResult.cancelled();
+        }
+
+        if (config.getProvider().requiresApiKey() &&
+                (config.getApiKey() == null || config.getApiKey().trim().isEmpty())) {
+            return AnalysisResult.failure(
+                    "API key is not configured for " + config.getProvider().getDisplayName() +
+                            ". Please set it in Preferences -> ABAP AI Tools.");
+        }
+
+        if (prompt == null || prompt.isBlank()) {
+            return AnalysisResult.failure("No content to analyze.");
+        }
+
+        if (!config.getFallbacks().isEmpty()) {
+            return new LlmFailover(config, listener, cancellation).run(prompt);
+        }
+
+        // Fail fast while the provider is known to be down
+        LlmCircuitBreaker breaker = LlmCircuitBreaker.forProvider(config.getProvider());
+        LlmCircuitBreaker.Permit permit = breaker.allowRequest();
+        if (permit == null) {
+            String errorMsg = unavailableMessage(breaker, config);
+            AnalysisMetrics.getInstance().recordFailure(config, errorMsg);
+            return AnalysisResult.failure(errorMsg);
+        }
+
         try {
-            URL url = URI.create("https://generativelanguage.googleapis.com/v1beta/models?key=" + apiKey).toURL();
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Content-Type", "application/json");
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-
-                Gson gson = new Gson();
-                JsonObject jsonResponse = gson.fromJson(response.toString(), JsonObject.class);
-
-                if (jsonResponse.has("models")) {
-                    JsonArray modelsArray = jsonResponse.getAsJsonArray("models");
-                    for (int i = 0; i < modelsArray.size(); i++) {
-                        JsonObject model = modelsArray.get(i).getAsJsonObject();
-                        if (model.has("name")) {
-                            String name = model.get("name").getAsString();
-                            if (name.startsWith("models/")) {
-                                name = name.substring(7);
-                            }
-                            models.add(name);
+            long acquisitionStart = System.nanoTime();
+            StreamingChatLanguageModel model = LlmModelRegistry.getInstance().getStreamingChatModel(config);
+            AnalysisMetrics.getInstance().recordLatency(config, AnalysisMetrics.Phase.MODEL_ACQUISITION,
+                    AnalysisMetrics.elapsedMillis(acquisitionStart));
+            StringBuilder collected = new StringBuilder();
+
+            // Failed attempts are only retried as long as nothing was shown yet
+            String result = LlmRetry.call(config, LlmRetry.estimateTokens(config, prompt),
+                    () -> collected.length() == 0, cancellation, () -> {
+                        try {
+                            return streamChat(config, model, prompt, collected, listener, cancellation).get();
+                        } catch (ExecutionException e) {
+                            Throwable cause = e.getCause() != null ? e.getCause() : e;
+                            throw cause instanceof Exception ? (Exception) cause : e;
                         }
-                    }
-                }
-            } else {
-                throw new CoreAiException(LlmProvider.GOOGLE_AI, "HTTP " + responseCode);
+                    });
+            permit.recordSuccess();
+
+            if (result == null || result.trim().isEmpty()) {
+                return AnalysisResult.failure("AI returned empty response.");
             }
-            connection.disconnect();
 
+            return AnalysisResult.success(result).servedBy(config.getProvider(), false);
+
+        } catch (CancellationException e) {
+            // Not the provider's fault; only frees a half-open trial slot
+            permit.recordFailure(config, e);
+            return AnalysisResult.cancelled();
         } catch (CoreAiException e) {
-            throw e;
+            permit.recordFailure(config, e);
+            String errorMsg = e.getMessage();
+            AnalysisMetrics.getInstance().recordFailure(config, errorMsg);
+            System.err.println(errorMsg);
+            e.printStackTrace();
+            return AnalysisResult.failure(errorMsg);
+        } catch (InterruptedException e) {
+            permit.recordFailure(config, e);
+            Thread.currentThread().interrupt();
+            return AnalysisResult.failure("Analysis was interrupted.");
         } catch (Exception e) {
-            throw new CoreAiException(LlmProvider.GOOGLE_AI,
-                    "Failed to fetch models: " + e.getMessage(), e);
+            permit.recordFailure(config, e);
+            String errorMsg = "Error calling LLM API: " + e.getMessage();
+            AnalysisMetrics.getInstance().recordFailure(config, errorMsg);
+            System.err.println(errorMsg);
+            e.printStackTrace();
+            return AnalysisResult.failure(errorMsg);
         }
+    }
 
-        return models;
+    /**
+     * Failure message for a request rejected by the circuit breaker
+     */
+    static String unavailableMessage(LlmCircuitBreaker breaker, LlmConfig config) {
+        String state = breaker.describe();
+        return (state != null ? state : config.getProvider().getDisplayName() + " is temporarily unavailable") + ".";
     }
 
     /**
-     * Fetch available OpenAI models
+     * Starts one streaming request, recording its time to first token and
+     * token usage
+     *
+     * @return future completed with the full response text
      */
-    private List<String> fetchOpenAiModels(String apiKey) throws CoreAiException {
-        List<String> models = new ArrayList<>();
-        try {
-            URL url = URI.create("https://api.openai.com/v1/models").toURL();
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Authorization", "Bearer " + apiKey);
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
+    private static CompletableFuture<String> streamChat(LlmConfig config, StreamingChatLanguageModel model,
+            LlmPrompt prompt, StringBuilder collected, AnalysisStreamListener listener,
+            CancellationToken cancellation) {
+        CompletableFuture<String> completion = new CompletableFuture<>();
+        StreamingCall call = new StreamingCall();
+        // Releases the waiting caller and closes the connection, also before the first fragment
+        Runnable unregister = cancellation.onCancel(() -> {
+            call.abort();
+            completion.cancel(false);
+        });
+        completion.whenComplete((text, error) -> unregister.run());
+        long started = System.nanoTime();
+        call.start(model, prompt.toMessages(), new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                // Fragments already read when the connection was closed
+                cancellation.throwIfCancelled();
+                if (partialResponse == null || partialResponse.isEmpty()) {
+                    return;
                 }
-                reader.close();
-
-                Gson gson = new Gson();
-                JsonObject jsonResponse = gson.fromJson(response.toString(), JsonObject.class);
-
-                if (jsonResponse.has("data")) {
-                    JsonArray modelsArray = jsonResponse.getAsJsonArray("data");
-                    for (int i = 0; i < modelsArray.size(); i++) {
-                        JsonObject model = modelsArray.get(i).getAsJsonObject();
-                        if (model.has("id")) {
-                            String id = model.get("id").getAsString();
-                            // Filter to show only GPT models
-                            if (id.startsWith("gpt-")) {
-                                models.add(id);
-                            }
-                        }
-                    }
+                if (collected.length() == 0) {
+                    long firstToken = AnalysisMetrics.elapsedMillis(started);
+                    AnalysisMetrics.getInstance().recordLatency(config, AnalysisMetrics.Phase.FIRST_TOKEN, firstToken);
+                    LatencyTracker.getInstance().recordFirstToken(config.getProvider(), firstToken);
                 }
-            } else {
-                throw new CoreAiException(LlmProvider.OPENAI, "HTTP " + responseCode);
+                collected.append(partialResponse);
+                listener.onPartialText(partialResponse);
             }
-            connection.disconnect();
 
-        } catch (CoreAiException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new CoreAiException(LlmProvider.OPENAI,
-                    "Failed to fetch models: " + e.getMessage(), e);
-        }
+            @Override
+            public void onCompleteResponse(ChatResponse response) {
+                AnalysisMetrics.getInstance().recordResponse(config, response.tokenUsage());
+                String text = response.aiMessage() != null ? response.aiMessage().text() : null;
+                completion.complete(text != null && !text.isEmpty() ? text : collected.toString());
+            }
 
-        return models;
+            @Override
+            public void onError(Throwable error) {
+                completion.completeExceptionally(error);
+            }
+        });
+        return completion;
     }
 
     /**
-     * Return predefined Anthropic models (API doesn't provide list endpoint)
-     */
-    /**
-     * Fetch available Anthropic models from API
+     * Fetches available models from the configured provider
+     * 
+     * @return List of model names
+     * @throws CoreAiException if API call fails
      */
-    private List<String> fetchAnthropicModels() throws CoreAiException {
+    public List<String> fetchAvailableModels() throws CoreAiException {
         LlmConfig config = PreferenceHelper.getLlmConfig();
-        String apiKey = config.getApiKey();
-
-        if (apiKey == null || apiKey.trim().isEmpty()) {
-            throw new CoreAiException(LlmProvider.ANTHROPIC, "API key is required to fetch models");
-        }
-
-        List<String> models = new ArrayList<>();
         try {
-            URL url = URI.create("https://api.anthropic.com/v1/models").toURL();
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("x-api-key", apiKey);
-            connection.setRequestProperty("anthropic-version", "2023-06-01");
-            connection.setRequestProperty("Content-Type", "application/json");
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-
-                Gson gson = new Gson();
-                JsonObject jsonResponse = gson.fromJson(response.toString(), JsonObject.class);
-
-                if (jsonResponse.has("data")) {
-                    JsonArray modelsArray = jsonResponse.getAsJsonArray("data");
-                    for (int i = 0; i < modelsArray.size(); i++) {
-                        JsonObject model = modelsArray.get(i).getAsJsonObject();
-                        if (model.has("id")) {
-                            models.add(model.get("id").getAsString());
-                        }
-                    }
-                }
-            } else {
-                throw new CoreAiException(LlmProvider.ANTHROPIC, "HTTP " + responseCode);
+            // The transport bounds each exchange; this guards against any stage that does not complete
+            long timeout = HttpTransport.CONNECT_TIMEOUT.plus(HttpTransport.REQUEST_TIMEOUT).toMillis();
+            return fetchAvailableModelsAsync(config).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CoreAiException(config.getProvider(), "Fetching models was interrupted", e);
+        } catch (TimeoutException e) {
+            throw new CoreAiException(config.getProvider(),
+                    "Failed to fetch models: " + HttpTransport.describe(e), e);
+        } catch (ExecutionException e) {
+            Throwable cause = HttpTransport.unwrap(e.getCause());
+            if (cause instanceof CoreAiException) {
+                throw (CoreAiException) cause;
             }
-            connection.disconnect();
-
-        } catch (CoreAiException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new CoreAiException(LlmProvider.ANTHROPIC,
-                    "Failed to fetch models: " + e.getMessage(), e);
+            throw new CoreAiException(config.getProvider(), "Failed to fetch models: " + cause.getMessage(), cause);
         }
-
-        return models;
     }
 
     /**
-     * Fetch available Ollama models from local instance
+     * Fetches available models from the provider without blocking the caller
+     * 
+     * @param config LLM configuration providing provider, API key and base URL
+     * @return future completed with the model names, or exceptionally with a
+     *         CoreAiException
      */
-    private List<String> fetchOllamaModels(String baseUrl) throws CoreAiException {
-        if (baseUrl == null || baseUrl.trim().isEmpty()) {
-            baseUrl = "http://localhost:11434";
+    public CompletableFuture<List<String>> fetchAvailableModelsAsync(LlmConfig config) {
+        switch (config.getProvider()) {
+            case GOOGLE_AI:
+                return fetchGoogleAiModels(config.getApiKey());
+            case OPENAI:
+                return fetchOpenAiModels(config.getApiKey(), config.getProvider().resolveBaseUrl(config.getBaseUrl()));
+            case ANTHROPIC:
+                return fetchAnthropicModels(config.getApiKey(),
+                        config.getProvider().resolveBaseUrl(config.getBaseUrl()));
+            case OLLAMA:
+                return fetchOllamaModels(config.getProvider().resolveBaseUrl(config.getBaseUrl()));
+            default:
+                return CompletableFuture.failedFuture(new CoreAiException(config.getProvider(),
+                        "Fetching models not supported for: " + config.getProvider()));
         }
+    }
 
-        List<String> models = new ArrayList<>();
-        try {
-            URL url = URI.create(baseUrl + "/api/tags").toURL();
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Content-Type", "application/json");
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-
-                Gson gson = new Gson();
-                JsonObject jsonResponse = gson.fromJson(response.toString(), JsonObject.class);
+    /**
+     * Fetch available Google AI models
+     */
+    private CompletableFuture<List<String>> fetchGoogleAiModels(String apiKey) {
+        return fetchModels(LlmProvider.GOOGLE_AI,
+                LlmProvider.GOOGLE_AI.getDefaultBaseUrl() + "/models?key=" + apiKey,
+                Map.of(), ModelListFormat.GOOGLE_AI, "");
+    }
 
-                if (jsonResponse.has("models")) {
-                    JsonArray modelsArray = jsonResponse.getAsJsonArray("models");
-                    for (int i = 0; i < modelsArray.size(); i++) {
-                        JsonObject model = modelsArray.get(i).getAsJsonObject();
-                        if (model.has("name")) {
-                            models.add(model.get("name").getAsString());
-                        }
-                    }
-                }
-            } else {
-                throw new CoreAiException(LlmProvider.OLLAMA,
-                        "HTTP " + responseCode + " - Is Ollama running?");
-            }
-            connection.disconnect();
+    /**
+     * Fetch available OpenAI models
+     */
+    private CompletableFuture<List<String>> fetchOpenAiModels(String apiKey, String baseUrl) {
+        return fetchModels(LlmProvider.OPENAI, baseUrl + "/models",
+                Map.of("Authorization", "Bearer " + apiKey), ModelListFormat.OPENAI, "");
+    }
 
-        } catch (CoreAiException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new CoreAiException(LlmProvider.OLLAMA,
-                    "Failed to fetch models: " + e.getMessage() + " - Is Ollama running?", e);
+    /**
+     * Fetch available Anthropic models from API
+     */
+    private CompletableFuture<List<String>> fetchAnthropicModels(String apiKey, String baseUrl) {
+        if (apiKey == null || apiKey.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new CoreAiException(LlmProvider.ANTHROPIC, "API key is required to fetch models"));
         }
+        return fetchModels(LlmProvider.ANTHROPIC, baseUrl + "/models",
+                Map.of("x-api-key", apiKey, "anthropic-version", "2023-06-01"),
+                ModelListFormat.ANTHROPIC, "");
+    }
 
-        return models;
+    /**
+     * Fetch available Ollama models from local instance
+     */
+    private CompletableFuture<List<String>> fetchOllamaModels(String baseUrl) {
+        return fetchModels(LlmProvider.OLLAMA, baseUrl + "/api/tags", Map.of(),
+                ModelListFormat.OLLAMA, " - Is Ollama running?");
+    }
+
+    /**
+     * Requests a model list through the shared transport, parsing it while it
+     * is received, and maps every failure to a CoreAiException
+     */
+    private static CompletableFuture<List<String>> fetchModels(LlmProvider provider, String url,
+            Map<String, String> headers, ModelListFormat format, String failureHint) {
+        return HttpTransport.getInstance().getAsync(url, headers, format::parse)
+                .handle((models, error) -> {
+                    if (error == null) {
+                        return models;
+                    }
+                    Throwable cause = HttpTransport.unwrap(error);
+                    String message = cause instanceof HttpTransport.HttpStatusException
+                            ? cause.getMessage() + failureHint
+                            : "Failed to fetch models: " + HttpTransport.describe(cause) + failureHint;
+                    throw new CompletionException(new CoreAiException(provider, message, cause));
+                });
     }
 }
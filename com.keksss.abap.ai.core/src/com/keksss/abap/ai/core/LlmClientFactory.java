@@ -2,10 +2,15 @@ package com.keksss.abap.ai.core;
 
 import dev.langchain4j.http.client.jdk.JdkHttpClientBuilder;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
+import dev.langchain4j.model.googleai.GoogleAiGeminiStreamingChatModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import dev.langchain4j.model.anthropic.AnthropicChatModel;
+import dev.langchain4j.model.anthropic.AnthropicStreamingChatModel;
 import dev.langchain4j.model.ollama.OllamaChatModel;
+import dev.langchain4j.model.ollama.OllamaStreamingChatModel;
 
 /**
  * Factory for creating ChatLanguageModel instances based on provider
@@ -15,6 +20,12 @@ import dev.langchain4j.model.ollama.OllamaChatModel;
  */
 public class LlmClientFactory {
 
+    /**
+     * LangChain4j retries every failure immediately; retries and rate
+     * limiting are done by LlmRetry instead, so models make one attempt
+     */
+    private static final int SINGLE_ATTEMPT = 1;
+
     /**
      * Creates a ChatLanguageModel based on the provided configuration
      * 
@@ -57,6 +68,7 @@ public class LlmClientFactory {
                     .topP(0.95)
                     .topK(40)
                     .maxOutputTokens(config.getMaxTokens())
+                    .maxRetries(SINGLE_ATTEMPT)
                     .build();
         } catch (Exception e) {
             throw new CoreAiException(LlmProvider.GOOGLE_AI,
@@ -72,12 +84,13 @@ public class LlmClientFactory {
             OpenAiChatModel.OpenAiChatModelBuilder builder = OpenAiChatModel.builder()
                     .apiKey(config.getApiKey())
                     .modelName(config.getModel())
-                    .maxCompletionTokens(config.getMaxTokens());
+                    .maxCompletionTokens(config.getMaxTokens())
+                    .maxRetries(SINGLE_ATTEMPT);
+            if (hasCustomBaseUrl(config)) {
+                builder.baseUrl(baseUrl(config));
+            }
 
-            // o1 models do not support custom temperature
-            // Check for "o1-" case-insensitive
-            String modelNameLower = config.getModel().toLowerCase();
-            if (!modelNameLower.contains("o1-") && !modelNameLower.equals("o1")) {
+            if (supportsTemperature(config.getModel())) {
                 builder.temperature(config.getTemperature());
             }
 
@@ -88,17 +101,32 @@ public class LlmClientFactory {
         }
     }
 
+    /**
+     * o1 models do not support custom temperature
+     */
+    private static boolean supportsTemperature(String modelName) {
+        // Check for "o1-" case-insensitive
+        String modelNameLower = modelName.toLowerCase();
+        return !modelNameLower.contains("o1-") && !modelNameLower.equals("o1");
+    }
+
     /**
      * Creates Anthropic Claude chat model
      */
     private static ChatLanguageModel createAnthropicModel(LlmConfig config) throws CoreAiException {
         try {
-            return AnthropicChatModel.builder()
+            AnthropicChatModel.AnthropicChatModelBuilder builder = AnthropicChatModel.builder()
                     .apiKey(config.getApiKey())
                     .modelName(config.getModel())
                     .temperature(config.getTemperature())
                     .maxTokens(config.getMaxTokens())
-                    .build();
+                    // Marks the instructions as cacheable prefix; OpenAI and Gemini cache prefixes implicitly
+                    .cacheSystemMessages(true)
+                    .maxRetries(SINGLE_ATTEMPT);
+            if (hasCustomBaseUrl(config)) {
+                builder.baseUrl(baseUrl(config) + "/");
+            }
+            return builder.build();
         } catch (Exception e) {
             throw new CoreAiException(LlmProvider.ANTHROPIC,
                     "Failed to create Anthropic model: " + e.getMessage(), e);
@@ -110,20 +138,95 @@ public class LlmClientFactory {
      */
     private static ChatLanguageModel createOllamaModel(LlmConfig config) throws CoreAiException {
         try {
-            String baseUrl = config.getBaseUrl();
-            if (baseUrl == null || baseUrl.trim().isEmpty()) {
-                baseUrl = "http://localhost:11434";
-            }
-
             return OllamaChatModel.builder()
                     .httpClientBuilder(new JdkHttpClientBuilder())
-                    .baseUrl(baseUrl)
+                    .baseUrl(baseUrl(config))
                     .modelName(config.getModel())
                     .temperature(config.getTemperature())
+                    .maxRetries(SINGLE_ATTEMPT)
                     .build();
         } catch (Exception e) {
             throw new CoreAiException(LlmProvider.OLLAMA,
                     "Failed to create Ollama model: " + e.getMessage(), e);
         }
     }
+
+    private static String baseUrl(LlmConfig config) {
+        return config.getProvider().resolveBaseUrl(config.getBaseUrl());
+    }
+
+    /**
+     * Cloud SDKs keep their own default endpoint unless another one is
+     * configured, e.g. a company gateway or a local mock server
+     */
+    private static boolean hasCustomBaseUrl(LlmConfig config) {
+        return config.getProvider().supportsBaseUrl()
+                && config.getBaseUrl() != null && !config.getBaseUrl().trim().isEmpty();
+    }
+
+    // ========== Streaming Models ==========
+
+    /**
+     * Creates a StreamingChatLanguageModel based on the provided configuration
+     * 
+     * @param config LLM configuration
+     * @return StreamingChatLanguageModel interface implementation
+     * @throws CoreAiException if model creation fails
+     */
+    public static StreamingChatLanguageModel createStreamingChatModel(LlmConfig config) throws CoreAiException {
+        try {
+            switch (config.getProvider()) {
+                case GOOGLE_AI:
+                    return GoogleAiGeminiStreamingChatModel.builder()
+                            .apiKey(config.getApiKey())
+                            .modelName(config.getModel())
+                            .temperature(config.getTemperature())
+                            .topP(0.95)
+                            .topK(40)
+                            .maxOutputTokens(config.getMaxTokens())
+                            .build();
+                case OPENAI:
+                    OpenAiStreamingChatModel.OpenAiStreamingChatModelBuilder openAiBuilder = OpenAiStreamingChatModel
+                            .builder()
+                            .apiKey(config.getApiKey())
+                            .modelName(config.getModel())
+                            .maxCompletionTokens(config.getMaxTokens());
+                    if (supportsTemperature(config.getModel())) {
+                        openAiBuilder.temperature(config.getTemperature());
+                    }
+                    if (hasCustomBaseUrl(config)) {
+                        openAiBuilder.baseUrl(baseUrl(config));
+                    }
+                    return openAiBuilder.build();
+                case ANTHROPIC:
+                    AnthropicStreamingChatModel.AnthropicStreamingChatModelBuilder anthropicBuilder = AnthropicStreamingChatModel
+                            .builder()
+                            .apiKey(config.getApiKey())
+                            .modelName(config.getModel())
+                            .temperature(config.getTemperature())
+                            .maxTokens(config.getMaxTokens())
+                            .cacheSystemMessages(true);
+                    if (hasCustomBaseUrl(config)) {
+                        anthropicBuilder.baseUrl(baseUrl(config) + "/");
+                    }
+                    return anthropicBuilder.build();
+                case OLLAMA:
+                    return OllamaStreamingChatModel.builder()
+                            // Opens streams so that they can be aborted, see StreamingCall
+                            .httpClientBuilder(new StreamingCall.AbortableHttpClientBuilder())
+                            .baseUrl(baseUrl(config))
+                            .modelName(config.getModel())
+                            .temperature(config.getTemperature())
+                            .build();
+                default:
+                    throw new CoreAiException(config.getProvider(),
+                            "Unsupported provider: " + config.getProvider());
+            }
+        } catch (CoreAiException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CoreAiException(config.getProvider(),
+                    "Failed to create streaming LLM client: " + e.getMessage(), e);
+        }
+    }
 }
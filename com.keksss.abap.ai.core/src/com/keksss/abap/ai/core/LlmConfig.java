@@ -1,5 +1,9 @@
 package com.keksss.abap.ai.core;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Configuration object for LLM clients using Builder pattern
  */
@@ -10,6 +14,11 @@ public class LlmConfig {
     private final String baseUrl;
     private final double temperature;
     private final int maxTokens;
+    private final int maxInputTokens;
+    private final List<LlmConfig> fallbacks;
+    private final boolean hedging;
+    private final int requestsPerMinute;
+    private final int tokensPerMinute;
 
     private LlmConfig(Builder builder) {
         this.provider = builder.provider;
@@ -18,6 +27,11 @@ public class LlmConfig {
         this.baseUrl = builder.baseUrl;
         this.temperature = builder.temperature;
         this.maxTokens = builder.maxTokens;
+        this.maxInputTokens = builder.maxInputTokens;
+        this.fallbacks = Collections.unmodifiableList(new ArrayList<>(builder.fallbacks));
+        this.hedging = builder.hedging;
+        this.requestsPerMinute = builder.requestsPerMinute;
+        this.tokensPerMinute = builder.tokensPerMinute;
     }
 
     public LlmProvider getProvider() {
@@ -44,6 +58,42 @@ public class LlmConfig {
         return maxTokens;
     }
 
+    /**
+     * Token budget for the prompt sent to the model
+     */
+    public int getMaxInputTokens() {
+        return maxInputTokens;
+    }
+
+    /**
+     * Backup providers tried in order when this provider fails
+     */
+    public List<LlmConfig> getFallbacks() {
+        return fallbacks;
+    }
+
+    /**
+     * Whether a slow first answer is hedged with a request to the first backup
+     */
+    public boolean isHedging() {
+        return hedging;
+    }
+
+    /**
+     * Requests per minute allowed for this provider, 0 for unlimited
+     */
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    /**
+     * Prompt and answer tokens per minute allowed for this provider, 0 for
+     * unlimited
+     */
+    public int getTokensPerMinute() {
+        return tokensPerMinute;
+    }
+
     /**
      * Builder for LlmConfig
      */
@@ -54,6 +104,11 @@ public class LlmConfig {
         private String baseUrl = null;
         private double temperature = 0.7;
         private int maxTokens = 2048;
+        private int maxInputTokens = 16000;
+        private List<LlmConfig> fallbacks = Collections.emptyList();
+        private boolean hedging;
+        private int requestsPerMinute;
+        private int tokensPerMinute;
 
         public Builder provider(LlmProvider provider) {
             this.provider = provider;
@@ -85,6 +140,31 @@ public class LlmConfig {
             return this;
         }
 
+        public Builder maxInputTokens(int maxInputTokens) {
+            this.maxInputTokens = maxInputTokens;
+            return this;
+        }
+
+        public Builder fallbacks(List<LlmConfig> fallbacks) {
+            this.fallbacks = fallbacks != null ? fallbacks : Collections.emptyList();
+            return this;
+        }
+
+        public Builder hedging(boolean hedging) {
+            this.hedging = hedging;
+            return this;
+        }
+
+        public Builder requestsPerMinute(int requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+            return this;
+        }
+
+        public Builder tokensPerMinute(int tokensPerMinute) {
+            this.tokensPerMinute = tokensPerMinute;
+            return this;
+        }
+
         public LlmConfig build() {
             return new LlmConfig(this);
         }
@@ -98,6 +178,11 @@ public class LlmConfig {
                 ", baseUrl='" + baseUrl + '\'' +
                 ", temperature=" + temperature +
                 ", maxTokens=" + maxTokens +
+                ", maxInputTokens=" + maxInputTokens +
+                ", fallbacks=" + fallbacks.stream().map(f -> f.provider.name()).toList() +
+                ", hedging=" + hedging +
+                ", requestsPerMinute=" + requestsPerMinute +
+                ", tokensPerMinute=" + tokensPerMinute +
                 '}';
     }
 }
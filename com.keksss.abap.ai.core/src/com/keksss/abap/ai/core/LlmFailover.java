@@ -0,0 +1,313 @@
+package com.keksss.abap.ai.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+
+/**
+ * Runs one prompt against the provider of an LlmConfig and its failover
+ * chain. Providers are tried in order until one answers. With hedging
+ * enabled, a request that has not produced its first token within the
+ * provider's 95th percentile time to first token is raced against the next
+ * provider in the chain; the first complete answer wins and the other request
+ * is abandoned. Streamed text is forwarded from one request at a time.
+ * Requests pass the provider's {@link LlmRateLimiter}; instead of retrying a
+ * provider the chain moves on to the next one, and providers whose
+ * {@link LlmCircuitBreaker} is open are skipped. Abandoned requests, the
+ * losers of a race and all requests of a cancelled run, have their connection
+ * closed at once. If the request whose text was streamed fails, the listener
+ * is told to start over before the next request's text is forwarded.
+ */
+final class LlmFailover {
+
+    /** Hedging delay used until enough latency samples exist */
+    static final long DEFAULT_HEDGE_DELAY_MS = 10_000;
+    static final long MIN_HEDGE_DELAY_MS = 1_000;
+    static final long MAX_HEDGE_DELAY_MS = 60_000;
+
+    private final LlmConfig config;
+    private final List<LlmConfig> chain = new ArrayList<>();
+    private final AnalysisStreamListener listener;
+    private final CancellationToken cancellation;
+
+    private final BlockingQueue<Attempt> finished = new LinkedBlockingQueue<>();
+    private final AtomicReference<Attempt> streamOwner = new AtomicReference<>();
+    /** Set when the streamed text belongs to a failed request */
+    private volatile boolean restartStream;
+    private final List<Attempt> running = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+    private final Attempt cancelled;
+    private int next;
+
+    /**
+     * @param config       primary configuration including its fallbacks
+     * @param listener     receiver of partial text, or null for a blocking call
+     * @param cancellation token that ends the run and aborts its requests
+     */
+    LlmFailover(LlmConfig config, AnalysisStreamListener listener, CancellationToken cancellation) {
+        this.config = config;
+        this.listener = listener;
+        this.cancellation = cancellation;
+        this.cancelled = new Attempt(config, null);
+        chain.add(config);
+        for (LlmConfig fallback : config.getFallbacks()) {
+            if (!fallback.getProvider().requiresApiKey()
+                    || (fallback.getApiKey() != null && !fallback.getApiKey().trim().isEmpty())) {
+                chain.add(fallback);
+            }
+        }
+    }
+
+    /**
+     * Delay after which a request without a first token is hedged
+     *
+     * @param provider provider of the running request
+     * @return milliseconds
+     */
+    static long hedgeDelay(LlmProvider provider) {
+        long p95 = LatencyTracker.getInstance().getFirstTokenPercentile(provider, 95);
+        if (p95 < 0) {
+            return DEFAULT_HEDGE_DELAY_MS;
+        }
+        return Math.max(MIN_HEDGE_DELAY_MS, Math.min(MAX_HEDGE_DELAY_MS, p95));
+    }
+
+    /**
+     * Sends the prompt and blocks until a provider answered or all failed
+     *
+     * @param prompt prompt to send
+     * @return result of the winning provider, or a failure listing every error
+     */
+    AnalysisResult run(LlmPrompt prompt) {
+        // Wakes up the waiting loop below
+        Runnable unregister = cancellation.onCancel(() -> finished.add(cancelled));
+        try {
+            while (true) {
+                if (cancellation.isCancelled()) {
+                    abandonRunning();
+                    return AnalysisResult.cancelled();
+                }
+                if (running.isEmpty() && !startNext(prompt)) {
+                    return failure();
+                }
+
+                Attempt attempt;
+                Attempt hedgeable = hedgeableAttempt();
+                if (hedgeable != null) {
+                    long wait = hedgeable.started + hedgeDelay(hedgeable.config.getProvider())
+                            - System.currentTimeMillis();
+                    attempt = wait > 0 ? finished.poll(wait, TimeUnit.MILLISECONDS) : null;
+                    if (attempt == null) {
+                        if (!hedgeable.firstToken) {
+                            startNext(prompt);
+                        }
+                        continue;
+                    }
+                } else {
+                    attempt = finished.take();
+                }
+                if (attempt == cancelled) {
+                    continue;
+                }
+
+                running.remove(attempt);
+                attempt.unregister.run();
+                if (streamOwner.get() == attempt) {
+                    // Flagged first, so the next owner cannot miss it
+                    restartStream = true;
+                    streamOwner.set(null);
+                }
+                if (attempt.error == null && attempt.text != null && !attempt.text.trim().isEmpty()) {
+                    abandonRunning();
+                    return AnalysisResult.success(attempt.text)
+                            .servedBy(attempt.config.getProvider(), attempt.config != config);
+                }
+                errors.add(attempt.error != null ? attempt.error
+                        : "[" + attempt.config.getProvider().getDisplayName() + "] AI returned empty response.");
+            }
+        } catch (CancellationException e) {
+            abandonRunning();
+            return AnalysisResult.cancelled();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandonRunning();
+            return AnalysisResult.failure("Analysis was interrupted.");
+        } finally {
+            unregister.run();
+        }
+    }
+
+    /**
+     * The single running request may be hedged while it has not answered yet
+     * and a further provider is available
+     */
+    private Attempt hedgeableAttempt() {
+        if (!config.isHedging() || running.size() != 1 || next >= chain.size()) {
+            return null;
+        }
+        Attempt attempt = running.get(0);
+        return attempt.firstToken ? null : attempt;
+    }
+
+    /**
+     * Starts a request to the next provider of the chain, skipping providers
+     * whose model cannot be created
+     *
+     * @return false if the chain is exhausted
+     * @throws InterruptedException if interrupted while waiting for the rate limiter
+     */
+    private boolean startNext(LlmPrompt prompt) throws InterruptedException {
+        while (next < chain.size()) {
+            LlmConfig candidate = chain.get(next++);
+            LlmCircuitBreaker breaker = LlmCircuitBreaker.forProvider(candidate.getProvider());
+            LlmCircuitBreaker.Permit permit = breaker.allowRequest();
+            if (permit == null) {
+                fail(candidate, LlmClient.unavailableMessage(breaker, candidate));
+                continue;
+            }
+            Attempt attempt = null;
+            try {
+                long acquisitionStart = System.nanoTime();
+                StreamingChatLanguageModel model = LlmModelRegistry.getInstance().getStreamingChatModel(candidate);
+                AnalysisMetrics.getInstance().recordLatency(candidate, AnalysisMetrics.Phase.MODEL_ACQUISITION,
+                        AnalysisMetrics.elapsedMillis(acquisitionStart));
+                LlmRetry.acquire(candidate, LlmRetry.estimateTokens(candidate, prompt), cancellation);
+                attempt = new Attempt(candidate, permit);
+                running.add(attempt);
+                // Also reaches models streaming on this thread, which return only when done
+                attempt.unregister = cancellation.onCancel(attempt.call::abort);
+                attempt.call.start(model, prompt.toMessages(), attempt);
+                return true;
+            } catch (CoreAiException e) {
+                permit.recordFailure(candidate, e);
+                fail(candidate, e.getMessage());
+            } catch (InterruptedException | CancellationException e) {
+                permit.recordFailure(candidate, e);
+                throw e;
+            } catch (RuntimeException e) {
+                permit.recordFailure(candidate, e);
+                running.remove(attempt);
+                if (attempt != null) {
+                    attempt.unregister.run();
+                }
+                fail(candidate, new CoreAiException(candidate.getProvider(),
+                        "Error calling LLM API: " + HttpTransport.describe(e), e).getMessage());
+            }
+        }
+        return false;
+    }
+
+    private void fail(LlmConfig candidate, String message) {
+        AnalysisMetrics.getInstance().recordFailure(candidate, message);
+        errors.add(message);
+    }
+
+    private void abandonRunning() {
+        for (Attempt attempt : running) {
+            attempt.abandoned = true;
+            attempt.unregister.run();
+            attempt.call.abort();
+            // Frees a half-open trial slot without a verdict on the provider
+            attempt.permit.release();
+        }
+        running.clear();
+    }
+
+    private AnalysisResult failure() {
+        String message = errors.size() == 1 ? errors.get(0)
+                : "All configured providers failed:\n- " + String.join("\n- ", errors);
+        System.err.println(message);
+        return AnalysisResult.failure(message);
+    }
+
+    /**
+     * One streaming request to one provider
+     */
+    private class Attempt implements StreamingChatResponseHandler {
+        final LlmConfig config;
+        final LlmCircuitBreaker.Permit permit;
+        final StreamingCall call = new StreamingCall();
+        Runnable unregister = () -> {
+        };
+        final long started = System.currentTimeMillis();
+        final StringBuilder collected = new StringBuilder();
+        volatile boolean firstToken;
+        volatile boolean abandoned;
+        String text;
+        String error;
+
+        Attempt(LlmConfig config, LlmCircuitBreaker.Permit permit) {
+            this.config = config;
+            this.permit = permit;
+        }
+
+        @Override
+        public void onPartialResponse(String partialResponse) {
+            if (abandoned) {
+                // Fragments already read when the connection was closed
+                throw new CancellationException("Request abandoned");
+            }
+            if (partialResponse == null || partialResponse.isEmpty()) {
+                return;
+            }
+            if (!firstToken) {
+                firstToken = true;
+                long millis = System.currentTimeMillis() - started;
+                LatencyTracker.getInstance().recordFirstToken(config.getProvider(), millis);
+                AnalysisMetrics.getInstance().recordLatency(config, AnalysisMetrics.Phase.FIRST_TOKEN, millis);
+            }
+            collected.append(partialResponse);
+            if (listener == null) {
+                return;
+            }
+            if (streamOwner.get() == this) {
+                listener.onPartialText(partialResponse);
+            } else if (streamOwner.compareAndSet(null, this)) {
+                if (restartStream) {
+                    restartStream = false;
+                    listener.onRestart(config.getProvider());
+                }
+                // Text received while another request was streaming has not been shown yet
+                listener.onPartialText(collected.toString());
+            }
+        }
+
+        @Override
+        public void onCompleteResponse(ChatResponse response) {
+            if (abandoned) {
+                // Completed before its connection was closed; the run has ended without it
+                return;
+            }
+            String responseText = response.aiMessage() != null ? response.aiMessage().text() : null;
+            text = responseText != null && !responseText.isEmpty() ? responseText : collected.toString();
+            permit.recordSuccess();
+            AnalysisMetrics.getInstance().recordResponse(config, response.tokenUsage());
+            finished.add(this);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            Throwable cause = HttpTransport.unwrap(error);
+            if (abandoned || cancellation.isCancelled()) {
+                // Most likely our own abort, which says nothing about the provider
+                return;
+            }
+            // The next provider is the retry; a 429 still pauses this provider for later requests
+            LlmRetry.onFailure(config, cause);
+            permit.recordFailure(config, cause);
+            this.error = cause instanceof CoreAiException ? cause.getMessage()
+                    : new CoreAiException(config.getProvider(),
+                            "Error calling LLM API: " + HttpTransport.describe(cause), cause).getMessage();
+            AnalysisMetrics.getInstance().recordFailure(config, this.error);
+            finished.add(this);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.keksss.abap.ai.core;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import okhttp3.OkHttpClient;
+
+/**
+ * Caches ChatLanguageModel instances so repeated analyses reuse the same
+ * underlying HTTP client and connections instead of rebuilding them per call.
+ * Models are keyed by the effective LlmConfig and dropped whenever the LLM
+ * preferences change or the core bundle stops; their HTTP clients are shut
+ * down when they are dropped.
+ */
+public class LlmModelRegistry {
+
+    private static final String UI_PLUGIN_ID = "com.keksss.abap.ai.ui";
+    private static final String LLM_PREFERENCE_PREFIX = "llm";
+
+    /** Object levels below a model searched for JDK HTTP clients */
+    private static final int CLIENT_SEARCH_DEPTH = 3;
+
+    private static final LlmModelRegistry INSTANCE = new LlmModelRegistry();
+
+    private final Map<String, ChatLanguageModel> chatModels = new ConcurrentHashMap<>();
+    private final Map<String, StreamingChatLanguageModel> streamingChatModels = new ConcurrentHashMap<>();
+
+    private IEclipsePreferences preferenceNode;
+
+    private final IEclipsePreferences.IPreferenceChangeListener preferenceListener = event -> {
+        if (event.getKey() != null && event.getKey().startsWith(LLM_PREFERENCE_PREFIX)) {
+            invalidateAll();
+        }
+    };
+
+    private LlmModelRegistry() {
+    }
+
+    /**
+     * Get the shared registry instance
+     *
+     * @return LlmModelRegistry
+     */
+    public static LlmModelRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a cached chat model for the given configuration, creating it
+     * through LlmClientFactory on first use.
+     *
+     * @param config LLM configuration
+     * @return ChatLanguageModel interface implementation
+     * @throws CoreAiException if model creation fails
+     */
+    public ChatLanguageModel getChatModel(LlmConfig config) throws CoreAiException {
+        String key = cacheKey(config);
+        ChatLanguageModel model = chatModels.get(key);
+        if (model != null) {
+            return model;
+        }
+
+        // Build outside of computeIfAbsent so CoreAiException can propagate;
+        // a concurrent duplicate build is harmless, the first one wins.
+        ChatLanguageModel created = LlmClientFactory.createChatModel(config);
+        ChatLanguageModel existing = chatModels.putIfAbsent(key, created);
+        if (existing != null) {
+            close(created);
+            return existing;
+        }
+        return created;
+    }
+
+    /**
+     * Returns a cached streaming chat model for the given configuration,
+     * creating it through LlmClientFactory on first use.
+     *
+     * @param config LLM configuration
+     * @return StreamingChatLanguageModel interface implementation
+     * @throws CoreAiException if model creation fails
+     */
+    public StreamingChatLanguageModel getStreamingChatModel(LlmConfig config) throws CoreAiException {
+        String key = cacheKey(config);
+        StreamingChatLanguageModel model = streamingChatModels.get(key);
+        if (model != null) {
+            return model;
+        }
+
+        StreamingChatLanguageModel created = LlmClientFactory.createStreamingChatModel(config);
+        StreamingChatLanguageModel existing = streamingChatModels.putIfAbsent(key, created);
+        if (existing != null) {
+            close(created);
+            return existing;
+        }
+        return created;
+    }
+
+    /**
+     * Drops all cached models. The next analysis builds fresh instances.
+     */
+    public void invalidateAll() {
+        for (String key : chatModels.keySet()) {
+            close(chatModels.remove(key));
+        }
+        for (String key : streamingChatModels.keySet()) {
+            close(streamingChatModels.remove(key));
+        }
+    }
+
+    /**
+     * Starts listening for LLM preference changes
+     */
+    void start() {
+        try {
+            preferenceNode = InstanceScope.INSTANCE.getNode(UI_PLUGIN_ID);
+            preferenceNode.addPreferenceChangeListener(preferenceListener);
+        } catch (Exception e) {
+            System.err.println("Error registering LLM preference listener: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops listening for preference changes and releases all cached models
+     */
+    void shutdown() {
+        if (preferenceNode != null) {
+            try {
+                preferenceNode.removePreferenceChangeListener(preferenceListener);
+            } catch (Exception e) {
+                // Node may already be removed during workbench shutdown
+            }
+            preferenceNode = null;
+        }
+        invalidateAll();
+    }
+
+    /**
+     * Builds the cache key from every setting that affects the built model.
+     * The API key is included only as a fingerprint.
+     */
+    private static String cacheKey(LlmConfig config) {
+        return config.getProvider().name() +
+                '|' + config.getModel() +
+                '|' + (config.getBaseUrl() != null ? config.getBaseUrl().trim() : "") +
+                '|' + config.getTemperature() +
+                '|' + config.getMaxTokens() +
+                '|' + fingerprint(config.getApiKey());
+    }
+
+    private static String fingerprint(String apiKey) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return "";
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(apiKey.hashCode());
+        }
+    }
+
+    /**
+     * Releases the HTTP clients of a model. LangChain4j models are not
+     * closeable, so their clients are looked up: OkHttp based models (OpenAI,
+     * Anthropic) stop their dispatcher and drop idle connections, JDK clients
+     * (Gemini, Ollama) are shut down. Requests already running complete.
+     */
+    private static void close(Object model) {
+        if (model == null) {
+            return;
+        }
+        try {
+            OkHttpClient okHttpClient = StreamingCall.okHttpClient(model);
+            if (okHttpClient != null) {
+                okHttpClient.dispatcher().executorService().shutdown();
+                okHttpClient.connectionPool().evictAll();
+                return;
+            }
+            Set<HttpClient> jdkClients = Collections.newSetFromMap(new IdentityHashMap<>());
+            collectJdkClients(model, CLIENT_SEARCH_DEPTH, jdkClients,
+                    Collections.newSetFromMap(new IdentityHashMap<>()));
+            jdkClients.forEach(HttpClient::shutdown);
+        } catch (RuntimeException e) {
+            System.err.println("Error closing LLM model: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Collects JDK HTTP clients held by an object or, up to a depth, by the
+     * LangChain4j and plug-in objects it refers to
+     */
+    private static void collectJdkClients(Object target, int depth, Set<HttpClient> clients, Set<Object> visited) {
+        if (!visited.add(target)) {
+            return;
+        }
+        for (Class<?> c = target.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.getType().isPrimitive() || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Object value;
+                try {
+                    field.setAccessible(true);
+                    value = field.get(target);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    continue;
+                }
+                if (value instanceof HttpClient) {
+                    clients.add((HttpClient) value);
+                } else if (value != null && depth > 0 && isClientHolder(value.getClass())) {
+                    collectJdkClients(value, depth - 1, clients, visited);
+                }
+            }
+        }
+    }
+
+    private static boolean isClientHolder(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("dev.langchain4j.") || name.startsWith("com.keksss.abap.ai.");
+    }
+}
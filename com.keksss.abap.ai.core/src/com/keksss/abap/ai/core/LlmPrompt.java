@@ -0,0 +1,87 @@
+package com.keksss.abap.ai.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+
+/**
+ * Prompt split into stable instructions and variable content. Instructions
+ * are sent first as a system message and content follows as the user
+ * message, so consecutive requests share a byte-identical prefix that
+ * providers can serve from their prompt cache.
+ */
+public final class LlmPrompt {
+
+    private final String instructions;
+    private final String content;
+
+    private LlmPrompt(String instructions, String content) {
+        this.instructions = instructions != null ? instructions : "";
+        this.content = content != null ? content : "";
+    }
+
+    /**
+     * @param instructions text identical across requests, may be empty
+     * @param content      request specific text
+     * @return prompt
+     */
+    public static LlmPrompt of(String instructions, String content) {
+        return new LlmPrompt(instructions, content);
+    }
+
+    /**
+     * @param text whole prompt, sent as a single user message
+     * @return prompt without instructions
+     */
+    public static LlmPrompt of(String text) {
+        return new LlmPrompt("", text);
+    }
+
+    /**
+     * @return instructions sent as system message, empty if there are none
+     */
+    public String getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * @return content sent as user message
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * @return instructions and content as one text, e.g. for token counting
+     */
+    public String getText() {
+        return instructions.isEmpty() ? content : instructions + "\n\n" + content;
+    }
+
+    /**
+     * @return true if there is nothing to send
+     */
+    public boolean isBlank() {
+        return instructions.isBlank() && content.isBlank();
+    }
+
+    /**
+     * Messages in provider order: system message first, if any
+     */
+    List<ChatMessage> toMessages() {
+        List<ChatMessage> messages = new ArrayList<>(2);
+        // Providers reject requests without a user turn
+        if (content.isBlank()) {
+            messages.add(UserMessage.from(instructions));
+            return messages;
+        }
+        if (!instructions.isBlank()) {
+            messages.add(SystemMessage.from(instructions));
+        }
+        messages.add(UserMessage.from(content));
+        return messages;
+    }
+}
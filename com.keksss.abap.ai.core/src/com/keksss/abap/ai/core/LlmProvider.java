@@ -4,19 +4,21 @@ package com.keksss.abap.ai.core;
  * Enumeration of supported LLM providers
  */
 public enum LlmProvider {
-    GOOGLE_AI("Google AI (Gemini)", true, false),
-    OPENAI("OpenAI", true, false),
-    ANTHROPIC("Anthropic (Claude)", true, false),
-    OLLAMA("Ollama (Local)", false, true);
+    GOOGLE_AI("Google AI (Gemini)", true, false, "https://generativelanguage.googleapis.com/v1beta"),
+    OPENAI("OpenAI", true, true, "https://api.openai.com/v1"),
+    ANTHROPIC("Anthropic (Claude)", true, true, "https://api.anthropic.com/v1"),
+    OLLAMA("Ollama (Local)", false, true, "http://localhost:11434");
 
     private final String displayName;
     private final boolean requiresApiKey;
     private final boolean supportsBaseUrl;
+    private final String defaultBaseUrl;
 
-    LlmProvider(String displayName, boolean requiresApiKey, boolean supportsBaseUrl) {
+    LlmProvider(String displayName, boolean requiresApiKey, boolean supportsBaseUrl, String defaultBaseUrl) {
         this.displayName = displayName;
         this.requiresApiKey = requiresApiKey;
         this.supportsBaseUrl = supportsBaseUrl;
+        this.defaultBaseUrl = defaultBaseUrl;
     }
 
     /**
@@ -40,6 +42,27 @@ public enum LlmProvider {
         return supportsBaseUrl;
     }
 
+    /**
+     * Get the API endpoint used when no base URL is configured
+     */
+    public String getDefaultBaseUrl() {
+        return defaultBaseUrl;
+    }
+
+    /**
+     * Get the configured base URL, or the default endpoint if none is set.
+     * Custom URLs are only honored by providers that support them.
+     *
+     * @param configuredBaseUrl base URL from the configuration, may be null
+     * @return base URL without trailing slash
+     */
+    public String resolveBaseUrl(String configuredBaseUrl) {
+        String baseUrl = supportsBaseUrl && configuredBaseUrl != null && !configuredBaseUrl.trim().isEmpty()
+                ? configuredBaseUrl.trim()
+                : defaultBaseUrl;
+        return baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
     /**
      * Convert string to LlmProvider enum
      * 
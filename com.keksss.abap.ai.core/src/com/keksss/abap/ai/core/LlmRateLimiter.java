@@ -0,0 +1,240 @@
+package com.keksss.abap.ai.core;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Token bucket limiter shared by all requests to one provider. Two buckets
+ * are kept, requests per minute and tokens per minute; each refills
+ * continuously up to its limit. Callers reserve capacity up front and wait
+ * until the reservation is covered, so concurrent analyses queue up fairly
+ * instead of running into the provider's rate limit. After a 429 the whole
+ * provider is paused for the time the server asked for.
+ * <p>
+ * Background work such as pre-analysis yields to interactive analyses: it
+ * waits while an interactive request is waiting for capacity and leaves a
+ * share of each bucket unused, so an analysis the user asked for can start
+ * at once.
+ */
+public final class LlmRateLimiter {
+
+    private static final Map<LlmProvider, LlmRateLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    /** Share of each bucket background requests leave to interactive ones */
+    static final double INTERACTIVE_RESERVE = 0.25;
+
+    /** Interval in which waiting background requests check again */
+    private static final long BACKGROUND_POLL_MS = 250;
+
+    /** Set while the current thread runs background work */
+    private static final ThreadLocal<Boolean> BACKGROUND = new ThreadLocal<>();
+
+    private double requestBalance;
+    private double tokenBalance;
+    private int requestsPerMinute;
+    private int tokensPerMinute;
+    private long lastRefill = System.currentTimeMillis();
+    private long pausedUntil;
+    private int interactiveWaiting;
+
+    private LlmRateLimiter() {
+    }
+
+    /**
+     * Get the limiter of a provider
+     *
+     * @param provider LLM provider
+     * @return LlmRateLimiter shared by all requests to the provider
+     */
+    public static LlmRateLimiter forProvider(LlmProvider provider) {
+        return LIMITERS.computeIfAbsent(provider, p -> new LlmRateLimiter());
+    }
+
+    /**
+     * Runs work whose requests yield to interactive ones
+     *
+     * @param work work sending requests on the current thread
+     * @return result of the work
+     */
+    static <T> T inBackground(Supplier<T> work) {
+        Boolean outer = BACKGROUND.get();
+        BACKGROUND.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            BACKGROUND.set(outer);
+        }
+    }
+
+    /**
+     * Waits until the request fits into the configured limits
+     *
+     * @param requestsPerMinute request limit, 0 for unlimited
+     * @param tokensPerMinute   token limit, 0 for unlimited
+     * @param tokens            tokens the request is expected to use
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquire(int requestsPerMinute, int tokensPerMinute, int tokens) throws InterruptedException {
+        long wait = reserve(requestsPerMinute, tokensPerMinute, tokens, System.currentTimeMillis());
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+    }
+
+    /**
+     * Waits until the request fits into the configured limits or the request
+     * is cancelled. A cancelled request hands its reservation back.
+     *
+     * @param requestsPerMinute request limit, 0 for unlimited
+     * @param tokensPerMinute   token limit, 0 for unlimited
+     * @param tokens            tokens the request is expected to use
+     * @param cancellation      token of the request
+     * @throws CancellationException if cancelled before or while waiting
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquire(int requestsPerMinute, int tokensPerMinute, int tokens, CancellationToken cancellation)
+            throws InterruptedException {
+        cancellation.throwIfCancelled();
+        if (Boolean.TRUE.equals(BACKGROUND.get())) {
+            acquireBackground(requestsPerMinute, tokensPerMinute, tokens, cancellation);
+            return;
+        }
+        long wait = reserve(requestsPerMinute, tokensPerMinute, tokens, System.currentTimeMillis());
+        if (wait <= 0) {
+            return;
+        }
+        synchronized (this) {
+            interactiveWaiting++;
+        }
+        try {
+            cancellation.sleep(wait);
+        } catch (CancellationException e) {
+            release(requestsPerMinute, tokensPerMinute, tokens, System.currentTimeMillis());
+            throw e;
+        } finally {
+            synchronized (this) {
+                interactiveWaiting--;
+            }
+        }
+    }
+
+    /**
+     * Waits until no interactive request is waiting and the request fits
+     * without using the interactive reserve. Nothing is reserved while
+     * waiting, so interactive requests arriving meanwhile go first.
+     */
+    private void acquireBackground(int requestsPerMinute, int tokensPerMinute, int tokens,
+            CancellationToken cancellation) throws InterruptedException {
+        long wait;
+        while ((wait = tryReserveBackground(requestsPerMinute, tokensPerMinute, tokens,
+                System.currentTimeMillis())) > 0) {
+            cancellation.sleep(wait);
+        }
+    }
+
+    /**
+     * Pauses all requests to the provider, e.g. for the Retry-After time of
+     * a 429 response
+     *
+     * @param millis pause in milliseconds
+     */
+    public synchronized void pause(long millis) {
+        pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + millis);
+    }
+
+    /**
+     * Deducts the request from both buckets and returns how long the caller
+     * has to wait until the balance is covered again
+     */
+    synchronized long reserve(int requestsPerMinute, int tokensPerMinute, int tokens, long now) {
+        refill(now);
+        applyLimits(requestsPerMinute, tokensPerMinute);
+
+        long wait = Math.max(0, pausedUntil - now);
+        if (requestsPerMinute > 0) {
+            requestBalance -= 1;
+            wait = Math.max(wait, deficit(requestBalance, requestsPerMinute));
+        }
+        if (tokensPerMinute > 0) {
+            // A request larger than the whole bucket waits for a full bucket only
+            tokenBalance -= Math.min(tokens, tokensPerMinute);
+            wait = Math.max(wait, deficit(tokenBalance, tokensPerMinute));
+        }
+        return wait;
+    }
+
+    /**
+     * Deducts a background request from both buckets if it leaves the
+     * interactive reserve untouched
+     *
+     * @return 0 if reserved, otherwise how long to wait before trying again
+     */
+    synchronized long tryReserveBackground(int requestsPerMinute, int tokensPerMinute, int tokens, long now) {
+        refill(now);
+        applyLimits(requestsPerMinute, tokensPerMinute);
+        if (interactiveWaiting > 0) {
+            return BACKGROUND_POLL_MS;
+        }
+
+        long wait = Math.max(0, pausedUntil - now);
+        int requestCost = requestsPerMinute > 0 ? 1 : 0;
+        int tokenCost = tokensPerMinute > 0 ? Math.min(tokens, tokensPerMinute) : 0;
+        if (requestsPerMinute > 0) {
+            double needed = Math.min(requestsPerMinute, requestCost + requestsPerMinute * INTERACTIVE_RESERVE);
+            wait = Math.max(wait, deficit(requestBalance - needed, requestsPerMinute));
+        }
+        if (tokensPerMinute > 0) {
+            double needed = Math.min(tokensPerMinute, tokenCost + tokensPerMinute * INTERACTIVE_RESERVE);
+            wait = Math.max(wait, deficit(tokenBalance - needed, tokensPerMinute));
+        }
+        if (wait > 0) {
+            return wait;
+        }
+        requestBalance -= requestCost;
+        tokenBalance -= tokenCost;
+        return 0;
+    }
+
+    /**
+     * Returns the reservation of a request that was not sent
+     */
+    synchronized void release(int requestsPerMinute, int tokensPerMinute, int tokens, long now) {
+        refill(now);
+        if (requestsPerMinute > 0 && requestsPerMinute == this.requestsPerMinute) {
+            requestBalance = Math.min(requestsPerMinute, requestBalance + 1);
+        }
+        if (tokensPerMinute > 0 && tokensPerMinute == this.tokensPerMinute) {
+            tokenBalance = Math.min(tokensPerMinute, tokenBalance + Math.min(tokens, tokensPerMinute));
+        }
+    }
+
+    private void applyLimits(int requestsPerMinute, int tokensPerMinute) {
+        // A newly enabled limit starts with a full bucket
+        if (requestsPerMinute != this.requestsPerMinute) {
+            requestBalance = this.requestsPerMinute == 0 ? requestsPerMinute
+                    : Math.min(requestBalance, requestsPerMinute);
+            this.requestsPerMinute = requestsPerMinute;
+        }
+        if (tokensPerMinute != this.tokensPerMinute) {
+            tokenBalance = this.tokensPerMinute == 0 ? tokensPerMinute : Math.min(tokenBalance, tokensPerMinute);
+            this.tokensPerMinute = tokensPerMinute;
+        }
+    }
+
+    private void refill(long now) {
+        long elapsed = Math.max(0, now - lastRefill);
+        lastRefill = now;
+        if (requestsPerMinute > 0) {
+            requestBalance = Math.min(requestsPerMinute, requestBalance + elapsed * requestsPerMinute / 60_000.0);
+        }
+        if (tokensPerMinute > 0) {
+            tokenBalance = Math.min(tokensPerMinute, tokenBalance + elapsed * tokensPerMinute / 60_000.0);
+        }
+    }
+
+    private static long deficit(double balance, int perMinute) {
+        return balance < 0 ? (long) Math.ceil(-balance * 60_000.0 / perMinute) : 0;
+    }
+}
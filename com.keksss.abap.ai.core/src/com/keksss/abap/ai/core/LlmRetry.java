@@ -0,0 +1,188 @@
+package com.keksss.abap.ai.core;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import dev.ai4j.openai4j.OpenAiHttpException;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.model.anthropic.internal.client.AnthropicHttpException;
+
+/**
+ * Retry policy for LLM calls. Every attempt first passes the provider's
+ * {@link LlmRateLimiter}; rate limit and overload responses are retried with
+ * jittered exponential backoff, or after the delay the server asked for.
+ * Provider SDKs do not expose response headers, so Retry-After is also
+ * recognized in the retry hints providers put into their error messages.
+ */
+final class LlmRetry {
+
+    static final int MAX_RETRIES = 3;
+    static final long BASE_DELAY_MS = 1_000;
+    static final long MAX_DELAY_MS = 30_000;
+
+    /** Servers asking for a longer pause fail fast instead of blocking the analysis */
+    static final long MAX_RETRY_AFTER_MS = 120_000;
+
+    private static final Pattern STATUS_IN_MESSAGE = Pattern.compile("HTTP error \\((\\d{3})\\)");
+    private static final Pattern RETRY_AFTER_HEADER = Pattern.compile("(?i)retry-after\\W+(\\d+(?:\\.\\d+)?)");
+    private static final Pattern RETRY_DELAY_FIELD = Pattern.compile("\"retryDelay\"\\s*:\\s*\"(\\d+(?:\\.\\d+)?)s\"");
+    private static final Pattern TRY_AGAIN_IN = Pattern.compile("(?i)try again in (\\d+(?:\\.\\d+)?)\\s*(ms|s)");
+
+    private LlmRetry() {
+    }
+
+    /**
+     * Runs a call with rate limiting and retries
+     *
+     * @param config       configuration of the called provider
+     * @param tokens       tokens the call is expected to use
+     * @param retryAllowed checked before each retry, e.g. false once streamed
+     *                     output was shown
+     * @param cancellation aborts waiting for the limiter and between attempts
+     * @param call         the call
+     * @return result of the call
+     * @throws java.util.concurrent.CancellationException if cancelled
+     * @throws Exception the last failure; a CoreAiException if retries are exhausted
+     */
+    static <T> T call(LlmConfig config, int tokens, BooleanSupplier retryAllowed, CancellationToken cancellation,
+            Callable<T> call) throws Exception {
+        LlmRateLimiter limiter = LlmRateLimiter.forProvider(config.getProvider());
+        for (int attempt = 0;; attempt++) {
+            limiter.acquire(config.getRequestsPerMinute(), config.getTokensPerMinute(), tokens, cancellation);
+            try {
+                return call.call();
+            } catch (Exception e) {
+                int status = statusCode(e);
+                if (cancellation.isCancelled() || !isRetryable(status) || !retryAllowed.getAsBoolean()) {
+                    throw e;
+                }
+                long delay = retryDelay(e, attempt);
+                if (status == 429) {
+                    limiter.pause(delay);
+                }
+                if (attempt >= MAX_RETRIES || delay > MAX_RETRY_AFTER_MS) {
+                    throw new CoreAiException(config.getProvider(), "HTTP " + status + " persisted after "
+                            + (attempt + 1) + " attempts: " + HttpTransport.describe(e), e);
+                }
+                System.err.println("LLM call failed with HTTP " + status + ", retrying in " + delay + " ms");
+                cancellation.sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Waits for the rate limiter without retrying, for callers that handle
+     * failures themselves
+     */
+    static void acquire(LlmConfig config, int tokens, CancellationToken cancellation) throws InterruptedException {
+        LlmRateLimiter.forProvider(config.getProvider())
+                .acquire(config.getRequestsPerMinute(), config.getTokensPerMinute(), tokens, cancellation);
+    }
+
+    /**
+     * Pauses the provider's limiter if the failure was a 429
+     */
+    static void onFailure(LlmConfig config, Throwable error) {
+        if (statusCode(error) == 429) {
+            LlmRateLimiter.forProvider(config.getProvider()).pause(retryDelay(error, 0));
+        }
+    }
+
+    /**
+     * Tokens a prompt is expected to use: the prompt itself plus the maximum
+     * answer length
+     */
+    static int estimateTokens(LlmConfig config, LlmPrompt prompt) {
+        if (config.getTokensPerMinute() <= 0) {
+            return 0;
+        }
+        return TokenCounter.forConfig(config).count(prompt.getText()) + config.getMaxTokens();
+    }
+
+    static boolean isRetryable(int status) {
+        return status == 408 || status == 429 || status == 500 || status == 502 || status == 503
+                || status == 504 || status == 529;
+    }
+
+    /**
+     * Extracts the HTTP status of a provider failure
+     *
+     * @return status code, or -1 if the failure carries none
+     */
+    static int statusCode(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpTransport.HttpStatusException) {
+                return ((HttpTransport.HttpStatusException) cause).getStatusCode();
+            }
+            if (cause instanceof HttpException) {
+                return ((HttpException) cause).statusCode();
+            }
+            if (cause instanceof OpenAiHttpException) {
+                return ((OpenAiHttpException) cause).code();
+            }
+            if (cause instanceof AnthropicHttpException && ((AnthropicHttpException) cause).statusCode() != null) {
+                return ((AnthropicHttpException) cause).statusCode();
+            }
+            if (cause.getMessage() != null) {
+                // Gemini reports "HTTP error (429): ..."
+                Matcher matcher = STATUS_IN_MESSAGE.matcher(cause.getMessage());
+                if (matcher.find()) {
+                    return Integer.parseInt(matcher.group(1));
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Delay before the next attempt: the server's retry hint if there is one,
+     * otherwise exponential backoff with equal jitter
+     */
+    static long retryDelay(Throwable error, int attempt) {
+        long retryAfter = retryAfterMillis(error);
+        if (retryAfter >= 0) {
+            // Small jitter so waiting clients do not all return at once
+            return retryAfter + ThreadLocalRandom.current().nextLong(250);
+        }
+        long ceiling = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << Math.min(attempt, 16));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    /**
+     * @return delay requested by the server in milliseconds, or -1 if none
+     */
+    static long retryAfterMillis(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpTransport.HttpStatusException
+                    && ((HttpTransport.HttpStatusException) cause).getRetryAfterMillis() >= 0) {
+                return ((HttpTransport.HttpStatusException) cause).getRetryAfterMillis();
+            }
+            String message = cause.getMessage();
+            if (message != null) {
+                Matcher matcher = RETRY_AFTER_HEADER.matcher(message);
+                if (matcher.find()) {
+                    return (long) (Double.parseDouble(matcher.group(1)) * 1000);
+                }
+                matcher = RETRY_DELAY_FIELD.matcher(message);
+                if (matcher.find()) {
+                    return (long) (Double.parseDouble(matcher.group(1)) * 1000);
+                }
+                matcher = TRY_AGAIN_IN.matcher(message);
+                if (matcher.find()) {
+                    double value = Double.parseDouble(matcher.group(1));
+                    return (long) (matcher.group(2).equalsIgnoreCase("ms") ? value : value * 1000);
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return -1;
+    }
+}
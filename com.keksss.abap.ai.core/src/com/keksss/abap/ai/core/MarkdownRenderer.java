@@ -0,0 +1,355 @@
+package com.keksss.abap.ai.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders the Markdown that models answer with when they do not return an
+ * HTML document. Covers what analyses use in practice: headings, paragraphs,
+ * lists, fenced code, block quotes, tables, rules, emphasis, inline code and
+ * links. All text is escaped; only http(s) links are turned into anchors.
+ * Runs in a single pass over the lines and is meant to be called off the UI
+ * thread.
+ */
+public final class MarkdownRenderer {
+
+    /** Style sheet for the elements produced by {@link #toHtml(String)} */
+    public static final String STYLE = ".md h1, .md h2, .md h3, .md h4, .md h5, .md h6 { margin: 15px 0 5px 0; }"
+            + ".md h1 { font-size: 1.3em; } .md h2 { font-size: 1.2em; } .md h3 { font-size: 1.1em; }"
+            + ".md h4, .md h5, .md h6 { font-size: 1em; }"
+            + ".md p { margin: 5px 0; } .md ul, .md ol { margin: 5px 0; padding-left: 25px; }"
+            + ".md pre { background-color: #f0f0f0; border: 1px solid #ddd; border-radius: 3px; padding: 8px; overflow-x: auto; }"
+            + ".md code { font-family: monospace; } .md :not(pre) > code { background-color: #f0f0f0; padding: 0 3px; }"
+            + ".md blockquote { border-left: 3px solid #ccc; margin: 5px 0; padding-left: 10px; color: #555; }"
+            + ".md table { border-collapse: collapse; margin: 5px 0; }"
+            + ".md th, .md td { border: 1px solid #ccc; padding: 4px 8px; text-align: left; }"
+            + ".md hr { border: none; border-top: 1px solid #ccc; }";
+
+    private static final Pattern HEADING = Pattern.compile("^ {0,3}(#{1,6})\\s+(.*?)(\\s+#+)?\\s*$");
+    private static final Pattern FENCE = Pattern.compile("^ {0,3}(`{3,}|~{3,})\\s*([\\w+#.-]*).*$");
+    private static final Pattern RULE = Pattern.compile("^ {0,3}([-*_])(\\s*\\1){2,}\\s*$");
+    private static final Pattern UNORDERED_ITEM = Pattern.compile("^\\s*[-*+]\\s+(.*)$");
+    private static final Pattern ORDERED_ITEM = Pattern.compile("^\\s*(\\d{1,9})[.)]\\s+(.*)$");
+    private static final Pattern QUOTE = Pattern.compile("^ {0,3}>\\s?(.*)$");
+    private static final Pattern TABLE_DELIMITER = Pattern.compile("^\\s*\\|?\\s*:?-+:?\\s*(\\|\\s*:?-+:?\\s*)*\\|?\\s*$");
+
+    private static final Pattern LINK = Pattern.compile("\\[([^\\]]+)\\]\\((https?://[^)\\s]+)\\)");
+    private static final Pattern STRONG = Pattern.compile("\\*\\*(?=\\S)(.+?)(?<=\\S)\\*\\*|__(?=\\S)(.+?)(?<=\\S)__");
+    private static final Pattern EMPHASIS = Pattern
+            .compile("(?<![*\\w])\\*(?=[^\\s*])(.+?)(?<=[^\\s*])\\*(?![*\\w])|(?<![_\\w])_(?=[^\\s_])(.+?)(?<=[^\\s_])_(?![_\\w])");
+
+    private MarkdownRenderer() {
+    }
+
+    /**
+     * Converts Markdown to an HTML fragment wrapped in a {@code div} with
+     * class {@code md}, which {@link #STYLE} applies to
+     *
+     * @param markdown Markdown text, may be null
+     * @return HTML fragment
+     */
+    public static String toHtml(String markdown) {
+        if (markdown == null || markdown.isEmpty()) {
+            return "";
+        }
+        String[] lines = markdown.split("\r?\n", -1);
+        StringBuilder html = new StringBuilder(markdown.length() + markdown.length() / 4 + 32);
+        html.append("<div class='md'>");
+        renderBlocks(lines, 0, lines.length, html);
+        return html.append("</div>").toString();
+    }
+
+    /**
+     * Escapes text for use in HTML content and attribute values
+     *
+     * @param text text, may be null
+     * @return escaped text
+     */
+    public static String escapeHtml(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            String replacement;
+            switch (text.charAt(i)) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                case '\'':
+                    replacement = "&#39;";
+                    break;
+                default:
+                    if (sb != null) {
+                        sb.append(text.charAt(i));
+                    }
+                    continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            sb.append(replacement);
+        }
+        return sb != null ? sb.toString() : text;
+    }
+
+    private static void renderBlocks(String[] lines, int from, int to, StringBuilder html) {
+        int i = from;
+        while (i < to) {
+            String line = lines[i];
+            if (line.isBlank()) {
+                i++;
+                continue;
+            }
+            Matcher matcher = FENCE.matcher(line);
+            if (matcher.matches()) {
+                i = renderCode(lines, i, to, matcher.group(1), matcher.group(2), html);
+                continue;
+            }
+            matcher = HEADING.matcher(line);
+            if (matcher.matches()) {
+                int level = matcher.group(1).length();
+                html.append("<h").append(level).append('>').append(inline(matcher.group(2)))
+                        .append("</h").append(level).append('>');
+                i++;
+                continue;
+            }
+            if (RULE.matcher(line).matches()) {
+                html.append("<hr/>");
+                i++;
+                continue;
+            }
+            if (QUOTE.matcher(line).matches()) {
+                i = renderQuote(lines, i, to, html);
+                continue;
+            }
+            if (isTableStart(lines, i, to)) {
+                i = renderTable(lines, i, to, html);
+                continue;
+            }
+            if (UNORDERED_ITEM.matcher(line).matches() || ORDERED_ITEM.matcher(line).matches()) {
+                i = renderList(lines, i, to, html);
+                continue;
+            }
+            i = renderParagraph(lines, i, to, html);
+        }
+    }
+
+    private static int renderCode(String[] lines, int start, int to, String fence, String language,
+            StringBuilder html) {
+        html.append("<pre><code");
+        if (!language.isEmpty()) {
+            html.append(" class='language-").append(escapeHtml(language.toLowerCase())).append('\'');
+        }
+        html.append('>');
+        int i = start + 1;
+        // An unterminated fence runs to the end, as in a truncated answer
+        for (; i < to; i++) {
+            String trimmed = lines[i].trim();
+            if (trimmed.startsWith(fence) && trimmed.chars().allMatch(c -> c == fence.charAt(0))) {
+                i++;
+                break;
+            }
+            if (i > start + 1) {
+                html.append('\n');
+            }
+            html.append(escapeHtml(lines[i]));
+        }
+        html.append("</code></pre>");
+        return i;
+    }
+
+    private static int renderQuote(String[] lines, int start, int to, StringBuilder html) {
+        List<String> quoted = new ArrayList<>();
+        int i = start;
+        for (; i < to; i++) {
+            Matcher matcher = QUOTE.matcher(lines[i]);
+            if (!matcher.matches()) {
+                break;
+            }
+            quoted.add(matcher.group(1));
+        }
+        html.append("<blockquote>");
+        renderBlocks(quoted.toArray(new String[0]), 0, quoted.size(), html);
+        html.append("</blockquote>");
+        return i;
+    }
+
+    private static boolean isTableStart(String[] lines, int i, int to) {
+        return i + 1 < to && lines[i].indexOf('|') >= 0 && lines[i + 1].indexOf('-') >= 0
+                && TABLE_DELIMITER.matcher(lines[i + 1]).matches();
+    }
+
+    private static int renderTable(String[] lines, int start, int to, StringBuilder html) {
+        html.append("<table><thead><tr>");
+        for (String cell : cells(lines[start])) {
+            html.append("<th>").append(inline(cell)).append("</th>");
+        }
+        html.append("</tr></thead><tbody>");
+        int i = start + 2;
+        for (; i < to && !lines[i].isBlank() && lines[i].indexOf('|') >= 0; i++) {
+            html.append("<tr>");
+            for (String cell : cells(lines[i])) {
+                html.append("<td>").append(inline(cell)).append("</td>");
+            }
+            html.append("</tr>");
+        }
+        html.append("</tbody></table>");
+        return i;
+    }
+
+    private static List<String> cells(String row) {
+        String trimmed = row.trim();
+        if (trimmed.startsWith("|")) {
+            trimmed = trimmed.substring(1);
+        }
+        if (trimmed.endsWith("|") && !trimmed.endsWith("\\|")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        List<String> cells = new ArrayList<>();
+        for (String cell : trimmed.split("(?<!\\\\)\\|", -1)) {
+            cells.add(cell.trim().replace("\\|", "|"));
+        }
+        return cells;
+    }
+
+    /**
+     * Renders consecutive items of one list type. Nested items are flattened
+     * into the same list; indented lines continue the current item.
+     */
+    private static int renderList(String[] lines, int start, int to, StringBuilder html) {
+        boolean ordered = ORDERED_ITEM.matcher(lines[start]).matches();
+        Pattern itemPattern = ordered ? ORDERED_ITEM : UNORDERED_ITEM;
+        if (ordered) {
+            Matcher first = ORDERED_ITEM.matcher(lines[start]);
+            first.matches();
+            String number = first.group(1).replaceFirst("^0+(?=\\d)", "");
+            html.append(number.equals("1") ? "<ol>" : "<ol start='" + number + "'>");
+        } else {
+            html.append("<ul>");
+        }
+        int i = start;
+        boolean itemOpen = false;
+        while (i < to) {
+            String line = lines[i];
+            Matcher item = itemPattern.matcher(line);
+            if (item.matches() && !RULE.matcher(line).matches()) {
+                if (itemOpen) {
+                    html.append("</li>");
+                }
+                html.append("<li>").append(inline(item.group(ordered ? 2 : 1)));
+                itemOpen = true;
+                i++;
+            } else if (line.isBlank()) {
+                // A blank line only continues the list if another item follows
+                int next = i + 1;
+                while (next < to && lines[next].isBlank()) {
+                    next++;
+                }
+                if (next < to && itemPattern.matcher(lines[next]).matches()) {
+                    i = next;
+                } else {
+                    break;
+                }
+            } else if (Character.isWhitespace(line.charAt(0)) && !startsBlock(line)) {
+                html.append("<br/>").append(inline(line.trim()));
+                i++;
+            } else {
+                break;
+            }
+        }
+        if (itemOpen) {
+            html.append("</li>");
+        }
+        html.append(ordered ? "</ol>" : "</ul>");
+        return i;
+    }
+
+    /**
+     * Renders lines up to the next blank line or block start. Line breaks
+     * are kept, since answers use them for layout rather than wrapping.
+     */
+    private static int renderParagraph(String[] lines, int start, int to, StringBuilder html) {
+        html.append("<p>");
+        int i = start;
+        for (; i < to; i++) {
+            String line = lines[i];
+            if (line.isBlank() || (i > start && (startsBlock(line) || isTableStart(lines, i, to)))) {
+                break;
+            }
+            if (i > start) {
+                html.append("<br/>");
+            }
+            html.append(inline(line.trim()));
+        }
+        html.append("</p>");
+        return i;
+    }
+
+    private static boolean startsBlock(String line) {
+        // Most lines are prose; only run the patterns if the first character can start a block
+        int first = 0;
+        while (first < line.length() && Character.isWhitespace(line.charAt(first))) {
+            first++;
+        }
+        if (first == line.length() || "#`~-*_+>".indexOf(line.charAt(first)) < 0
+                && !Character.isDigit(line.charAt(first))) {
+            return false;
+        }
+        return FENCE.matcher(line).matches() || HEADING.matcher(line).matches() || RULE.matcher(line).matches()
+                || QUOTE.matcher(line).matches() || UNORDERED_ITEM.matcher(line).matches()
+                || ORDERED_ITEM.matcher(line).matches();
+    }
+
+    /**
+     * Renders inline markup. Code spans are cut out first so their content
+     * is shown literally.
+     */
+    private static String inline(String text) {
+        if (text.isEmpty()) {
+            return text;
+        }
+        StringBuilder html = new StringBuilder(text.length() + 16);
+        int position = 0;
+        while (position < text.length()) {
+            int open = text.indexOf('`', position);
+            int close = open >= 0 ? text.indexOf('`', open + 1) : -1;
+            if (close < 0) {
+                html.append(formatText(text.substring(position)));
+                break;
+            }
+            html.append(formatText(text.substring(position, open)))
+                    .append("<code>").append(escapeHtml(text.substring(open + 1, close))).append("</code>");
+            position = close + 1;
+        }
+        return html.toString();
+    }
+
+    private static String formatText(String text) {
+        if (text.isEmpty()) {
+            return text;
+        }
+        String html = escapeHtml(text);
+        if (html.indexOf('[') >= 0) {
+            html = LINK.matcher(html).replaceAll("<a href=\"$2\">$1</a>");
+        }
+        if (html.indexOf('*') >= 0 || html.indexOf('_') >= 0) {
+            html = STRONG.matcher(html).replaceAll(match -> "<b>"
+                    + Matcher.quoteReplacement(match.group(1) != null ? match.group(1) : match.group(2)) + "</b>");
+            html = EMPHASIS.matcher(html).replaceAll(match -> "<i>"
+                    + Matcher.quoteReplacement(match.group(1) != null ? match.group(1) : match.group(2)) + "</i>");
+        }
+        return html;
+    }
+}
@@ -0,0 +1,108 @@
+package com.keksss.abap.ai.core;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the HTML of the performance view from {@link AnalysisMetrics}: one
+ * row per provider and model with call counts, latency percentiles per phase
+ * and token usage.
+ */
+public final class MetricsHtmlBuilder {
+
+    private static final String PAGE_STYLE = "body { font-family: sans-serif; padding: 10px; font-size: 0.9em; }" +
+            ".header { color: #555; margin-bottom: 15px; }" +
+            "table { border-collapse: collapse; }" +
+            "th, td { border: 1px solid #ccc; padding: 4px 8px; text-align: right; white-space: nowrap; }" +
+            "th { background-color: #f0f0f0; }" +
+            "td.name, td.error { text-align: left; }" +
+            "td.error { color: #a00; white-space: normal; max-width: 300px; }" +
+            ".note { margin-top: 15px; color: #666; }";
+
+    private static final String EMPTY = "&ndash;";
+
+    private MetricsHtmlBuilder() {
+    }
+
+    /**
+     * Style sheet of the dashboard; it does not depend on the values shown
+     *
+     * @return CSS
+     */
+    public static String dashboardStyle() {
+        return PAGE_STYLE;
+    }
+
+    /**
+     * Builds the body of the dashboard page
+     *
+     * @param models statistics per provider and model
+     * @return body markup, to be shown with {@link #dashboardStyle()}
+     */
+    public static String dashboardContent(List<AnalysisMetrics.ModelMetrics> models) {
+        if (models.isEmpty()) {
+            return "<div class='header'>No AI calls recorded in this session yet.</div>";
+        }
+
+        StringBuilder html = new StringBuilder("<div class='header'>AI call statistics of this session. "
+                + "Latencies are p50 / p95 / p99 / max, tokens are per response as reported by the provider.</div>");
+        html.append("<table><tr><th>Provider / Model</th><th>Responses</th><th>Failures</th><th>Cache hits</th>");
+        for (AnalysisMetrics.Phase phase : AnalysisMetrics.Phase.values()) {
+            html.append("<th>").append(phase.getDisplayName()).append("</th>");
+        }
+        html.append("<th>Input tokens<br>avg / total</th><th>Output tokens<br>avg / total</th><th>Last error</th></tr>");
+
+        for (AnalysisMetrics.ModelMetrics model : models) {
+            html.append("<tr><td class='name'>").append(escape(model.getProvider().getDisplayName()))
+                    .append("<br><b>").append(escape(model.getModel())).append("</b></td>")
+                    .append("<td>").append(model.getResponses()).append("</td>")
+                    .append("<td>").append(model.getFailures()).append("</td>")
+                    .append("<td>").append(model.getCacheHits()).append("</td>");
+            for (AnalysisMetrics.Phase phase : AnalysisMetrics.Phase.values()) {
+                html.append("<td>").append(latency(model.getLatency(phase))).append("</td>");
+            }
+            html.append("<td>").append(tokens(model.getInputTokens()));
+            if (model.getCachedInputTokens().getSum() > 0) {
+                html.append("<br><small>").append(model.getCachedInputTokens().getSum()).append(" cached</small>");
+            }
+            html.append("</td>")
+                    .append("<td>").append(tokens(model.getOutputTokens())).append("</td>")
+                    .append("<td class='error'>")
+                    .append(model.getLastError() != null ? escape(model.getLastError()) : "")
+                    .append("</td></tr>");
+        }
+        html.append("</table>");
+        html.append("<div class='note'>Total covers the whole analysis of uncached requests, "
+                + "including prompt build, rate limiting and retries.</div>");
+        return html.toString();
+    }
+
+    private static String latency(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return EMPTY;
+        }
+        return duration(histogram.getValueAtPercentile(50)) + " / "
+                + duration(histogram.getValueAtPercentile(95)) + " / "
+                + duration(histogram.getValueAtPercentile(99)) + " / "
+                + duration(histogram.getMax())
+                + "<br><small>" + histogram.getCount() + " samples</small>";
+    }
+
+    private static String tokens(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return EMPTY;
+        }
+        return Math.round(histogram.getMean()) + " / " + histogram.getSum();
+    }
+
+    private static String duration(long millis) {
+        if (millis < 1000) {
+            return millis + " ms";
+        }
+        return String.format(Locale.ROOT, "%.1f s", millis / 1000.0);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,228 @@
+package com.keksss.abap.ai.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Per-provider cache of available model names.
+ * Lists are persisted to the core bundle's state location so they are shown
+ * instantly (and offline) in later sessions. Stale lists are still served
+ * while a background refresh fetches a new one (stale-while-revalidate);
+ * concurrent refreshes of the same provider share one request.
+ */
+public class ModelCatalog {
+
+    private static final String CATALOG_FILE = "model-catalog.json";
+
+    /** Local Ollama installs change often, hosted model lists rarely */
+    private static final Duration LOCAL_TTL = Duration.ofMinutes(10);
+    private static final Duration HOSTED_TTL = Duration.ofHours(24);
+
+    private static final ModelCatalog INSTANCE = new ModelCatalog();
+
+    private final Gson gson = new Gson();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<List<String>>> refreshes = new ConcurrentHashMap<>();
+    private boolean loaded;
+
+    private ModelCatalog() {
+    }
+
+    /**
+     * Get the shared catalog instance
+     *
+     * @return ModelCatalog
+     */
+    public static ModelCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cached model list without touching the network
+     *
+     * @param config provider configuration
+     * @return cached model names, possibly stale; empty if never fetched
+     */
+    public List<String> getCachedModels(LlmConfig config) {
+        ensureLoaded();
+        Entry entry = entries.get(key(config));
+        return entry != null ? Collections.unmodifiableList(entry.models) : Collections.emptyList();
+    }
+
+    /**
+     * Returns when the cached list was fetched
+     *
+     * @param config provider configuration
+     * @return epoch milliseconds, or 0 if the provider was never fetched
+     */
+    public long getFetchedAt(LlmConfig config) {
+        ensureLoaded();
+        Entry entry = entries.get(key(config));
+        return entry != null ? entry.fetchedAt : 0L;
+    }
+
+    /**
+     * Checks whether the cached list is missing or older than the provider's TTL
+     *
+     * @param config provider configuration
+     * @return true if a refresh is due
+     */
+    public boolean isStale(LlmConfig config) {
+        long fetchedAt = getFetchedAt(config);
+        return fetchedAt == 0L
+                || System.currentTimeMillis() - fetchedAt > ttl(config.getProvider()).toMillis();
+    }
+
+    /**
+     * Fetches the model list from the provider and updates the catalog. A
+     * refresh already in flight for the same provider is reused.
+     *
+     * @param config provider configuration including credentials
+     * @return future completed with the fresh list, or exceptionally with a
+     *         CoreAiException; the cached list is kept on failure
+     */
+    public CompletableFuture<List<String>> refresh(LlmConfig config) {
+        ensureLoaded();
+        String key = key(config);
+        CompletableFuture<List<String>> created = new CompletableFuture<>();
+        CompletableFuture<List<String>> running = refreshes.putIfAbsent(key, created);
+        if (running != null) {
+            return running;
+        }
+
+        new LlmClient().fetchAvailableModelsAsync(config).whenComplete((models, error) -> {
+            refreshes.remove(key, created);
+            if (error != null) {
+                created.completeExceptionally(HttpTransport.unwrap(error));
+                return;
+            }
+            entries.put(key, new Entry(config.getProvider().name(), System.currentTimeMillis(), models));
+            save();
+            created.complete(models);
+        });
+        return created;
+    }
+
+    /**
+     * Returns the cached list if it is fresh, otherwise refreshes it
+     *
+     * @param config provider configuration including credentials
+     * @return future completed with the model list
+     */
+    public CompletableFuture<List<String>> revalidate(LlmConfig config) {
+        if (!isStale(config)) {
+            return CompletableFuture.completedFuture(getCachedModels(config));
+        }
+        return refresh(config);
+    }
+
+    /**
+     * Refreshes all stale providers in parallel. Failures are logged and leave
+     * the respective cached list in place.
+     *
+     * @param configs configurations of the providers to check
+     * @return future completed when every refresh has finished
+     */
+    public CompletableFuture<Void> refreshStale(Collection<LlmConfig> configs) {
+        List<CompletableFuture<List<String>>> pending = new ArrayList<>();
+        for (LlmConfig config : configs) {
+            if (isStale(config)) {
+                pending.add(refresh(config).exceptionally(error -> {
+                    System.err.println("Error refreshing model catalog: " + error.getMessage());
+                    return null;
+                }));
+            }
+        }
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]));
+    }
+
+    static Duration ttl(LlmProvider provider) {
+        return provider == LlmProvider.OLLAMA ? LOCAL_TTL : HOSTED_TTL;
+    }
+
+    /**
+     * Model lists of self-hosted providers depend on the server, so the base
+     * URL is part of the key
+     */
+    private static String key(LlmConfig config) {
+        LlmProvider provider = config.getProvider();
+        String baseUrl = provider.supportsBaseUrl() && config.getBaseUrl() != null ? config.getBaseUrl().trim() : "";
+        return provider.name() + "|" + baseUrl;
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        File file = catalogFile();
+        if (file == null || !file.isFile()) {
+            return;
+        }
+        try {
+            Type type = new TypeToken<Map<String, Entry>>() {
+            }.getType();
+            Map<String, Entry> stored = gson.fromJson(Files.readString(file.toPath(), StandardCharsets.UTF_8), type);
+            if (stored != null) {
+                stored.forEach((key, entry) -> {
+                    if (entry != null && entry.models != null) {
+                        entries.putIfAbsent(key, entry);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            System.err.println("Error reading model catalog: " + e.getMessage());
+        }
+    }
+
+    private synchronized void save() {
+        File file = catalogFile();
+        if (file == null) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile(file.getParentFile().toPath(), CATALOG_FILE, ".tmp");
+            Files.writeString(temp, gson.toJson(entries), StandardCharsets.UTF_8);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error writing model catalog: " + e.getMessage());
+        }
+    }
+
+    private static File catalogFile() {
+        File stateLocation = Activator.getStateLocation();
+        return stateLocation != null ? new File(stateLocation, CATALOG_FILE) : null;
+    }
+
+    /**
+     * Persisted catalog entry
+     */
+    private static class Entry {
+        String provider;
+        long fetchedAt;
+        List<String> models;
+
+        Entry(String provider, long fetchedAt, List<String> models) {
+            this.provider = provider;
+            this.fetchedAt = fetchedAt;
+            this.models = new ArrayList<>(models);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.keksss.abap.ai.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Response formats of the providers' model list endpoints. All of them are an
+ * object holding an array of model objects; they differ in the names of the
+ * array and id fields and in how ids map to model names.
+ * <p>
+ * Responses are parsed as a stream straight from the connection: only the
+ * model array is descended into, only the id of each model is materialized
+ * and everything else is skipped without building a JSON tree.
+ */
+enum ModelListFormat {
+
+    GOOGLE_AI("models", "name") {
+        @Override
+        String toModelName(String name) {
+            return name.startsWith("models/") ? name.substring(7) : name;
+        }
+    },
+    OPENAI("data", "id") {
+        @Override
+        String toModelName(String id) {
+            // Filter to show only GPT models
+            return id.startsWith("gpt-") ? id : null;
+        }
+    },
+    ANTHROPIC("data", "id"),
+    OLLAMA("models", "name");
+
+    private final String arrayField;
+    private final String idField;
+
+    ModelListFormat(String arrayField, String idField) {
+        this.arrayField = arrayField;
+        this.idField = idField;
+    }
+
+    /**
+     * Reads a model list response
+     *
+     * @param body response body
+     * @return model names in response order
+     * @throws IOException if the body cannot be read or is not a model list
+     */
+    List<String> parse(Reader body) throws IOException {
+        List<String> models = new ArrayList<>();
+        JsonReader json = new JsonReader(body);
+        json.setLenient(true);
+        try {
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextName().equals(arrayField) && json.peek() == JsonToken.BEGIN_ARRAY) {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        String model = readModel(json);
+                        if (model != null) {
+                            models.add(model);
+                        }
+                    }
+                    json.endArray();
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        } catch (IllegalStateException e) {
+            // Valid JSON of another shape, e.g. an error object or an array
+            throw new IOException("Unexpected model list response: " + e.getMessage(), e);
+        }
+        return models;
+    }
+
+    /**
+     * Maps the id of a model to the name offered for selection
+     *
+     * @param id value of the id field
+     * @return model name, or null to leave the model out
+     */
+    String toModelName(String id) {
+        return id;
+    }
+
+    private String readModel(JsonReader json) throws IOException {
+        if (json.peek() != JsonToken.BEGIN_OBJECT) {
+            json.skipValue();
+            return null;
+        }
+        String id = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (id == null && name.equals(idField) && json.peek() == JsonToken.STRING) {
+                id = json.nextString();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return id != null ? toModelName(id) : null;
+    }
+}
@@ -0,0 +1,242 @@
+package com.keksss.abap.ai.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Structured view of an ST22 dump produced by {@link DumpParser}.
+ * All parts are kept as offsets into the original text; substrings are only
+ * created when a getter is called.
+ */
+public final class ParsedDump {
+
+    private final String text;
+    final List<Section> sections = new ArrayList<>();
+    final List<Frame> frames = new ArrayList<>();
+
+    int runtimeErrorStart = -1;
+    int runtimeErrorEnd = -1;
+    int exceptionStart = -1;
+    int exceptionEnd = -1;
+    int programStart = -1;
+    int programEnd = -1;
+    int includeStart = -1;
+    int includeEnd = -1;
+    int line = -1;
+
+    ParsedDump(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Get the original dump text
+     *
+     * @return dump text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Get all sections in document order, starting with the preamble
+     *
+     * @return unmodifiable list of sections
+     */
+    public List<Section> getSections() {
+        return Collections.unmodifiableList(sections);
+    }
+
+    /**
+     * Get the first section of the given type
+     *
+     * @param type section type
+     * @return section, or null if the dump does not contain it
+     */
+    public Section getSection(DumpSectionType type) {
+        for (Section section : sections) {
+            if (section.type == type) {
+                return section;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the runtime error name, e.g. COMPUTE_INT_ZERODIVIDE
+     *
+     * @return runtime error, or null if not found
+     */
+    public String getRuntimeError() {
+        return slice(runtimeErrorStart, runtimeErrorEnd);
+    }
+
+    /**
+     * Get the exception class, e.g. CX_SY_ZERODIVIDE
+     *
+     * @return exception class, or null if not found
+     */
+    public String getExceptionClass() {
+        return slice(exceptionStart, exceptionEnd);
+    }
+
+    /**
+     * Get the program in which the dump occurred
+     *
+     * @return program name, or null if not found
+     */
+    public String getProgram() {
+        return slice(programStart, programEnd);
+    }
+
+    /**
+     * Get the include containing the termination point
+     *
+     * @return include name, or null if not found
+     */
+    public String getInclude() {
+        return slice(includeStart, includeEnd);
+    }
+
+    /**
+     * Get the source line of the termination point
+     *
+     * @return line number, or -1 if not found
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Get the call stack frames from Active Calls/Events, innermost first as
+     * printed by ST22
+     *
+     * @return unmodifiable list of frames
+     */
+    public List<Frame> getFrames() {
+        return Collections.unmodifiableList(frames);
+    }
+
+    /**
+     * Get the body of the Source Code Extract section
+     *
+     * @return source extract, or null if the dump does not contain it
+     */
+    public String getSourceExtract() {
+        Section section = getSection(DumpSectionType.SOURCE_CODE_EXTRACT);
+        return section != null ? section.getBody() : null;
+    }
+
+    private String slice(int start, int end) {
+        return start >= 0 ? text.substring(start, end) : null;
+    }
+
+    /**
+     * A dump section: headline followed by its body up to the next headline
+     */
+    public final class Section {
+        private final DumpSectionType type;
+        private final int start;
+        private final int bodyStart;
+        int end;
+
+        Section(DumpSectionType type, int start, int bodyStart) {
+            this.type = type;
+            this.start = start;
+            this.bodyStart = bodyStart;
+        }
+
+        public DumpSectionType getType() {
+            return type;
+        }
+
+        /** Offset of the headline (or of the text for the preamble) */
+        public int getStart() {
+            return start;
+        }
+
+        /** Offset of the first body line */
+        public int getBodyStart() {
+            return bodyStart;
+        }
+
+        /** Offset after the last body character */
+        public int getEnd() {
+            return end;
+        }
+
+        /** Headline including its line break, empty for the preamble */
+        public String getHeader() {
+            return text.substring(start, bodyStart);
+        }
+
+        public String getBody() {
+            return text.substring(bodyStart, end);
+        }
+    }
+
+    /**
+     * One call stack frame, e.g. "5 METHOD ZCL_X=====CP ZCL_X=====CM001 12"
+     * followed by the event line "ZCL_X=>RUN"
+     */
+    public final class Frame {
+        private final int start;
+        int end;
+        int number;
+        int typeStart;
+        int typeEnd;
+        int programStart = -1;
+        int programEnd = -1;
+        int includeStart = -1;
+        int includeEnd = -1;
+        int line = -1;
+        int eventStart = -1;
+        int eventEnd = -1;
+
+        Frame(int start) {
+            this.start = start;
+        }
+
+        /** Offset of the frame's first line */
+        public int getStart() {
+            return start;
+        }
+
+        /** Offset after the frame's last line */
+        public int getEnd() {
+            return end;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        /** Frame type, e.g. METHOD, FUNCTION, FORM */
+        public String getType() {
+            return slice(typeStart, typeEnd);
+        }
+
+        public String getProgram() {
+            return slice(programStart, programEnd);
+        }
+
+        public String getInclude() {
+            return slice(includeStart, includeEnd);
+        }
+
+        /** Source line, or -1 if not printed */
+        public int getLine() {
+            return line;
+        }
+
+        /** Called method, form or function module, e.g. ZCL_X=>RUN */
+        public String getEvent() {
+            return slice(eventStart, eventEnd);
+        }
+
+        /** Complete frame text including the event line */
+        public String getText() {
+            return text.substring(start, end);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.keksss.abap.ai.core;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Speculative analysis of dumps nobody has opened yet. New runtime errors are
+ * analyzed one at a time on a low priority background thread and land in the
+ * {@link AnalysisCache}, so opening them later is answered at once. Work is
+ * opt-in, bounded by a daily token budget and skipped while the provider's
+ * circuit is not closed. Its requests yield to interactive analyses at the
+ * provider's {@link LlmRateLimiter}. Dumps that need a map-reduce analysis are left until
+ * they are opened, as their chunk summaries multiply the calls.
+ */
+public final class PreAnalyzer {
+
+    /** Dumps waiting beyond this are dropped; they are analyzed when opened */
+    private static final int MAX_QUEUED = 50;
+
+    private static final PreAnalyzer INSTANCE = new PreAnalyzer();
+
+    private final ThreadPoolExecutor executor;
+    private final AbapDumpAnalyzer analyzer = new AbapDumpAnalyzer();
+    private final Map<String, CompletableFuture<AnalysisResult>> inFlight = new ConcurrentHashMap<>();
+    private LocalDate budgetDay = LocalDate.now();
+    private long tokensSpent;
+    private volatile CancellationToken running = new CancellationToken();
+
+    private PreAnalyzer() {
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED), runnable -> {
+                    Thread thread = new Thread(runnable, "ABAP AI pre-analysis");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    /**
+     * Get the pre-analyzer instance
+     *
+     * @return PreAnalyzer
+     */
+    public static PreAnalyzer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues a dump for background analysis. Dumps that are already cached,
+     * not a recognizable runtime error or over budget are skipped when their
+     * turn comes.
+     *
+     * @param title       dump title
+     * @param dumpContent raw dump text
+     * @return false if pre-analysis is disabled or the queue is full
+     */
+    public boolean submit(String title, String dumpContent) {
+        if (!PreferenceHelper.isPreAnalysisEnabled() || dumpContent == null || dumpContent.isBlank()) {
+            return false;
+        }
+        try {
+            executor.execute(() -> preAnalyze(title, dumpContent));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return tokens spent on pre-analysis today
+     */
+    public synchronized long getTokensSpentToday() {
+        rollBudgetDay();
+        return tokensSpent;
+    }
+
+    /**
+     * Drops queued dumps and aborts the running analysis
+     */
+    public void cancelPending() {
+        executor.getQueue().clear();
+        running.cancel();
+    }
+
+    /**
+     * Waits for a running pre-analysis of the same dump
+     *
+     * @param cacheKey     cache key of the dump
+     * @param cancellation token of the waiting analysis; ends the wait, not the pre-analysis
+     * @return its result, or null if none is running, it failed unexpectedly
+     *         or the wait was cancelled
+     */
+    AnalysisResult awaitInFlight(String cacheKey, CancellationToken cancellation) {
+        CompletableFuture<AnalysisResult> pending = inFlight.get(cacheKey);
+        if (pending == null) {
+            return null;
+        }
+        CompletableFuture<AnalysisResult> wait = pending.thenApply(result -> result);
+        Runnable unregister = cancellation.onCancel(() -> wait.cancel(false));
+        try {
+            return wait.join();
+        } catch (CompletionException | CancellationException e) {
+            return null;
+        } finally {
+            unregister.run();
+        }
+    }
+
+    private void preAnalyze(String title, String dumpContent) {
+        // Settings may have changed while the dump was queued
+        if (!PreferenceHelper.isPreAnalysisEnabled()) {
+            return;
+        }
+        LlmConfig config = PreferenceHelper.getLlmConfig();
+        if (config.getProvider().requiresApiKey()
+                && (config.getApiKey() == null || config.getApiKey().trim().isEmpty())) {
+            return;
+        }
+        // Leave a failing provider to its probes instead of feeding it speculative work
+        if (LlmCircuitBreaker.forProvider(config.getProvider()).getState() != LlmCircuitBreaker.State.CLOSED) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        ParsedDump parsedDump = DumpParser.parse(dumpContent);
+        if (!DumpSignature.of(parsedDump).isSpecific()) {
+            return;
+        }
+        String customPrompt = PreferenceHelper.getDumpAnalyzerPrompt();
+        TokenCounter tokenCounter = TokenCounter.forConfig(config);
+        DumpCompactor.MeasuredDump measuredDump = new DumpCompactor.MeasuredDump(parsedDump, tokenCounter);
+        if (AbapDumpAnalyzer.usesMapReduce(config, customPrompt, title, measuredDump)) {
+            return;
+        }
+        String cacheKey = AbapDumpAnalyzer.cacheKey(config, customPrompt, title, dumpContent, parsedDump, false);
+        if (inFlight.containsKey(cacheKey) || AnalysisCache.getInstance().get(cacheKey) != null) {
+            return;
+        }
+
+        LlmPrompt prompt = AbapDumpAnalyzer.buildPrompt(config, customPrompt, title, measuredDump);
+        int promptTokens = tokenCounter.count(prompt.getText());
+        // Reserve the worst case up front and settle once the answer's size is known
+        long reserved = (long) promptTokens + config.getMaxTokens();
+        if (!reserve(reserved)) {
+            return;
+        }
+
+        CompletableFuture<AnalysisResult> pending = new CompletableFuture<>();
+        inFlight.put(cacheKey, pending);
+        AnalysisResult result = null;
+        try {
+            running = new CancellationToken();
+            AnalysisRequest request = new AnalysisRequest.Builder()
+                    .title(title)
+                    .dumpContent(dumpContent)
+                    .config(config)
+                    .cancellation(running)
+                    .build();
+            result = LlmRateLimiter.inBackground(
+                    () -> analyzer.analyzePrompt(request, config, parsedDump, cacheKey, prompt, started));
+        } catch (RuntimeException e) {
+            System.err.println("Pre-analysis of " + title + " failed: " + e.getMessage());
+        } finally {
+            inFlight.remove(cacheKey);
+            pending.complete(result);
+            long spent = promptTokens;
+            if (result != null && result.isSuccess()) {
+                spent += tokenCounter.count(result.getAnalysisText());
+            }
+            settle(reserved, spent);
+        }
+    }
+
+    private synchronized boolean reserve(long tokens) {
+        rollBudgetDay();
+        if (tokensSpent + tokens > PreferenceHelper.getPreAnalysisDailyTokens()) {
+            return false;
+        }
+        tokensSpent += tokens;
+        return true;
+    }
+
+    private synchronized void settle(long reserved, long spent) {
+        tokensSpent = Math.max(0, tokensSpent - reserved + spent);
+    }
+
+    private void rollBudgetDay() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(budgetDay)) {
+            budgetDay = today;
+            tokensSpent = 0;
+        }
+    }
+}
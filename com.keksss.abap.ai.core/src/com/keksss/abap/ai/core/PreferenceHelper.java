@@ -1,5 +1,11 @@
 package com.keksss.abap.ai.core;
 
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.osgi.service.prefs.Preferences;
 
@@ -13,6 +19,36 @@ public class PreferenceHelper {
     private static final String MODEL_PREFERENCE = "googleAiModel";
     public static final String DEFAULT_MODEL = "gemini-1.5-flash";
 
+    /** Answers every get with its default; used where the preference service cannot start */
+    private static final Preferences DEFAULTS = (Preferences) Proxy.newProxyInstance(
+            Preferences.class.getClassLoader(), new Class<?>[] { Preferences.class },
+            (proxy, method, args) -> {
+                if (method.getName().startsWith("get") && args != null && args.length == 2) {
+                    return args[1];
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+    private static final AtomicBoolean SERVICE_UNAVAILABLE = new AtomicBoolean();
+
+    /**
+     * Preferences of the UI plugin. Outside of a running platform, e.g. in the
+     * benchmarks, the preference service fails to initialize; all settings
+     * then have their default values.
+     */
+    private static Preferences node() {
+        if (!SERVICE_UNAVAILABLE.get()) {
+            try {
+                return InstanceScope.INSTANCE.getNode(UI_PLUGIN_ID);
+            } catch (LinkageError e) {
+                if (SERVICE_UNAVAILABLE.compareAndSet(false, true)) {
+                    System.err.println("Preference service unavailable, using default settings: " + e);
+                }
+            }
+        }
+        return DEFAULTS;
+    }
+
     /**
      * Retrieves the Google AI API key from preferences
      * 
@@ -20,7 +56,7 @@ public class PreferenceHelper {
      */
     public static String getGoogleAiApiKey() {
         try {
-            Preferences preferences = InstanceScope.INSTANCE.getNode(UI_PLUGIN_ID);
+            Preferences preferences = node();
             String apiKey = preferences.get(API_KEY_PREFERENCE, null);
             return apiKey;
         } catch (Exception e) {
@@ -30,6 +66,7 @@ public class PreferenceHelper {
     }
 
     private static final String DUMP_ANALYZER_PROMPT_PREFERENCE = "dumpAnalyzerPrompt";
+    private static final String DUMP_MAX_SIZE_KB_PREFERENCE = "dumpMaxSizeKb";
 
     /**
      * Retrieves the Google AI Model from preferences
@@ -38,7 +75,7 @@ public class PreferenceHelper {
      */
     public static String getGoogleAiModel() {
         try {
-            Preferences preferences = InstanceScope.INSTANCE.getNode(UI_PLUGIN_ID);
+            Preferences preferences = node();
             String model = preferences.get(MODEL_PREFERENCE, DEFAULT_MODEL);
             return (model != null && !model.isEmpty()) ? model : DEFAULT_MODEL;
         } catch (Exception e) {
@@ -55,7 +92,7 @@ public class PreferenceHelper {
      */
     public static String getDumpAnalyzerPrompt() {
         try {
-            Preferences preferences = InstanceScope.INSTANCE.getNode(UI_PLUGIN_ID);
+            Preferences preferences = node();
             return preferences.get(DUMP_ANALYZER_PROMPT_PREFERENCE, null);
         } catch (Exception e) {
             System.err.println("Error retrieving Dump Analyzer Prompt from preferences: " + e.getMessage());
@@ -63,6 +100,233 @@ public class PreferenceHelper {
         }
     }
 
+    /**
+     * Retrieves how much of a dump is read from a feed entry
+     * 
+     * @return maximum dump size in KB
+     */
+    public static int getDumpMaxSizeKb() {
+        try {
+            Preferences preferences = node();
+            return Math.max(1, preferences.getInt(DUMP_MAX_SIZE_KB_PREFERENCE, 4096));
+        } catch (Exception e) {
+            System.err.println("Error retrieving maximum dump size from preferences: " + e.getMessage());
+            return 4096;
+        }
+    }
+
+    // ========== Analysis Cache ==========
+
+    private static final String ANALYSIS_CACHE_ENABLED_PREFERENCE = "analysisCacheEnabled";
+    private static final String ANALYSIS_CACHE_TTL_HOURS_PREFERENCE = "analysisCacheTtlHours";
+    private static final String ANALYSIS_CACHE_MAX_SIZE_MB_PREFERENCE = "analysisCacheMaxSizeMb";
+
+    /**
+     * Checks whether dump analyses should be cached on disk
+     * 
+     * @return true if caching is enabled (default)
+     */
+    public static boolean isAnalysisCacheEnabled() {
+        try {
+            Preferences preferences = node();
+            return preferences.getBoolean(ANALYSIS_CACHE_ENABLED_PREFERENCE, true);
+        } catch (Exception e) {
+            System.err.println("Error retrieving analysis cache setting from preferences: " + e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Retrieves how long cached analyses stay valid
+     * 
+     * @return time to live in hours, 0 means no expiry
+     */
+    public static int getAnalysisCacheTtlHours() {
+        try {
+            Preferences preferences = node();
+            return Math.max(0, preferences.getInt(ANALYSIS_CACHE_TTL_HOURS_PREFERENCE, 168));
+        } catch (Exception e) {
+            System.err.println("Error retrieving analysis cache TTL from preferences: " + e.getMessage());
+            return 168;
+        }
+    }
+
+    /**
+     * Retrieves the maximum disk space used by cached analyses
+     * 
+     * @return size limit in megabytes
+     */
+    public static int getAnalysisCacheMaxSizeMb() {
+        try {
+            Preferences preferences = node();
+            return Math.max(1, preferences.getInt(ANALYSIS_CACHE_MAX_SIZE_MB_PREFERENCE, 50));
+        } catch (Exception e) {
+            System.err.println("Error retrieving analysis cache size from preferences: " + e.getMessage());
+            return 50;
+        }
+    }
+
+    // ========== Analysis History ==========
+
+    private static final String ANALYSIS_HISTORY_ENABLED_PREFERENCE = "analysisHistoryEnabled";
+    private static final String ANALYSIS_HISTORY_MAX_SIZE_MB_PREFERENCE = "analysisHistoryMaxSizeMb";
+
+    /**
+     * Checks whether completed analyses should be kept in the searchable history
+     * 
+     * @return true if the history is enabled (default)
+     */
+    public static boolean isAnalysisHistoryEnabled() {
+        try {
+            Preferences preferences = node();
+            return preferences.getBoolean(ANALYSIS_HISTORY_ENABLED_PREFERENCE, true);
+        } catch (Exception e) {
+            System.err.println("Error retrieving analysis history setting from preferences: " + e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Retrieves the maximum disk space used by the analysis history
+     * 
+     * @return size limit in megabytes
+     */
+    public static int getAnalysisHistoryMaxSizeMb() {
+        try {
+            Preferences preferences = node();
+            return Math.max(1, preferences.getInt(ANALYSIS_HISTORY_MAX_SIZE_MB_PREFERENCE, 100));
+        } catch (Exception e) {
+            System.err.println("Error retrieving analysis history size from preferences: " + e.getMessage());
+            return 100;
+        }
+    }
+
+    // ========== Batch Analysis ==========
+
+    private static final String ANALYSIS_MAX_PARALLEL_PREFERENCE = "analysisMaxParallel";
+
+    /**
+     * Retrieves how many analyses of a multi-selection may run at the same time
+     * 
+     * @return number of concurrent analyses, at least 1
+     */
+    public static int getMaxParallelAnalyses() {
+        try {
+            Preferences preferences = node();
+            return Math.max(1, preferences.getInt(ANALYSIS_MAX_PARALLEL_PREFERENCE, 3));
+        } catch (Exception e) {
+            System.err.println("Error retrieving parallel analysis limit from preferences: " + e.getMessage());
+            return 3;
+        }
+    }
+
+    private static final String MAP_REDUCE_ENABLED_PREFERENCE = "mapReduceEnabled";
+
+    /**
+     * Checks whether dumps too large for one prompt are summarized in chunks
+     * instead of being shortened
+     * 
+     * @return true if map-reduce analysis is enabled (default false)
+     */
+    public static boolean isMapReduceEnabled() {
+        try {
+            Preferences preferences = node();
+            return preferences.getBoolean(MAP_REDUCE_ENABLED_PREFERENCE, false);
+        } catch (Exception e) {
+            System.err.println("Error retrieving map-reduce setting from preferences: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static final String ANALYSIS_GROUP_BY_SIGNATURE_PREFERENCE = "analysisGroupBySignature";
+
+    /**
+     * Checks whether dumps of the same error are analyzed only once
+     *
+     * @return true if dumps are grouped by {@link DumpSignature} (default)
+     */
+    public static boolean isGroupBySignatureEnabled() {
+        try {
+            Preferences preferences = node();
+            return preferences.getBoolean(ANALYSIS_GROUP_BY_SIGNATURE_PREFERENCE, true);
+        } catch (Exception e) {
+            System.err.println("Error retrieving signature grouping setting from preferences: " + e.getMessage());
+            return true;
+        }
+    }
+
+    // ========== Background Pre-Analysis ==========
+
+    private static final String PRE_ANALYSIS_ENABLED_PREFERENCE = "preAnalysisEnabled";
+    private static final String PRE_ANALYSIS_DAILY_TOKENS_PREFERENCE = "preAnalysisDailyTokens";
+
+    /**
+     * Checks whether new runtime errors in the feed are analyzed in the
+     * background before they are opened
+     *
+     * @return true if pre-analysis is enabled (default false)
+     */
+    public static boolean isPreAnalysisEnabled() {
+        try {
+            Preferences preferences = node();
+            return preferences.getBoolean(PRE_ANALYSIS_ENABLED_PREFERENCE, false);
+        } catch (Exception e) {
+            System.err.println("Error retrieving pre-analysis setting from preferences: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves how many tokens background pre-analysis may spend per day
+     * 
+     * @return token budget per calendar day
+     */
+    public static int getPreAnalysisDailyTokens() {
+        try {
+            Preferences preferences = node();
+            return Math.max(0, preferences.getInt(PRE_ANALYSIS_DAILY_TOKENS_PREFERENCE, 200000));
+        } catch (Exception e) {
+            System.err.println("Error retrieving pre-analysis token budget from preferences: " + e.getMessage());
+            return 200000;
+        }
+    }
+
+    // ========== Circuit Breaker ==========
+
+    private static final String CIRCUIT_FAILURE_THRESHOLD_PREFERENCE = "circuitFailureThreshold";
+    private static final String CIRCUIT_OPEN_SECONDS_PREFERENCE = "circuitOpenSeconds";
+
+    /**
+     * Retrieves after how many consecutive failures a provider is considered
+     * unavailable
+     * 
+     * @return number of failures, at least 1
+     */
+    public static int getCircuitFailureThreshold() {
+        try {
+            Preferences preferences = node();
+            return Math.max(1, preferences.getInt(CIRCUIT_FAILURE_THRESHOLD_PREFERENCE, 5));
+        } catch (Exception e) {
+            System.err.println("Error retrieving circuit breaker threshold from preferences: " + e.getMessage());
+            return 5;
+        }
+    }
+
+    /**
+     * Retrieves how long requests to an unavailable provider fail fast
+     * 
+     * @return open period in seconds, at least 1
+     */
+    public static int getCircuitOpenSeconds() {
+        try {
+            Preferences preferences = node();
+            return Math.max(1, preferences.getInt(CIRCUIT_OPEN_SECONDS_PREFERENCE, 30));
+        } catch (Exception e) {
+            System.err.println("Error retrieving circuit breaker open period from preferences: " + e.getMessage());
+            return 30;
+        }
+    }
+
     /**
      * Validates that API key is configured
      * 
@@ -81,15 +345,73 @@ public class PreferenceHelper {
     private static final String LLM_BASE_URL_PREFERENCE = "llmBaseUrl";
     private static final String LLM_TEMPERATURE_PREFERENCE = "llmTemperature";
     private static final String LLM_MAX_TOKENS_PREFERENCE = "llmMaxTokens";
+    private static final String LLM_MAX_INPUT_TOKENS_PREFERENCE = "llmMaxInputTokens";
+    private static final String LLM_FAILOVER_PROVIDERS_PREFERENCE = "llmFailoverProviders";
+    private static final String LLM_HEDGING_PREFERENCE = "llmHedging";
+    private static final String LLM_REQUESTS_PER_MINUTE_PREFERENCE = "llmRequestsPerMinute";
+    private static final String LLM_TOKENS_PER_MINUTE_PREFERENCE = "llmTokensPerMinute";
+
+    /** Current configuration; replaced as a whole whenever an LLM preference changes */
+    private static volatile LlmConfig llmConfigSnapshot;
+    private static IEclipsePreferences listenedNode;
+
+    private static final IEclipsePreferences.IPreferenceChangeListener LLM_CONFIG_LISTENER = event -> {
+        String key = event.getKey();
+        if (key != null && (key.startsWith("llm") || key.equals(API_KEY_PREFERENCE) || key.equals(MODEL_PREFERENCE))) {
+            llmConfigSnapshot = readLlmConfig();
+        }
+    };
 
     /**
-     * Gets the complete LLM configuration from preferences
+     * Gets the complete LLM configuration. While the core bundle is active the
+     * returned object is an immutable snapshot that is only rebuilt when the
+     * preferences change, so callers should fetch it once per request and pass
+     * it on instead of calling this method repeatedly.
      * 
      * @return LlmConfig object with all settings
      */
     public static LlmConfig getLlmConfig() {
+        LlmConfig snapshot = llmConfigSnapshot;
+        // Outside of a running bundle there is no listener; read directly
+        return snapshot != null ? snapshot : readLlmConfig();
+    }
+
+    /**
+     * Starts keeping the LLM configuration snapshot in sync with the preferences
+     */
+    static synchronized void startListening() {
+        try {
+            listenedNode = InstanceScope.INSTANCE.getNode(UI_PLUGIN_ID);
+            listenedNode.addPreferenceChangeListener(LLM_CONFIG_LISTENER);
+            llmConfigSnapshot = readLlmConfig();
+        } catch (Exception e) {
+            System.err.println("Error registering LLM config listener: " + e.getMessage());
+            listenedNode = null;
+        }
+    }
+
+    /**
+     * Stops listening and drops the snapshot
+     */
+    static synchronized void stopListening() {
+        if (listenedNode != null) {
+            try {
+                listenedNode.removePreferenceChangeListener(LLM_CONFIG_LISTENER);
+            } catch (Exception e) {
+                // Node may already be removed during workbench shutdown
+            }
+            listenedNode = null;
+        }
+        llmConfigSnapshot = null;
+    }
+
+    /**
+     * Reads the complete LLM configuration from preferences, including the
+     * migration of legacy Google AI settings
+     */
+    private static LlmConfig readLlmConfig() {
         try {
-            Preferences preferences = InstanceScope.INSTANCE.getNode(UI_PLUGIN_ID);
+            Preferences preferences = node();
 
             // Get provider (with backward compatibility)
             String providerStr = preferences.get(LLM_PROVIDER_PREFERENCE, null);
@@ -127,6 +449,31 @@ public class PreferenceHelper {
             String baseUrl = preferences.get(LLM_BASE_URL_PREFERENCE, null);
             double temperature = preferences.getDouble(LLM_TEMPERATURE_PREFERENCE, 0.7);
             int maxTokens = preferences.getInt(LLM_MAX_TOKENS_PREFERENCE, 2048);
+            int maxInputTokens = preferences.getInt(LLM_MAX_INPUT_TOKENS_PREFERENCE, 16000);
+
+            // Backup providers use the settings last saved for them
+            List<LlmConfig> fallbacks = new ArrayList<>();
+            for (String name : preferences.get(LLM_FAILOVER_PROVIDERS_PREFERENCE, "").split(",")) {
+                for (LlmProvider fallback : LlmProvider.values()) {
+                    if (fallback.name().equals(name.trim()) && fallback != provider
+                            && fallbacks.stream().noneMatch(f -> f.getProvider() == fallback)) {
+                        fallbacks.add(new LlmConfig.Builder()
+                                .provider(fallback)
+                                .apiKey(preferences.get(providerKey(LLM_API_KEY_PREFERENCE, fallback), ""))
+                                .model(preferences.get(providerKey(LLM_MODEL_PREFERENCE, fallback),
+                                        getDefaultModel(fallback)))
+                                .baseUrl(preferences.get(providerKey(LLM_BASE_URL_PREFERENCE, fallback), null))
+                                .temperature(temperature)
+                                .maxTokens(maxTokens)
+                                .maxInputTokens(maxInputTokens)
+                                .requestsPerMinute(Math.max(0, preferences.getInt(
+                                        providerKey(LLM_REQUESTS_PER_MINUTE_PREFERENCE, fallback), 0)))
+                                .tokensPerMinute(Math.max(0, preferences.getInt(
+                                        providerKey(LLM_TOKENS_PER_MINUTE_PREFERENCE, fallback), 0)))
+                                .build());
+                    }
+                }
+            }
 
             return new LlmConfig.Builder()
                     .provider(provider)
@@ -135,6 +482,13 @@ public class PreferenceHelper {
                     .baseUrl(baseUrl)
                     .temperature(temperature)
                     .maxTokens(maxTokens)
+                    .maxInputTokens(maxInputTokens)
+                    .fallbacks(fallbacks)
+                    .hedging(preferences.getBoolean(LLM_HEDGING_PREFERENCE, false))
+                    .requestsPerMinute(Math.max(0,
+                            preferences.getInt(providerKey(LLM_REQUESTS_PER_MINUTE_PREFERENCE, provider), 0)))
+                    .tokensPerMinute(Math.max(0,
+                            preferences.getInt(providerKey(LLM_TOKENS_PER_MINUTE_PREFERENCE, provider), 0)))
                     .build();
 
         } catch (Exception e) {
@@ -145,6 +499,13 @@ public class PreferenceHelper {
         }
     }
 
+    /**
+     * Key of a setting saved for one provider, e.g. "llmApiKey.OPENAI"
+     */
+    private static String providerKey(String key, LlmProvider provider) {
+        return key + "." + provider.name();
+    }
+
     /**
      * Get default model name for a given provider
      * 
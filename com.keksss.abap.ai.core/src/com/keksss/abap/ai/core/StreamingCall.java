@@ -0,0 +1,319 @@
+package com.keksss.abap.ai.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.http.client.HttpClient;
+import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.http.client.HttpRequest;
+import dev.langchain4j.http.client.SuccessfulHttpResponse;
+import dev.langchain4j.http.client.jdk.JdkHttpClientBuilder;
+import dev.langchain4j.http.client.sse.ServerSentEventListener;
+import dev.langchain4j.http.client.sse.ServerSentEventParser;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import okhttp3.Call;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+/**
+ * One streaming chat request that can be aborted at any time, also before
+ * its first fragment. LangChain4j does not expose the HTTP exchange behind a
+ * stream, so it is found per transport: calls of OkHttp based models (OpenAI,
+ * Anthropic) on their client's dispatcher, Ollama exchanges through
+ * {@link AbortableHttpClientBuilder}, and models that stream on the calling
+ * thread (Gemini) are interrupted. Aborting closes the connection; the
+ * handler may then still receive an error.
+ */
+final class StreamingCall {
+
+    /** Call being started on the current thread, picked up by AbortableHttpClientBuilder */
+    private static final ThreadLocal<StreamingCall> STARTING = new ThreadLocal<>();
+
+    /** OkHttpClient field of a model or of its API client, null where a class has none */
+    private static final ClassValue<Field> OKHTTP_FIELDS = new ClassValue<>() {
+        @Override
+        protected Field computeValue(Class<?> type) {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (field.getType() == OkHttpClient.class && !Modifier.isStatic(field.getModifiers())) {
+                        try {
+                            field.setAccessible(true);
+                            return field;
+                        } catch (RuntimeException e) {
+                            return null;
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+    };
+
+    private final List<Runnable> closers = new ArrayList<>();
+    private boolean aborted;
+    private Thread streamingThread;
+    private boolean interrupted;
+
+    /**
+     * Sends the request. Models that stream on the calling thread return
+     * only once the stream has ended.
+     *
+     * @param model    streaming model
+     * @param messages prompt
+     * @param handler  receiver of the response
+     * @throws CancellationException if the call was aborted before it started
+     */
+    void start(StreamingChatLanguageModel model, List<ChatMessage> messages, StreamingChatResponseHandler handler) {
+        OkHttpClient okHttpClient = okHttpClient(model);
+        synchronized (this) {
+            if (aborted) {
+                throw new CancellationException("Request aborted");
+            }
+            if (okHttpClient == null) {
+                streamingThread = Thread.currentThread();
+            }
+        }
+        STARTING.set(this);
+        try {
+            if (okHttpClient == null) {
+                model.chat(messages, handler);
+                return;
+            }
+            // Calls are told apart by their start; models are shared, so starts are serialized
+            Dispatcher dispatcher = okHttpClient.dispatcher();
+            synchronized (model) {
+                Set<Call> before = calls(dispatcher);
+                model.chat(messages, handler);
+                for (Call call : calls(dispatcher)) {
+                    if (!before.contains(call)) {
+                        onAbort(call::cancel);
+                    }
+                }
+            }
+        } finally {
+            STARTING.remove();
+            synchronized (this) {
+                streamingThread = null;
+                if (interrupted) {
+                    // Only meant for the stream, not for the caller's further work
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the connection of the request; only the first call has an effect
+     */
+    void abort() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (aborted) {
+                return;
+            }
+            aborted = true;
+            toRun = new ArrayList<>(closers);
+            closers.clear();
+            if (streamingThread != null) {
+                streamingThread.interrupt();
+                interrupted = true;
+            }
+        }
+        for (Runnable closer : toRun) {
+            try {
+                closer.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error aborting streaming request: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Registers an action closing the request, run at once if already aborted
+     */
+    private void onAbort(Runnable closer) {
+        synchronized (this) {
+            if (!aborted) {
+                closers.add(closer);
+                return;
+            }
+        }
+        closer.run();
+    }
+
+    private static Set<Call> calls(Dispatcher dispatcher) {
+        Set<Call> calls = Collections.newSetFromMap(new IdentityHashMap<>());
+        calls.addAll(dispatcher.queuedCalls());
+        calls.addAll(dispatcher.runningCalls());
+        return calls;
+    }
+
+    /**
+     * @return OkHttp client of the model itself or of its API client, or null
+     */
+    static OkHttpClient okHttpClient(Object model) {
+        OkHttpClient client = readOkHttpClient(model);
+        if (client != null) {
+            return client;
+        }
+        for (Class<?> c = model.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.getType().isPrimitive() || Modifier.isStatic(field.getModifiers())
+                        || !field.getType().getName().contains("Client")) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    Object apiClient = field.get(model);
+                    client = apiClient != null ? readOkHttpClient(apiClient) : null;
+                    if (client != null) {
+                        return client;
+                    }
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    // Not accessible; the stream is then aborted with its next fragment
+                }
+            }
+        }
+        return null;
+    }
+
+    private static OkHttpClient readOkHttpClient(Object target) {
+        Field field = OKHTTP_FIELDS.get(target.getClass());
+        if (field == null) {
+            return null;
+        }
+        try {
+            return (OkHttpClient) field.get(target);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * JDK based client for LangChain4j models with a pluggable HTTP client.
+     * Server-sent event streams are opened here rather than by the default
+     * client so that the exchange of a {@link StreamingCall} can be cancelled
+     * before and after its headers arrived, and so that connection failures
+     * reach the handler instead of being dropped.
+     */
+    static final class AbortableHttpClientBuilder implements HttpClientBuilder {
+
+        private final JdkHttpClientBuilder defaults = new JdkHttpClientBuilder();
+
+        @Override
+        public Duration connectTimeout() {
+            return defaults.connectTimeout();
+        }
+
+        @Override
+        public AbortableHttpClientBuilder connectTimeout(Duration timeout) {
+            defaults.connectTimeout(timeout);
+            return this;
+        }
+
+        @Override
+        public Duration readTimeout() {
+            return defaults.readTimeout();
+        }
+
+        @Override
+        public AbortableHttpClientBuilder readTimeout(Duration timeout) {
+            defaults.readTimeout(timeout);
+            return this;
+        }
+
+        @Override
+        public HttpClient build() {
+            HttpClient delegate = defaults.build();
+            java.net.http.HttpClient.Builder builder = java.net.http.HttpClient.newBuilder();
+            if (connectTimeout() != null) {
+                builder.connectTimeout(connectTimeout());
+            }
+            java.net.http.HttpClient streamingClient = builder.build();
+
+            return new HttpClient() {
+                @Override
+                public SuccessfulHttpResponse execute(HttpRequest request) {
+                    return delegate.execute(request);
+                }
+
+                @Override
+                public void execute(HttpRequest request, ServerSentEventParser parser,
+                        ServerSentEventListener listener) {
+                    StreamingCall call = STARTING.get();
+                    CompletableFuture<HttpResponse<InputStream>> exchange = streamingClient
+                            .sendAsync(toJdkRequest(request), HttpResponse.BodyHandlers.ofInputStream());
+                    if (call != null) {
+                        call.onAbort(() -> exchange.cancel(true));
+                    }
+                    exchange.whenComplete((response, error) -> {
+                        if (error != null) {
+                            listener.onError(HttpTransport.unwrap(error));
+                        } else {
+                            stream(response, call, parser, listener);
+                        }
+                    });
+                }
+            };
+        }
+
+        private java.net.http.HttpRequest toJdkRequest(HttpRequest request) {
+            java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder()
+                    .uri(URI.create(request.url()))
+                    .method(request.method().name(), request.body() != null
+                            ? java.net.http.HttpRequest.BodyPublishers.ofString(request.body())
+                            : java.net.http.HttpRequest.BodyPublishers.noBody());
+            request.headers().forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+            if (readTimeout() != null) {
+                builder.timeout(readTimeout());
+            }
+            return builder.build();
+        }
+
+        private static void stream(HttpResponse<InputStream> response, StreamingCall call,
+                ServerSentEventParser parser, ServerSentEventListener listener) {
+            try (InputStream body = response.body()) {
+                if (call != null) {
+                    call.onAbort(() -> closeQuietly(body));
+                }
+                if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                    listener.onError(new HttpException(response.statusCode(),
+                            new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+                    return;
+                }
+                listener.onOpen(SuccessfulHttpResponse.builder()
+                        .statusCode(response.statusCode())
+                        .headers(response.headers().map())
+                        .build());
+                parser.parse(body, listener);
+                listener.onClose();
+            } catch (IOException | RuntimeException e) {
+                listener.onError(e);
+            }
+        }
+
+        private static void closeQuietly(InputStream body) {
+            try {
+                body.close();
+            } catch (IOException e) {
+                // Closing only serves to abort the read
+            }
+        }
+    }
+}
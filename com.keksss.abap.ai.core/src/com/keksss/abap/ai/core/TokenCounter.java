@@ -0,0 +1,68 @@
+package com.keksss.abap.ai.core;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingResult;
+import com.knuddels.jtokkit.api.EncodingType;
+
+/**
+ * Token counting based on the bundled jtokkit tokenizer.
+ * OpenAI's own encodings are exact for GPT models; for other providers
+ * cl100k_base is used as a close approximation.
+ */
+public final class TokenCounter {
+
+    private static final EncodingRegistry REGISTRY = Encodings.newLazyEncodingRegistry();
+
+    private final Encoding encoding;
+
+    private TokenCounter(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Returns a counter suitable for the configured provider and model
+     *
+     * @param config LLM configuration
+     * @return TokenCounter
+     */
+    public static TokenCounter forConfig(LlmConfig config) {
+        String model = config.getModel() != null ? config.getModel().toLowerCase() : "";
+        if (config.getProvider() == LlmProvider.OPENAI
+                && (model.startsWith("gpt-4o") || model.startsWith("o1") || model.startsWith("o3")
+                        || model.startsWith("gpt-4.1") || model.startsWith("gpt-5"))) {
+            return new TokenCounter(REGISTRY.getEncoding(EncodingType.O200K_BASE));
+        }
+        return new TokenCounter(REGISTRY.getEncoding(EncodingType.CL100K_BASE));
+    }
+
+    /**
+     * Counts the tokens of a text
+     *
+     * @param text text to count
+     * @return token count, 0 for null or empty text
+     */
+    public int count(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return encoding.countTokensOrdinary(text);
+    }
+
+    /**
+     * Cuts a text to at most the given number of tokens
+     *
+     * @param text      text to cut
+     * @param maxTokens token limit
+     * @return the text itself if it fits, otherwise its longest prefix within the
+     *         limit
+     */
+    public String truncate(String text, int maxTokens) {
+        if (text == null || maxTokens <= 0) {
+            return "";
+        }
+        EncodingResult result = encoding.encodeOrdinary(text, maxTokens);
+        return result.isTruncated() ? encoding.decode(result.getTokens()) : text;
+    }
+}
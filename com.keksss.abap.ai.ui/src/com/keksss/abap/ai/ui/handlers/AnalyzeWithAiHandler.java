@@ -12,213 +12,367 @@ import org.eclipse.ui.handlers.HandlerUtil;
 
 public class AnalyzeWithAiHandler extends AbstractHandler {
 
+    private static final String PARAM_FORCE_REANALYZE = "com.keksss.abap.ai.ui.commands.analyzeWithAi.forceReanalyze";
+
+    /** Owner of the result view; starting another analysis cancels it */
+    private static final java.util.concurrent.atomic.AtomicReference<com.keksss.abap.ai.core.CancellationToken> LATEST =
+            new java.util.concurrent.atomic.AtomicReference<>();
+
     @Override
     public Object execute(ExecutionEvent event) throws ExecutionException {
         IWorkbenchWindow window = HandlerUtil.getActiveWorkbenchWindowChecked(event);
         ISelection selection = HandlerUtil.getCurrentSelection(event);
+        boolean forceReanalyze = Boolean.parseBoolean(event.getParameter(PARAM_FORCE_REANALYZE));
 
+        java.util.List<Object> entries = new java.util.ArrayList<>();
         if (selection instanceof IStructuredSelection) {
-            IStructuredSelection structuredSelection = (IStructuredSelection) selection;
-            Object firstElement = structuredSelection.getFirstElement();
-
-            // Check if the selected element is an AbapFeedEntry by class name
-            if (firstElement != null &&
-                    firstElement.getClass().getName().equals("com.sap.adt.feedreader.internal.feed.AbapFeedEntry")) {
-
-                // Get title using reflection to avoid direct dependency
-                String title = "Unknown";
-                try {
-                    java.lang.reflect.Method getTitleMethod = firstElement.getClass().getMethod("getTitle");
-                    title = (String) getTitleMethod.invoke(firstElement);
-                } catch (Exception e) {
-                    title = firstElement.toString();
+            for (Object element : ((IStructuredSelection) selection).toList()) {
+                // Check if the selected element is an AbapFeedEntry by class name
+                if (com.keksss.abap.ai.core.FeedEntryContentProvider.isFeedEntry(element)) {
+                    entries.add(element);
                 }
+            }
+        }
 
-                // Get content using reflection
-                String content = "";
-
-                // Try Adaptation to IFile or IStorage
-                try {
-                    // Try adapting to IFile
-                    org.eclipse.core.resources.IFile file = org.eclipse.core.runtime.Platform.getAdapterManager()
-                            .getAdapter(firstElement, org.eclipse.core.resources.IFile.class);
-                    if (file == null && firstElement instanceof org.eclipse.core.runtime.IAdaptable) {
-                        file = ((org.eclipse.core.runtime.IAdaptable) firstElement)
-                                .getAdapter(org.eclipse.core.resources.IFile.class);
-                    }
+        if (entries.isEmpty()) {
+            MessageDialog.openWarning(
+                    window.getShell(),
+                    "Analyze with AI",
+                    "Please select a valid ABAP feed entry.");
+            return null;
+        }
+
+        // Check LLM configuration; the same snapshot is used for every analysis started here
+        com.keksss.abap.ai.core.LlmConfig config = com.keksss.abap.ai.core.PreferenceHelper.getLlmConfig();
+
+        if (config.getProvider().requiresApiKey() &&
+                (config.getApiKey() == null || config.getApiKey().isEmpty())) {
+            MessageDialog.openError(window.getShell(), "Configuration Error",
+                    "LLM API Key is not configured for " + config.getProvider().getDisplayName() + ".");
+            return null;
+        }
+
+        try {
+            // Open and show the view
+            com.keksss.abap.ai.ui.views.AbapAiResultView view = (com.keksss.abap.ai.ui.views.AbapAiResultView) window
+                    .getActivePage()
+                    .showView(com.keksss.abap.ai.ui.views.AbapAiResultView.ID);
+
+            // Latest selection wins: whatever still runs for the previous one is aborted
+            com.keksss.abap.ai.core.CancellationToken cancellation = new com.keksss.abap.ai.core.CancellationToken();
+            com.keksss.abap.ai.core.CancellationToken previous = LATEST.getAndSet(cancellation);
+            if (previous != null) {
+                previous.cancel();
+            }
+
+            if (entries.size() == 1) {
+                analyzeSingle(window, view, config, entries.get(0), forceReanalyze, cancellation);
+            } else {
+                analyzeBatch(window, view, config, entries, forceReanalyze, cancellation);
+            }
+        } catch (Exception e) {
+            MessageDialog.openError(window.getShell(), "Error",
+                    "Failed to open results view: " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * Analyzes one entry, streaming the answer into the view. Cancelling the
+     * job aborts the request; the view then reports the cancellation.
+     */
+    private void analyzeSingle(IWorkbenchWindow window, com.keksss.abap.ai.ui.views.AbapAiResultView view,
+            com.keksss.abap.ai.core.LlmConfig config, Object entry, boolean forceReanalyze,
+            com.keksss.abap.ai.core.CancellationToken cancellation) {
+        view.beginStreaming("Analyzing with " + config.getProvider().getDisplayName() + "..." + providerStatus(config));
+
+        // The job's own token, so cancelling the job does not release the view
+        com.keksss.abap.ai.core.CancellationToken jobCancellation = new com.keksss.abap.ai.core.CancellationToken(
+                cancellation);
+
+        org.eclipse.swt.widgets.Display display = window.getShell().getDisplay();
+
+        // Run analysis in a job to avoid freezing the UI
+        new org.eclipse.core.runtime.jobs.Job("AI Analysis") {
+            @Override
+            protected org.eclipse.core.runtime.IStatus run(
+                    org.eclipse.core.runtime.IProgressMonitor monitor) {
+                // Reading the dump may hit the backend, so it stays off the UI thread
+                String title = com.keksss.abap.ai.core.FeedEntryContentProvider.readTitle(entry);
+                String content = com.keksss.abap.ai.core.FeedEntryContentProvider.readContent(entry);
+                // A newer analysis owns the view by now; a cancelled job is reported by analyze
+                if (cancellation.isCancelled()) {
+                    jobCancellation.detach();
+                    return org.eclipse.core.runtime.Status.CANCEL_STATUS;
+                }
+
+                com.keksss.abap.ai.core.AbapDumpAnalyzer analyzer = new com.keksss.abap.ai.core.AbapDumpAnalyzer();
+                com.keksss.abap.ai.core.AnalysisResult result = analyzer.analyze(
+                        new com.keksss.abap.ai.core.AnalysisRequest.Builder()
+                                .title(title)
+                                .dumpContent(content)
+                                .streamListener(new StreamingViewUpdater(display, view, cancellation))
+                                .forceReanalyze(forceReanalyze)
+                                .config(config)
+                                .cancellation(jobCancellation)
+                                .build());
+                jobCancellation.detach();
+                if (cancellation.isCancelled()) {
+                    return org.eclipse.core.runtime.Status.CANCEL_STATUS;
+                }
+
+                // Render here so the UI thread only hands finished markup to the browser
+                String page = com.keksss.abap.ai.core.AnalysisHtmlBuilder.resultPage(result,
+                        java.time.LocalDateTime.now());
+                String style = com.keksss.abap.ai.core.AnalysisHtmlBuilder.styles(page);
+                String body = com.keksss.abap.ai.core.AnalysisHtmlBuilder.bodyContent(page);
+                updateView(display, cancellation, () -> view.setContent(style, body));
+                return result.isCancelled() ? org.eclipse.core.runtime.Status.CANCEL_STATUS
+                        : org.eclipse.core.runtime.Status.OK_STATUS;
+            }
 
-                    if (file != null) {
-                        try (java.io.InputStream is = file.getContents()) {
-                            byte[] bytes = is.readAllBytes();
-                            content = new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
-                        }
-                    } else {
-                        // Try adapting to IStorage
-                        org.eclipse.core.resources.IStorage storage = org.eclipse.core.runtime.Platform
-                                .getAdapterManager()
-                                .getAdapter(firstElement, org.eclipse.core.resources.IStorage.class);
-                        if (storage == null && firstElement instanceof org.eclipse.core.runtime.IAdaptable) {
-                            storage = ((org.eclipse.core.runtime.IAdaptable) firstElement)
-                                    .getAdapter(org.eclipse.core.resources.IStorage.class);
-                        }
-
-                        if (storage != null) {
-                            try (java.io.InputStream is = storage.getContents()) {
-                                byte[] bytes = is.readAllBytes();
-                                content = new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+            @Override
+            protected void canceling() {
+                jobCancellation.cancel();
+            }
+        }.schedule();
+    }
+
+    /**
+     * Analyzes several entries concurrently. Dumps are read first and, unless
+     * disabled, grouped by {@link com.keksss.abap.ai.core.DumpSignature} so
+     * repeats of one error cost a single analysis. A job group bounds the
+     * number of requests in flight; each entry's section in the view is
+     * updated as soon as its own analysis completes. Cancelling a job aborts
+     * its request.
+     */
+    private void analyzeBatch(IWorkbenchWindow window, com.keksss.abap.ai.ui.views.AbapAiResultView view,
+            com.keksss.abap.ai.core.LlmConfig config, java.util.List<Object> entries, boolean forceReanalyze,
+            com.keksss.abap.ai.core.CancellationToken cancellation) {
+        java.util.List<String> titles = new java.util.ArrayList<>();
+        for (Object entry : entries) {
+            titles.add(com.keksss.abap.ai.core.FeedEntryContentProvider.readTitle(entry));
+        }
+
+        int maxParallel = com.keksss.abap.ai.core.PreferenceHelper.getMaxParallelAnalyses();
+        boolean groupBySignature = com.keksss.abap.ai.core.PreferenceHelper.isGroupBySignatureEnabled();
+        view.beginBatch("Analyzing " + entries.size() + " entries with " + config.getProvider().getDisplayName()
+                + " (" + maxParallel + " at a time)" + providerStatus(config), titles);
+
+        org.eclipse.swt.widgets.Display display = window.getShell().getDisplay();
+
+        new org.eclipse.core.runtime.jobs.Job("AI Batch Analysis: reading dumps") {
+            @Override
+            protected org.eclipse.core.runtime.IStatus run(
+                    org.eclipse.core.runtime.IProgressMonitor monitor) {
+                monitor.beginTask("Reading dumps", entries.size());
+                java.util.List<Integer> indexes = new java.util.ArrayList<>();
+                java.util.List<String> contents = new java.util.ArrayList<>();
+                for (int i = 0; i < entries.size(); i++) {
+                    if (monitor.isCanceled() || cancellation.isCancelled()) {
+                        updateView(display, cancellation, () -> {
+                            for (int j = 0; j < entries.size(); j++) {
+                                view.setBatchEntryStatus(j, "Cancelled");
                             }
-                        }
+                        });
+                        return org.eclipse.core.runtime.Status.CANCEL_STATUS;
                     }
+                    indexes.add(i);
+                    contents.add(com.keksss.abap.ai.core.FeedEntryContentProvider.readContent(entries.get(i)));
+                    monitor.worked(1);
+                }
+                monitor.done();
 
-                    // Fallback: Check for "getPreview()" or similar method on the entry directly if
-                    // adaptation fails
-                    if (content.isEmpty()) {
-                        // Check for getSummary() again but parse it better if it's HTML
-                        java.lang.reflect.Method getSummaryMethod = firstElement.getClass().getMethod("getSummary");
-                        Object summaryObj = getSummaryMethod.invoke(firstElement);
-                        if (summaryObj != null) {
-                            // If it returns Content object
-                            try {
-                                java.lang.reflect.Method getValueMethod = summaryObj.getClass().getMethod("getValue");
-                                String val = (String) getValueMethod.invoke(summaryObj);
-                                if (val != null)
-                                    content = val;
-                            } catch (Exception ex) {
-                                content = summaryObj.toString();
-                            }
-                        }
+                java.util.Collection<java.util.List<Integer>> groups;
+                if (groupBySignature) {
+                    groups = com.keksss.abap.ai.core.DumpSignature.group(indexes, contents::get).values();
+                } else {
+                    groups = new java.util.ArrayList<>();
+                    for (Integer index : indexes) {
+                        groups.add(java.util.List.of(index));
                     }
+                }
+                scheduleAnalyses(display, view, config, titles, contents, groups, maxParallel, forceReanalyze,
+                        cancellation);
+                return org.eclipse.core.runtime.Status.OK_STATUS;
+            }
+        }.schedule();
+    }
+
+    /**
+     * Schedules one analysis per group; the first entry of a group is
+     * analyzed and the others link to it
+     */
+    private static void scheduleAnalyses(org.eclipse.swt.widgets.Display display,
+            com.keksss.abap.ai.ui.views.AbapAiResultView view, com.keksss.abap.ai.core.LlmConfig config,
+            java.util.List<String> titles, java.util.List<String> contents,
+            java.util.Collection<java.util.List<Integer>> groups, int maxParallel, boolean forceReanalyze,
+            com.keksss.abap.ai.core.CancellationToken cancellation) {
+        org.eclipse.core.runtime.jobs.JobGroup jobGroup = new org.eclipse.core.runtime.jobs.JobGroup(
+                "AI Batch Analysis", maxParallel, groups.size());
+        com.keksss.abap.ai.core.AbapDumpAnalyzer analyzer = new com.keksss.abap.ai.core.AbapDumpAnalyzer();
 
-                } catch (Exception e) {
-                    // Ignore errors
+        for (java.util.List<Integer> members : groups) {
+            final int index = members.get(0);
+            final String title = titles.get(index);
+            final String occurrences = members.size() > 1 ? ", " + members.size() + " occurrences" : "";
+
+            updateView(display, cancellation, () -> {
+                for (int i = 1; i < members.size(); i++) {
+                    view.setBatchEntryReference(members.get(i), "Same error as", index, title);
                 }
+            });
 
-                // If content is still empty, fallback to description (just in case)
-                if (content == null || content.isEmpty()) {
-                    try {
-                        java.lang.reflect.Method getDescriptionMethod = firstElement.getClass()
-                                .getMethod("getDescription");
-                        Object descObj = getDescriptionMethod.invoke(firstElement);
-                        if (descObj != null) {
-                            // ... existing fallback ...
-                            try {
-                                java.lang.reflect.Method getValueMethod = descObj.getClass().getMethod("getValue");
-                                content = (String) getValueMethod.invoke(descObj);
-                            } catch (Exception ex) {
-                                content = descObj.toString();
-                            }
-                        }
-                    } catch (Exception ignored) {
+            com.keksss.abap.ai.core.CancellationToken jobCancellation = new com.keksss.abap.ai.core.CancellationToken(
+                    cancellation);
+            org.eclipse.core.runtime.jobs.Job job = new org.eclipse.core.runtime.jobs.Job("AI Analysis: " + title) {
+                @Override
+                protected org.eclipse.core.runtime.IStatus run(
+                        org.eclipse.core.runtime.IProgressMonitor monitor) {
+                    if (monitor.isCanceled() || jobCancellation.isCancelled()) {
+                        updateView(display, cancellation, () -> view.setBatchEntryStatus(index, "Cancelled"));
+                        return org.eclipse.core.runtime.Status.CANCEL_STATUS;
+                    }
+                    monitor.beginTask(title, org.eclipse.core.runtime.IProgressMonitor.UNKNOWN);
+                    updateView(display, cancellation,
+                            () -> view.setBatchEntryStatus(index, "Analyzing..." + occurrences));
+
+                    long started = System.currentTimeMillis();
+                    com.keksss.abap.ai.core.AnalysisResult result = analyzer.analyze(
+                            new com.keksss.abap.ai.core.AnalysisRequest.Builder()
+                                    .title(title)
+                                    .dumpContent(contents.get(index))
+                                    .forceReanalyze(forceReanalyze)
+                                    .config(config)
+                                    .cancellation(jobCancellation)
+                                    .build());
+                    // The batch token lives until the next selection; finished jobs leave it
+                    jobCancellation.detach();
+                    if (result.isCancelled()) {
+                        updateView(display, cancellation, () -> view.setBatchEntryStatus(index, "Cancelled"));
+                        return org.eclipse.core.runtime.Status.CANCEL_STATUS;
                     }
+
+                    String status = (!result.isSuccess() ? "Failed"
+                            : result.isFromCache() ? "Done (cached result)"
+                                    : String.format("Done in %.1f s", (System.currentTimeMillis() - started) / 1000.0))
+                            + (result.isFallback() ? " by " + result.getProvider().getDisplayName() : "")
+                            + (result.isPartial() ? " (incomplete)" : "")
+                            + occurrences;
+                    String html = com.keksss.abap.ai.core.AnalysisHtmlBuilder.resultFragment(result);
+                    updateView(display, cancellation, () -> view.setBatchEntryResult(index, status, html));
+                    monitor.done();
+                    return org.eclipse.core.runtime.Status.OK_STATUS;
+                }
+
+                @Override
+                protected void canceling() {
+                    jobCancellation.cancel();
                 }
+            };
+            job.setJobGroup(jobGroup);
+            job.schedule();
+        }
+    }
 
-                // Check LLM configuration
-                com.keksss.abap.ai.core.LlmConfig config = com.keksss.abap.ai.core.PreferenceHelper.getLlmConfig();
+    /**
+     * Health note for the view header if the provider's circuit breaker is
+     * not closed
+     */
+    private static String providerStatus(com.keksss.abap.ai.core.LlmConfig config) {
+        String state = com.keksss.abap.ai.core.LlmCircuitBreaker.forProvider(config.getProvider()).describe();
+        return state != null ? " - " + state : "";
+    }
+
+    private static void updateView(org.eclipse.swt.widgets.Display display, Runnable update) {
+        if (!display.isDisposed()) {
+            display.asyncExec(update);
+        }
+    }
 
-                if (config.getProvider().requiresApiKey() &&
-                        (config.getApiKey() == null || config.getApiKey().isEmpty())) {
-                    MessageDialog.openError(window.getShell(), "Configuration Error",
-                            "LLM API Key is not configured for " + config.getProvider().getDisplayName() + ".");
-                    return null;
+    /**
+     * Updates the view unless a newer analysis has taken it over. The check
+     * runs on the UI thread, where analyses are started, so a superseded
+     * analysis can never overwrite its successor.
+     */
+    private static void updateView(org.eclipse.swt.widgets.Display display,
+            com.keksss.abap.ai.core.CancellationToken owner, Runnable update) {
+        updateView(display, () -> {
+            if (!owner.isCancelled()) {
+                update.run();
+            }
+        });
+    }
+
+    /**
+     * Forwards streamed text to the result view. Fragments arriving while a UI
+     * update is already queued are coalesced into that update, so a fast model
+     * does not flood the display thread with one runnable per token. A restart
+     * is applied by the same update, ahead of the text that follows it.
+     */
+    private static class StreamingViewUpdater implements com.keksss.abap.ai.core.AnalysisStreamListener {
+
+        private final org.eclipse.swt.widgets.Display display;
+        private final com.keksss.abap.ai.ui.views.AbapAiResultView view;
+        private final com.keksss.abap.ai.core.CancellationToken owner;
+        private final StringBuilder pending = new StringBuilder();
+        private String restartHeader;
+        private boolean flushScheduled;
+
+        StreamingViewUpdater(org.eclipse.swt.widgets.Display display,
+                com.keksss.abap.ai.ui.views.AbapAiResultView view, com.keksss.abap.ai.core.CancellationToken owner) {
+            this.display = display;
+            this.view = view;
+            this.owner = owner;
+        }
+
+        @Override
+        public void onPartialText(String text) {
+            synchronized (pending) {
+                pending.append(text);
+                if (flushScheduled) {
+                    return;
                 }
+                flushScheduled = true;
+            }
+            if (!display.isDisposed()) {
+                display.asyncExec(this::flush);
+            }
+        }
 
-                try {
-                    // Open and show the view
-                    com.keksss.abap.ai.ui.views.AbapAiResultView view = (com.keksss.abap.ai.ui.views.AbapAiResultView) window
-                            .getActivePage()
-                            .showView(com.keksss.abap.ai.ui.views.AbapAiResultView.ID);
-
-                    view.setContent("<html><body><h3>Analyzing...</h3></body></html>");
-
-                    // Run analysis in a job or thread to avoid freezing UI (for now simple
-                    // thread/job)
-                    // For simplicity in this handler, we might run it sync or use a simple job.
-                    // Given the usually short response time, a Job is better but let's stick to
-                    // simple logic for this step
-                    // or better, use a Job to not block UI.
-
-                    final String finalTitle = title;
-                    final String finalContent = content;
-
-                    new org.eclipse.core.runtime.jobs.Job("AI Analysis") {
-                        @Override
-                        protected org.eclipse.core.runtime.IStatus run(
-                                org.eclipse.core.runtime.IProgressMonitor monitor) {
-                            com.keksss.abap.ai.core.AbapDumpAnalyzer analyzer = new com.keksss.abap.ai.core.AbapDumpAnalyzer();
-                            com.keksss.abap.ai.core.AnalysisResult result = analyzer.analyzeDump(finalTitle,
-                                    finalContent);
-
-                            window.getShell().getDisplay().asyncExec(() -> {
-                                if (result.isSuccess()) {
-                                    java.time.LocalDateTime now = java.time.LocalDateTime.now();
-                                    String dateStr = now
-                                            .format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                                    String timeStr = now
-                                            .format(java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss"));
-
-                                    String analysisText = result.getAnalysisText();
-
-                                    // Check if the content is predominantly HTML (full document)
-                                    boolean isHtml = false;
-                                    if (analysisText != null) {
-                                        String trimmed = analysisText.trim().toLowerCase();
-                                        isHtml = trimmed.startsWith("<!doctype") || trimmed.startsWith("<html");
-                                    }
-
-                                    if (isHtml) {
-                                        // It is a full HTML document.
-                                        // We inject the timestamp header for consistency but preserve the HTML
-                                        // structure.
-                                        String timestampHtml = "<div style='font-family: sans-serif; color: #555; font-size: 0.9em; padding: 10px; border-bottom: 1px solid #eee; background-color: #fcfcfc;'>Analysis Date: "
-                                                + dateStr + ", Time: " + timeStr + "</div>";
-
-                                        // Inject after <body> tag
-                                        String finalHtml = analysisText.replaceFirst("(?i)<body>",
-                                                "<body>" + timestampHtml);
-                                        // If replacement didn't happen (no body tag), just use original
-                                        if (finalHtml.equals(analysisText)) {
-                                            finalHtml = analysisText;
-                                        }
-                                        view.setContent(finalHtml);
-                                    } else {
-                                        // Treat as plain text
-                                        String html = "<html><style>" +
-                                                "body { font-family: sans-serif; padding: 10px; }" +
-                                                ".header { color: #555; font-size: 0.9em; margin-bottom: 15px; }" +
-                                                ".title { font-size: 1.2em; font-weight: bold; margin-bottom: 20px; }" +
-                                                ".content { border: 1px solid #ccc; padding: 15px; background-color: #f9f9f9; border-radius: 5px; }"
-                                                +
-                                                "</style><body>" +
-                                                "<div class='header'>Date: " + dateStr + ", Time: " + timeStr + "</div>"
-                                                +
-                                                "<div class='content'>"
-                                                + (analysisText != null ? analysisText.replace("\n", "<br/>") : "")
-                                                + "</div>"
-                                                +
-                                                "</body></html>";
-                                        view.setContent(html);
-                                    }
-                                } else {
-                                    view.setContent("<html><body><h3>Error</h3><p>" + result.getErrorMessage()
-                                            + "</p></body></html>");
-                                }
-                            });
-                            return org.eclipse.core.runtime.Status.OK_STATUS;
-                        }
-                    }.schedule();
-
-                } catch (Exception e) {
-                    MessageDialog.openError(window.getShell(), "Error",
-                            "Failed to open results view: " + e.getMessage());
+        @Override
+        public void onRestart(com.keksss.abap.ai.core.LlmProvider provider) {
+            synchronized (pending) {
+                pending.setLength(0);
+                restartHeader = "Previous provider failed, continuing with " + provider.getDisplayName() + "...";
+                if (flushScheduled) {
+                    return;
                 }
-            } else {
-                MessageDialog.openWarning(
-                        window.getShell(),
-                        "Analyze with AI",
-                        "Please select a valid ABAP feed entry.");
+                flushScheduled = true;
+            }
+            if (!display.isDisposed()) {
+                display.asyncExec(this::flush);
             }
         }
 
-        return null;
+        private void flush() {
+            String header;
+            String text;
+            synchronized (pending) {
+                header = restartHeader;
+                text = pending.toString();
+                restartHeader = null;
+                pending.setLength(0);
+                flushScheduled = false;
+            }
+            if (owner.isCancelled()) {
+                return;
+            }
+            if (header != null) {
+                view.beginStreaming(header);
+            }
+            view.appendStreamText(text);
+        }
     }
 }
@@ -0,0 +1,133 @@
+package com.keksss.abap.ai.ui.handlers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.AbstractTreeViewer;
+import org.eclipse.jface.viewers.IContentProvider;
+import org.eclipse.jface.viewers.ISelectionProvider;
+import org.eclipse.jface.viewers.IStructuredContentProvider;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.IStartup;
+import org.eclipse.ui.IViewPart;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
+
+import com.keksss.abap.ai.core.FeedEntryContentProvider;
+import com.keksss.abap.ai.core.PreAnalyzer;
+import com.keksss.abap.ai.core.PreferenceHelper;
+
+/**
+ * Hands runtime errors appearing in the ADT Feeds view to the
+ * {@link PreAnalyzer} while background pre-analysis is enabled. The view is
+ * polled for entries it already shows; collapsed nodes are not expanded, so
+ * polling never makes the feed reader fetch anything.
+ */
+public class FeedPreAnalyzer implements IStartup {
+
+    private static final String FEEDS_VIEW_ID = "com.sap.adt.feedreader.ui.FeedsView";
+    private static final int POLL_INTERVAL_MS = 60_000;
+    private static final int MAX_DEPTH = 4;
+    private static final int MAX_ENTRIES_PER_POLL = 100;
+
+    /** Entries already handed over, held weakly so dropped entries are forgotten */
+    private final Set<Object> seen = Collections.newSetFromMap(new WeakHashMap<>());
+
+    @Override
+    public void earlyStartup() {
+        IWorkbench workbench = PlatformUI.getWorkbench();
+        Display display = workbench.getDisplay();
+        display.asyncExec(() -> display.timerExec(POLL_INTERVAL_MS, new Runnable() {
+            @Override
+            public void run() {
+                if (display.isDisposed() || workbench.isClosing()) {
+                    return;
+                }
+                if (PreferenceHelper.isPreAnalysisEnabled()) {
+                    poll(workbench, display);
+                }
+                display.timerExec(POLL_INTERVAL_MS, this);
+            }
+        }));
+    }
+
+    /**
+     * Collects new entries of all open Feeds views and submits them in a job.
+     * Must be called on the UI thread.
+     */
+    private void poll(IWorkbench workbench, Display display) {
+        List<Object> entries = new ArrayList<>();
+        for (IWorkbenchWindow window : workbench.getWorkbenchWindows()) {
+            for (IWorkbenchPage page : window.getPages()) {
+                IViewPart view = page.findView(FEEDS_VIEW_ID);
+                ISelectionProvider provider = view != null ? view.getSite().getSelectionProvider() : null;
+                if (provider instanceof StructuredViewer) {
+                    StructuredViewer viewer = (StructuredViewer) provider;
+                    IContentProvider contentProvider = viewer.getContentProvider();
+                    if (contentProvider instanceof IStructuredContentProvider) {
+                        collect(viewer, (IStructuredContentProvider) contentProvider,
+                                ((IStructuredContentProvider) contentProvider).getElements(viewer.getInput()),
+                                0, entries);
+                    }
+                }
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Job job = new Job("Pre-analyzing new runtime errors") {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                for (int i = 0; i < entries.size(); i++) {
+                    Object entry = entries.get(i);
+                    // Reading the dump may hit the backend, so it is done here and not on the UI thread
+                    if (monitor.isCanceled() || !PreAnalyzer.getInstance().submit(
+                            FeedEntryContentProvider.readTitle(entry), FeedEntryContentProvider.readContent(entry))) {
+                        // Queue full or disabled meanwhile: offer the rest again with the next poll
+                        List<Object> rest = new ArrayList<>(entries.subList(i, entries.size()));
+                        display.asyncExec(() -> seen.removeAll(rest));
+                        break;
+                    }
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.setPriority(Job.DECORATE);
+        job.schedule();
+    }
+
+    private void collect(StructuredViewer viewer, IStructuredContentProvider contentProvider, Object[] elements,
+            int depth, List<Object> entries) {
+        if (elements == null) {
+            return;
+        }
+        for (Object element : elements) {
+            if (entries.size() >= MAX_ENTRIES_PER_POLL) {
+                return;
+            }
+            if (FeedEntryContentProvider.isFeedEntry(element)) {
+                if (seen.add(element)) {
+                    entries.add(element);
+                }
+            } else if (depth < MAX_DEPTH && contentProvider instanceof ITreeContentProvider
+                    && viewer instanceof AbstractTreeViewer
+                    && ((AbstractTreeViewer) viewer).getExpandedState(element)) {
+                collect(viewer, contentProvider, ((ITreeContentProvider) contentProvider).getChildren(element),
+                        depth + 1, entries);
+            }
+        }
+    }
+}
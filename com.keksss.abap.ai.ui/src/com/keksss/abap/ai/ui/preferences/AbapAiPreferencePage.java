@@ -1,11 +1,8 @@
 package com.keksss.abap.ai.ui.preferences;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.preference.PreferencePage;
@@ -24,8 +21,10 @@ import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
 import org.eclipse.ui.preferences.ScopedPreferenceStore;
 
-import com.keksss.abap.ai.core.LlmClient;
+import com.keksss.abap.ai.core.LlmConfig;
 import com.keksss.abap.ai.core.LlmProvider;
+import com.keksss.abap.ai.core.ModelCatalog;
+import com.keksss.abap.ai.core.PreferenceHelper;
 import com.keksss.abap.ai.ui.Activator;
 
 /**
@@ -44,6 +43,16 @@ public class AbapAiPreferencePage extends PreferencePage implements IWorkbenchPr
 	private org.eclipse.swt.widgets.Scale temperatureScale;
 	private Label temperatureValueLabel;
 	private org.eclipse.swt.widgets.Spinner maxTokensSpinner;
+	private org.eclipse.swt.widgets.Spinner maxInputTokensSpinner;
+	private org.eclipse.swt.widgets.Spinner requestsPerMinuteSpinner;
+	private org.eclipse.swt.widgets.Spinner tokensPerMinuteSpinner;
+
+	// Failover
+	private static final int MAX_BACKUPS = 3;
+	private final Combo[] backupCombos = new Combo[MAX_BACKUPS];
+	private Button hedgingCheckbox;
+	private org.eclipse.swt.widgets.Spinner circuitThresholdSpinner;
+	private org.eclipse.swt.widgets.Spinner circuitOpenSecondsSpinner;
 
 	// Status
 	private Label statusLabel;
@@ -88,6 +97,7 @@ public class AbapAiPreferencePage extends PreferencePage implements IWorkbenchPr
 		providerCombo.addSelectionListener(new SelectionAdapter() {
 			@Override
 			public void widgetSelected(SelectionEvent event) {
+				loadProviderSettings();
 				updateUIForProvider();
 			}
 		});
@@ -213,6 +223,112 @@ public class AbapAiPreferencePage extends PreferencePage implements IWorkbenchPr
 		}
 		maxTokensSpinner.setSelection(currentMaxTokens);
 
+		// Max Input Tokens (prompt budget; oversized dumps are compacted to fit)
+		Label maxInputTokensLabel = new Label(advancedGroup, SWT.NONE);
+		maxInputTokensLabel.setText("Max Input Tokens:");
+		maxInputTokensLabel.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, false, false));
+
+		maxInputTokensSpinner = new org.eclipse.swt.widgets.Spinner(advancedGroup, SWT.BORDER);
+		maxInputTokensSpinner.setMinimum(2000);
+		maxInputTokensSpinner.setMaximum(2000000);
+		maxInputTokensSpinner.setIncrement(1000);
+		maxInputTokensSpinner.setPageIncrement(10000);
+		maxInputTokensSpinner.setToolTipText("Dumps larger than this budget are compacted before they are sent");
+		GridData maxInputTokensData = new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1);
+		maxInputTokensSpinner.setLayoutData(maxInputTokensData);
+
+		int currentMaxInputTokens = getPreferenceStore().getInt(PreferenceConstants.P_LLM_MAX_INPUT_TOKENS);
+		if (currentMaxInputTokens == 0) {
+			currentMaxInputTokens = 16000; // Default
+		}
+		maxInputTokensSpinner.setSelection(currentMaxInputTokens);
+
+		// Rate limits of the selected provider, shared by all analyses
+		Label requestsPerMinuteLabel = new Label(advancedGroup, SWT.NONE);
+		requestsPerMinuteLabel.setText("Requests / Minute:");
+		requestsPerMinuteLabel.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, false, false));
+
+		requestsPerMinuteSpinner = new org.eclipse.swt.widgets.Spinner(advancedGroup, SWT.BORDER);
+		requestsPerMinuteSpinner.setMinimum(0);
+		requestsPerMinuteSpinner.setMaximum(100000);
+		requestsPerMinuteSpinner.setIncrement(1);
+		requestsPerMinuteSpinner.setPageIncrement(10);
+		requestsPerMinuteSpinner.setToolTipText("Requests are queued to stay below this limit (0 = unlimited)");
+		requestsPerMinuteSpinner.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+
+		Label tokensPerMinuteLabel = new Label(advancedGroup, SWT.NONE);
+		tokensPerMinuteLabel.setText("Tokens / Minute:");
+		tokensPerMinuteLabel.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, false, false));
+
+		tokensPerMinuteSpinner = new org.eclipse.swt.widgets.Spinner(advancedGroup, SWT.BORDER);
+		tokensPerMinuteSpinner.setMinimum(0);
+		tokensPerMinuteSpinner.setMaximum(100000000);
+		tokensPerMinuteSpinner.setIncrement(1000);
+		tokensPerMinuteSpinner.setPageIncrement(10000);
+		tokensPerMinuteSpinner.setToolTipText("Prompt plus max tokens per minute (0 = unlimited)");
+		tokensPerMinuteSpinner.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+
+		requestsPerMinuteSpinner.setSelection(getPreferenceStore()
+				.getInt(providerKey(PreferenceConstants.P_LLM_REQUESTS_PER_MINUTE, selectedProvider)));
+		tokensPerMinuteSpinner.setSelection(getPreferenceStore()
+				.getInt(providerKey(PreferenceConstants.P_LLM_TOKENS_PER_MINUTE, selectedProvider)));
+
+		// ========== Failover Section ==========
+		org.eclipse.swt.widgets.Group failoverGroup = new org.eclipse.swt.widgets.Group(container, SWT.NONE);
+		failoverGroup.setText("Failover");
+		failoverGroup.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 3, 1));
+		failoverGroup.setLayout(new GridLayout(2, false));
+
+		String[] chain = getPreferenceStore().getString(PreferenceConstants.P_LLM_FAILOVER_PROVIDERS).split(",");
+		for (int i = 0; i < MAX_BACKUPS; i++) {
+			Label backupLabel = new Label(failoverGroup, SWT.NONE);
+			backupLabel.setText("Backup " + (i + 1) + ":");
+
+			backupCombos[i] = new Combo(failoverGroup, SWT.DROP_DOWN | SWT.READ_ONLY);
+			backupCombos[i].setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+			backupCombos[i].add("None");
+			for (LlmProvider provider : LlmProvider.values()) {
+				backupCombos[i].add(provider.getDisplayName());
+			}
+			backupCombos[i].select(0);
+			if (i < chain.length && !chain[i].trim().isEmpty()) {
+				backupCombos[i].select(getProviderIndex(LlmProvider.fromString(chain[i].trim())) + 1);
+			}
+		}
+
+		hedgingCheckbox = new Button(failoverGroup, SWT.CHECK);
+		hedgingCheckbox.setText("Hedge slow requests with Backup 1");
+		hedgingCheckbox.setToolTipText("If the provider has not started answering within its usual (p95) time,"
+				+ " the request is also sent to the next backup and the first complete answer is used");
+		hedgingCheckbox.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+		hedgingCheckbox.setSelection(getPreferenceStore().getBoolean(PreferenceConstants.P_LLM_HEDGING));
+
+		Label failoverNote = new Label(failoverGroup, SWT.WRAP);
+		failoverNote.setText("Backups use the API key, model and base URL last saved for that provider on this page.");
+		failoverNote.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+
+		// Circuit breaker: fail fast while a provider keeps failing
+		Label circuitThresholdLabel = new Label(failoverGroup, SWT.NONE);
+		circuitThresholdLabel.setText("Pause provider after failures:");
+
+		circuitThresholdSpinner = new org.eclipse.swt.widgets.Spinner(failoverGroup, SWT.BORDER);
+		circuitThresholdSpinner.setMinimum(1);
+		circuitThresholdSpinner.setMaximum(100);
+		circuitThresholdSpinner.setToolTipText(
+				"Consecutive connection, authentication or server errors before requests fail immediately");
+		circuitThresholdSpinner.setSelection(
+				getPreferenceStore().getInt(PreferenceConstants.P_CIRCUIT_FAILURE_THRESHOLD));
+
+		Label circuitOpenLabel = new Label(failoverGroup, SWT.NONE);
+		circuitOpenLabel.setText("Pause duration (seconds):");
+
+		circuitOpenSecondsSpinner = new org.eclipse.swt.widgets.Spinner(failoverGroup, SWT.BORDER);
+		circuitOpenSecondsSpinner.setMinimum(1);
+		circuitOpenSecondsSpinner.setMaximum(3600);
+		circuitOpenSecondsSpinner.setIncrement(5);
+		circuitOpenSecondsSpinner.setToolTipText("The provider is probed in the background and used again once it answers");
+		circuitOpenSecondsSpinner.setSelection(getPreferenceStore().getInt(PreferenceConstants.P_CIRCUIT_OPEN_SECONDS));
+
 		// ========== Status Section ==========
 		Label separator2 = new Label(container, SWT.SEPARATOR | SWT.HORIZONTAL);
 		GridData sepData2 = new GridData(SWT.FILL, SWT.CENTER, true, false, 3, 1);
@@ -232,6 +348,24 @@ public class AbapAiPreferencePage extends PreferencePage implements IWorkbenchPr
 		// Update UI based on selected provider
 		updateUIForProvider();
 
+		// Cached models are shown right away; stale lists are refreshed in the
+		// background and the combo is updated when they arrive
+		final var display = container.getDisplay();
+		LlmConfig savedConfig = PreferenceHelper.getLlmConfig();
+		List<LlmConfig> configuredProviders = new ArrayList<>();
+		configuredProviders.add(savedConfig);
+		configuredProviders.addAll(savedConfig.getFallbacks());
+		ModelCatalog.getInstance().refreshStale(configuredProviders)
+				.thenRun(() -> {
+					if (!display.isDisposed()) {
+						display.asyncExec(() -> {
+							if (!modelCombo.isDisposed()) {
+								showCachedModels();
+							}
+						});
+					}
+				});
+
 		return container;
 	}
 
@@ -256,12 +390,104 @@ public class AbapAiPreferencePage extends PreferencePage implements IWorkbenchPr
 		((GridData) baseUrlLabel.getLayoutData()).exclude = !showBaseUrl;
 
 		// Update placeholder text for base URL
-		if (provider == LlmProvider.OLLAMA) {
-			baseUrlText.setMessage("http://localhost:11434");
+		if (showBaseUrl) {
+			baseUrlText.setMessage(provider.getDefaultBaseUrl());
 		}
 
 		// Re-layout
 		baseUrlLabel.getParent().layout();
+
+		showCachedModels();
+	}
+
+	/**
+	 * Fill API key, base URL, model and rate limits with the values last
+	 * saved for the newly selected provider, if any
+	 */
+	private void loadProviderSettings() {
+		LlmProvider provider = LlmProvider.values()[Math.max(0, providerCombo.getSelectionIndex())];
+		String apiKey = getPreferenceStore().getString(providerKey(PreferenceConstants.P_LLM_API_KEY, provider));
+		if (!apiKey.isEmpty()) {
+			apiKeyText.setText(apiKey);
+		}
+		String baseUrl = getPreferenceStore().getString(providerKey(PreferenceConstants.P_LLM_BASE_URL, provider));
+		if (!baseUrl.isEmpty()) {
+			baseUrlText.setText(baseUrl);
+		}
+		String model = getPreferenceStore().getString(providerKey(PreferenceConstants.P_LLM_MODEL, provider));
+		if (!model.isEmpty()) {
+			modelCombo.setText(model);
+		}
+		requestsPerMinuteSpinner.setSelection(
+				getPreferenceStore().getInt(providerKey(PreferenceConstants.P_LLM_REQUESTS_PER_MINUTE, provider)));
+		tokensPerMinuteSpinner.setSelection(
+				getPreferenceStore().getInt(providerKey(PreferenceConstants.P_LLM_TOKENS_PER_MINUTE, provider)));
+	}
+
+	/**
+	 * Key of a setting saved for one provider
+	 */
+	private static String providerKey(String key, LlmProvider provider) {
+		return key + "." + provider.name();
+	}
+
+	/**
+	 * Fill the model combo from the model catalog without network access
+	 */
+	private void showCachedModels() {
+		LlmConfig config = createFormConfig();
+		List<String> models = ModelCatalog.getInstance().getCachedModels(config);
+		if (models.isEmpty()) {
+			return;
+		}
+		setModelItems(models, false);
+
+		long fetchedAt = ModelCatalog.getInstance().getFetchedAt(config);
+		statusLabel.setText(models.size() + " models (cached "
+				+ java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+						.format(java.time.Instant.ofEpochMilli(fetchedAt).atZone(java.time.ZoneId.systemDefault()))
+				+ ")");
+		statusLabel.setForeground(statusLabel.getDisplay().getSystemColor(SWT.COLOR_DARK_GREEN));
+	}
+
+	/**
+	 * Replace the model combo items, keeping the current model selected if
+	 * it is still offered
+	 */
+	private void setModelItems(List<String> models, boolean selectFirstIfMissing) {
+		String currentSelection = modelCombo.getText();
+		modelCombo.removeAll();
+		for (String model : models) {
+			modelCombo.add(model);
+		}
+
+		// Restore selection if possible, or select first
+		int index = -1;
+		for (int i = 0; i < modelCombo.getItemCount(); i++) {
+			if (modelCombo.getItem(i).equals(currentSelection)) {
+				index = i;
+				break;
+			}
+		}
+		if (index >= 0) {
+			modelCombo.select(index);
+		} else if (selectFirstIfMissing && modelCombo.getItemCount() > 0) {
+			modelCombo.select(0);
+		} else {
+			modelCombo.setText(currentSelection);
+		}
+	}
+
+	/**
+	 * Build a configuration from the values currently entered on the page
+	 */
+	private LlmConfig createFormConfig() {
+		return new LlmConfig.Builder()
+				.provider(LlmProvider.values()[Math.max(0, providerCombo.getSelectionIndex())])
+				.apiKey(apiKeyText.getText().trim())
+				.baseUrl(baseUrlText.getText().trim())
+				.model(modelCombo.getText())
+				.build();
 	}
 
 	/**
@@ -291,82 +517,45 @@ public class AbapAiPreferencePage extends PreferencePage implements IWorkbenchPr
 
 		refreshButton.setEnabled(false);
 
-		// Capture shell, display and text field values on UI thread before starting
-		// background
-		// job
+		// Capture shell and display on UI thread; the catalog fetches in the
+		// background with the values entered on the page
 		final var shell = getShell();
 		final var display = shell.getDisplay();
-		final String apiKey = apiKeyText.getText().trim();
-		final String baseUrl = baseUrlText.getText().trim();
 
-		Job job = new Job("Fetching Models from " + provider.getDisplayName()) {
-			@Override
-			protected IStatus run(IProgressMonitor monitor) {
-				try {
-					// Temporarily save settings to preferences for LlmClient to use
-					getPreferenceStore().setValue(PreferenceConstants.P_LLM_PROVIDER, provider.name());
-					getPreferenceStore().setValue(PreferenceConstants.P_LLM_API_KEY, apiKey);
-					getPreferenceStore().setValue(PreferenceConstants.P_LLM_BASE_URL, baseUrl);
-
-					LlmClient client = new LlmClient();
-					List<String> models = client.fetchAvailableModels();
-
-					display.asyncExec(() -> {
-						if (!modelCombo.isDisposed()) {
-							String currentSelection = modelCombo.getText();
-							modelCombo.removeAll();
-							for (String model : models) {
-								modelCombo.add(model);
-							}
+		ModelCatalog.getInstance().refresh(createFormConfig()).whenComplete((models, ex) -> {
+			if (!display.isDisposed()) {
+				display.asyncExec(() -> showRefreshResult(shell, models, ex));
+			}
+		});
+	}
 
-							// Restore selection if possible, or select first
-							int index = -1;
-							for (int i = 0; i < modelCombo.getItemCount(); i++) {
-								if (modelCombo.getItem(i).equals(currentSelection)) {
-									index = i;
-									break;
-								}
-							}
-							if (index >= 0) {
-								modelCombo.select(index);
-							} else if (modelCombo.getItemCount() > 0) {
-								modelCombo.select(0);
-							}
+	/**
+	 * Show the outcome of an explicit refresh; runs on the UI thread
+	 */
+	private void showRefreshResult(org.eclipse.swt.widgets.Shell shell, List<String> models, Throwable ex) {
+		if (!refreshButton.isDisposed()) {
+			refreshButton.setEnabled(true);
+		}
+		if (modelCombo.isDisposed()) {
+			return;
+		}
 
-							refreshButton.setEnabled(true);
+		if (ex == null) {
+			setModelItems(models, true);
 
-							// Update status
-							if (!statusLabel.isDisposed()) {
-								statusLabel.setText("✓ Connected successfully");
-								statusLabel.setForeground(display.getSystemColor(SWT.COLOR_DARK_GREEN));
-							}
+			// Update status
+			statusLabel.setText("✓ Connected successfully");
+			statusLabel.setForeground(shell.getDisplay().getSystemColor(SWT.COLOR_DARK_GREEN));
 
-							MessageDialog.openInformation(shell, "Success",
-									"Models refreshed successfully. Found: " + models.size());
-						}
-					});
-
-					return Status.OK_STATUS;
-				} catch (Exception ex) {
-					// Handle error on UI thread
-					display.asyncExec(() -> {
-						if (!refreshButton.isDisposed()) {
-							refreshButton.setEnabled(true);
-						}
-
-						// Update status with error
-						if (!statusLabel.isDisposed()) {
-							statusLabel.setText("✗ Connection failed: " + ex.getMessage());
-							statusLabel.setForeground(display.getSystemColor(SWT.COLOR_RED));
-						}
-
-						MessageDialog.openError(shell, "Error", "Failed to fetch models: " + ex.getMessage());
-					});
-					return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Failed to fetch models", ex);
-				}
-			}
-		};
-		job.schedule();
+			MessageDialog.openInformation(shell, "Success",
+					"Models refreshed successfully. Found: " + models.size());
+		} else {
+			// Update status with error
+			statusLabel.setText("✗ Connection failed: " + ex.getMessage());
+			statusLabel.setForeground(shell.getDisplay().getSystemColor(SWT.COLOR_RED));
+
+			MessageDialog.openError(shell, "Error", "Failed to fetch models: " + ex.getMessage());
+		}
 	}
 
 	@Override
@@ -378,10 +567,41 @@ public class AbapAiPreferencePage extends PreferencePage implements IWorkbenchPr
 		getPreferenceStore().setValue(PreferenceConstants.P_LLM_MODEL, modelCombo.getText());
 		getPreferenceStore().setValue(PreferenceConstants.P_LLM_BASE_URL, baseUrlText.getText().trim());
 
+		// Remember the settings per provider so it can serve as a backup later
+		getPreferenceStore().setValue(providerKey(PreferenceConstants.P_LLM_API_KEY, provider),
+				apiKeyText.getText().trim());
+		getPreferenceStore().setValue(providerKey(PreferenceConstants.P_LLM_MODEL, provider), modelCombo.getText());
+		getPreferenceStore().setValue(providerKey(PreferenceConstants.P_LLM_BASE_URL, provider),
+				baseUrlText.getText().trim());
+		getPreferenceStore().setValue(providerKey(PreferenceConstants.P_LLM_REQUESTS_PER_MINUTE, provider),
+				requestsPerMinuteSpinner.getSelection());
+		getPreferenceStore().setValue(providerKey(PreferenceConstants.P_LLM_TOKENS_PER_MINUTE, provider),
+				tokensPerMinuteSpinner.getSelection());
+
+		// Save Failover
+		List<String> chain = new ArrayList<>();
+		for (Combo backupCombo : backupCombos) {
+			int index = backupCombo.getSelectionIndex();
+			if (index > 0) {
+				LlmProvider backup = LlmProvider.values()[index - 1];
+				if (backup != provider && !chain.contains(backup.name())) {
+					chain.add(backup.name());
+				}
+			}
+		}
+		getPreferenceStore().setValue(PreferenceConstants.P_LLM_FAILOVER_PROVIDERS, String.join(",", chain));
+		getPreferenceStore().setValue(PreferenceConstants.P_LLM_HEDGING, hedgingCheckbox.getSelection());
+		getPreferenceStore().setValue(PreferenceConstants.P_CIRCUIT_FAILURE_THRESHOLD,
+				circuitThresholdSpinner.getSelection());
+		getPreferenceStore().setValue(PreferenceConstants.P_CIRCUIT_OPEN_SECONDS,
+				circuitOpenSecondsSpinner.getSelection());
+
 		// Save Advanced Settings
 		double temperature = temperatureScale.getSelection() / 100.0;
 		getPreferenceStore().setValue(PreferenceConstants.P_LLM_TEMPERATURE, temperature);
 		getPreferenceStore().setValue(PreferenceConstants.P_LLM_MAX_TOKENS, maxTokensSpinner.getSelection());
+		getPreferenceStore().setValue(PreferenceConstants.P_LLM_MAX_INPUT_TOKENS,
+				maxInputTokensSpinner.getSelection());
 
 		return super.performOk();
 	}
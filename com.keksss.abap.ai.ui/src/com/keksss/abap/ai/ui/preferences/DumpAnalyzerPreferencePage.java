@@ -1,7 +1,9 @@
 package com.keksss.abap.ai.ui.preferences;
 
+import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyEvent;
 import org.eclipse.swt.events.ModifyListener;
@@ -41,6 +43,78 @@ public class DumpAnalyzerPreferencePage extends FieldEditorPreferencePage implem
         GridData gd = new GridData(GridData.FILL_HORIZONTAL);
         gd.horizontalSpan = 2; // Span across the grid columns
         note.setLayoutData(gd);
+
+        IntegerFieldEditor dumpSizeEditor = new IntegerFieldEditor(
+                PreferenceConstants.P_DUMP_MAX_SIZE_KB,
+                "Maximum dump size read from a feed entry (KB):",
+                getFieldEditorParent());
+        dumpSizeEditor.setValidRange(64, 102400);
+        addField(dumpSizeEditor);
+
+        // Analysis cache
+        addField(new BooleanFieldEditor(
+                PreferenceConstants.P_ANALYSIS_CACHE_ENABLED,
+                "Reuse cached analyses of identical dumps",
+                getFieldEditorParent()));
+
+        IntegerFieldEditor ttlEditor = new IntegerFieldEditor(
+                PreferenceConstants.P_ANALYSIS_CACHE_TTL_HOURS,
+                "Cache entry lifetime (hours, 0 = unlimited):",
+                getFieldEditorParent());
+        ttlEditor.setValidRange(0, 8760);
+        addField(ttlEditor);
+
+        IntegerFieldEditor sizeEditor = new IntegerFieldEditor(
+                PreferenceConstants.P_ANALYSIS_CACHE_MAX_SIZE_MB,
+                "Maximum cache size (MB):",
+                getFieldEditorParent());
+        sizeEditor.setValidRange(1, 1024);
+        addField(sizeEditor);
+
+        // Searchable history of past analyses
+        addField(new BooleanFieldEditor(
+                PreferenceConstants.P_ANALYSIS_HISTORY_ENABLED,
+                "Keep completed analyses in the history",
+                getFieldEditorParent()));
+
+        IntegerFieldEditor historySizeEditor = new IntegerFieldEditor(
+                PreferenceConstants.P_ANALYSIS_HISTORY_MAX_SIZE_MB,
+                "Maximum history size (MB):",
+                getFieldEditorParent());
+        historySizeEditor.setValidRange(1, 4096);
+        addField(historySizeEditor);
+
+        // Batch analysis of multiple selected entries
+        IntegerFieldEditor parallelEditor = new IntegerFieldEditor(
+                PreferenceConstants.P_ANALYSIS_MAX_PARALLEL,
+                "Parallel analyses for multiple entries:",
+                getFieldEditorParent());
+        parallelEditor.setValidRange(1, 16);
+        addField(parallelEditor);
+
+        addField(new BooleanFieldEditor(
+                PreferenceConstants.P_ANALYSIS_GROUP_BY_SIGNATURE,
+                "Analyze identical errors only once (group by signature)",
+                getFieldEditorParent()));
+
+        // Oversized dumps: summarize chunks in parallel instead of shortening
+        addField(new BooleanFieldEditor(
+                PreferenceConstants.P_MAP_REDUCE_ENABLED,
+                "Summarize dumps exceeding the input budget in parts instead of shortening them",
+                getFieldEditorParent()));
+
+        // Speculative analysis of new feed entries
+        addField(new BooleanFieldEditor(
+                PreferenceConstants.P_PRE_ANALYSIS_ENABLED,
+                "Pre-analyze new runtime errors from the feed in the background",
+                getFieldEditorParent()));
+
+        IntegerFieldEditor preAnalysisBudgetEditor = new IntegerFieldEditor(
+                PreferenceConstants.P_PRE_ANALYSIS_DAILY_TOKENS,
+                "Pre-analysis token budget per day:",
+                getFieldEditorParent());
+        preAnalysisBudgetEditor.setValidRange(0, 100000000);
+        addField(preAnalysisBudgetEditor);
     }
 
     // Custom MultiLine String Field Editor if StringFieldEditor doesn't support
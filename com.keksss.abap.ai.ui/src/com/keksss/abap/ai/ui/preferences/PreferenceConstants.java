@@ -12,7 +12,41 @@ public class PreferenceConstants {
 	public static final String P_LLM_BASE_URL = "llmBaseUrl";
 	public static final String P_LLM_TEMPERATURE = "llmTemperature";
 	public static final String P_LLM_MAX_TOKENS = "llmMaxTokens";
+	public static final String P_LLM_MAX_INPUT_TOKENS = "llmMaxInputTokens";
+
+	// ========== Rate Limits (saved per provider, 0 = unlimited) ==========
+	public static final String P_LLM_REQUESTS_PER_MINUTE = "llmRequestsPerMinute";
+	public static final String P_LLM_TOKENS_PER_MINUTE = "llmTokensPerMinute";
+
+	// ========== Failover ==========
+	// API key, model and base URL are also saved per provider under
+	// "<key>.<PROVIDER>" so backup providers keep their own settings
+	public static final String P_LLM_FAILOVER_PROVIDERS = "llmFailoverProviders";
+	public static final String P_LLM_HEDGING = "llmHedging";
+
+	// ========== Circuit Breaker ==========
+	public static final String P_CIRCUIT_FAILURE_THRESHOLD = "circuitFailureThreshold";
+	public static final String P_CIRCUIT_OPEN_SECONDS = "circuitOpenSeconds";
 
 	public static final String P_DUMP_ANALYZER_PROMPT = "dumpAnalyzerPrompt";
+	public static final String P_DUMP_MAX_SIZE_KB = "dumpMaxSizeKb";
+
+	// ========== Analysis Cache ==========
+	public static final String P_ANALYSIS_CACHE_ENABLED = "analysisCacheEnabled";
+	public static final String P_ANALYSIS_CACHE_TTL_HOURS = "analysisCacheTtlHours";
+	public static final String P_ANALYSIS_CACHE_MAX_SIZE_MB = "analysisCacheMaxSizeMb";
+
+	// ========== Analysis History ==========
+	public static final String P_ANALYSIS_HISTORY_ENABLED = "analysisHistoryEnabled";
+	public static final String P_ANALYSIS_HISTORY_MAX_SIZE_MB = "analysisHistoryMaxSizeMb";
+
+	// ========== Batch Analysis ==========
+	public static final String P_ANALYSIS_MAX_PARALLEL = "analysisMaxParallel";
+	public static final String P_ANALYSIS_GROUP_BY_SIGNATURE = "analysisGroupBySignature";
+	public static final String P_MAP_REDUCE_ENABLED = "mapReduceEnabled";
+
+	// ========== Background Pre-Analysis ==========
+	public static final String P_PRE_ANALYSIS_ENABLED = "preAnalysisEnabled";
+	public static final String P_PRE_ANALYSIS_DAILY_TOKENS = "preAnalysisDailyTokens";
 
 }
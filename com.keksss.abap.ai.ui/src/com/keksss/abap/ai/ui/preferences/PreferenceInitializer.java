@@ -23,23 +23,48 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
 		store.setDefault(PreferenceConstants.P_LLM_BASE_URL, "");
 		store.setDefault(PreferenceConstants.P_LLM_TEMPERATURE, 0.7);
 		store.setDefault(PreferenceConstants.P_LLM_MAX_TOKENS, 2048);
+		store.setDefault(PreferenceConstants.P_LLM_MAX_INPUT_TOKENS, 16000);
+		store.setDefault(PreferenceConstants.P_LLM_FAILOVER_PROVIDERS, "");
+		store.setDefault(PreferenceConstants.P_LLM_HEDGING, false);
+		store.setDefault(PreferenceConstants.P_CIRCUIT_FAILURE_THRESHOLD, 5);
+		store.setDefault(PreferenceConstants.P_CIRCUIT_OPEN_SECONDS, 30);
 
 		// ========== Dump Analyzer Prompt ==========
 		StringBuilder defaultPrompt = new StringBuilder();
 		defaultPrompt.append("You are an expert ABAP developer analyzing a runtime dump/error.\n\n");
-		defaultPrompt.append("Please analyze the following ABAP dump and provide:\n");
+		defaultPrompt.append("Please analyze the ABAP dump below and provide:\n");
 		defaultPrompt.append("1. Root cause analysis\n");
 		defaultPrompt.append("2. Possible solutions or fixes\n");
 		defaultPrompt.append("3. Best practices to prevent this error\n");
 		defaultPrompt.append("4. Any relevant SAP notes or documentation references if applicable\n\n");
+		defaultPrompt.append("Provide a clear, concise analysis that would help a developer resolve this issue. ");
+		defaultPrompt.append("Form the answer as HTML document.\n\n");
+		// Everything above the dump is sent as cacheable system message
 		defaultPrompt.append("ABAP Dump Content:\n");
 		defaultPrompt.append("---\n");
 		defaultPrompt.append("{dump_content}");
-		defaultPrompt.append("\n---\n\n");
-		defaultPrompt.append("Provide a clear, concise analysis that would help a developer resolve this issue.");
-		defaultPrompt.append("Form the answer as HTML document.");
+		defaultPrompt.append("\n---");
 
 		store.setDefault(PreferenceConstants.P_DUMP_ANALYZER_PROMPT, defaultPrompt.toString());
+		store.setDefault(PreferenceConstants.P_DUMP_MAX_SIZE_KB, 4096);
+
+		// ========== Analysis Cache ==========
+		store.setDefault(PreferenceConstants.P_ANALYSIS_CACHE_ENABLED, true);
+		store.setDefault(PreferenceConstants.P_ANALYSIS_CACHE_TTL_HOURS, 168);
+		store.setDefault(PreferenceConstants.P_ANALYSIS_CACHE_MAX_SIZE_MB, 50);
+
+		// ========== Analysis History ==========
+		store.setDefault(PreferenceConstants.P_ANALYSIS_HISTORY_ENABLED, true);
+		store.setDefault(PreferenceConstants.P_ANALYSIS_HISTORY_MAX_SIZE_MB, 100);
+
+		// ========== Batch Analysis ==========
+		store.setDefault(PreferenceConstants.P_ANALYSIS_MAX_PARALLEL, 3);
+		store.setDefault(PreferenceConstants.P_ANALYSIS_GROUP_BY_SIGNATURE, true);
+		store.setDefault(PreferenceConstants.P_MAP_REDUCE_ENABLED, false);
+
+		// ========== Background Pre-Analysis ==========
+		store.setDefault(PreferenceConstants.P_PRE_ANALYSIS_ENABLED, false);
+		store.setDefault(PreferenceConstants.P_PRE_ANALYSIS_DAILY_TOKENS, 200000);
 	}
 
 }
@@ -0,0 +1,228 @@
+package com.keksss.abap.ai.ui.views;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.browser.Browser;
+import org.eclipse.swt.custom.SashForm;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.ui.part.ViewPart;
+
+import com.keksss.abap.ai.core.AnalysisHistory;
+import com.keksss.abap.ai.core.AnalysisHtmlBuilder;
+import com.keksss.abap.ai.core.AnalysisResult;
+
+/**
+ * Browses and searches past analyses kept by {@link AnalysisHistory}. Searches
+ * and result pages run in jobs; the list follows new analyses while the view
+ * is open.
+ */
+public class AbapAiHistoryView extends ViewPart {
+
+    public static final String ID = "com.keksss.abap.ai.ui.views.AbapAiHistoryView";
+
+    private static final int MAX_ENTRIES = 500;
+    private static final int SEARCH_DELAY_MS = 250;
+    private static final int REFRESH_INTERVAL_MS = 2000;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private Text searchText;
+    private Table table;
+    private Browser browser;
+    private long shownVersion = -1;
+    private String shownQuery;
+
+    private final Runnable searchTimer = () -> search(false);
+
+    private final Runnable refreshTimer = new Runnable() {
+        @Override
+        public void run() {
+            if (table == null || table.isDisposed()) {
+                return;
+            }
+            search(false);
+            table.getDisplay().timerExec(REFRESH_INTERVAL_MS, this);
+        }
+    };
+
+    @Override
+    public void createPartControl(Composite parent) {
+        Composite container = new Composite(parent, SWT.NONE);
+        GridLayout layout = new GridLayout(1, false);
+        layout.marginWidth = 0;
+        layout.marginHeight = 0;
+        container.setLayout(layout);
+
+        searchText = new Text(container, SWT.SEARCH | SWT.ICON_SEARCH | SWT.ICON_CANCEL);
+        searchText.setMessage("Search titles, errors, models and results");
+        searchText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        searchText.addModifyListener(event -> {
+            Display display = searchText.getDisplay();
+            display.timerExec(-1, searchTimer);
+            display.timerExec(SEARCH_DELAY_MS, searchTimer);
+        });
+
+        SashForm sash = new SashForm(container, SWT.VERTICAL);
+        sash.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
+
+        table = new Table(sash, SWT.SINGLE | SWT.FULL_SELECTION | SWT.V_SCROLL);
+        table.setHeaderVisible(true);
+        table.setLinesVisible(true);
+        addColumn("Date", 120);
+        addColumn("Title", 300);
+        addColumn("Error", 200);
+        addColumn("Model", 150);
+        table.addListener(SWT.Selection, event -> {
+            if (event.item != null) {
+                showResult((AnalysisHistory.Entry) event.item.getData());
+            }
+        });
+
+        browser = new Browser(sash, SWT.NONE);
+        sash.setWeights(new int[] { 40, 60 });
+
+        IToolBarManager toolBar = getViewSite().getActionBars().getToolBarManager();
+        toolBar.add(new Action("Refresh") {
+            @Override
+            public void run() {
+                search(true);
+            }
+        });
+        toolBar.add(new Action("Clear History") {
+            @Override
+            public void run() {
+                if (MessageDialog.openConfirm(table.getShell(), "Clear History",
+                        "Delete all analyses from the history?")) {
+                    AnalysisHistory.getInstance().clear();
+                    browser.setText("");
+                    search(true);
+                }
+            }
+        });
+
+        search(true);
+        table.getDisplay().timerExec(REFRESH_INTERVAL_MS, refreshTimer);
+    }
+
+    @Override
+    public void setFocus() {
+        if (searchText != null && !searchText.isDisposed()) {
+            searchText.setFocus();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (table != null && !table.isDisposed()) {
+            table.getDisplay().timerExec(-1, refreshTimer);
+            table.getDisplay().timerExec(-1, searchTimer);
+        }
+        super.dispose();
+    }
+
+    private void addColumn(String text, int width) {
+        TableColumn column = new TableColumn(table, SWT.NONE);
+        column.setText(text);
+        column.setWidth(width);
+    }
+
+    /**
+     * Runs the current query in a job unless neither query nor history
+     * changed. Must be called on the UI thread.
+     *
+     * @param force search even if nothing changed
+     */
+    private void search(boolean force) {
+        if (searchText == null || searchText.isDisposed()) {
+            return;
+        }
+        AnalysisHistory history = AnalysisHistory.getInstance();
+        String query = searchText.getText();
+        long version = history.getVersion();
+        if (!force && version == shownVersion && query.equals(shownQuery)) {
+            return;
+        }
+        shownVersion = version;
+        shownQuery = query;
+
+        Display display = table.getDisplay();
+        Job job = new Job("Searching AI analysis history") {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                List<AnalysisHistory.Entry> entries = history.search(query, MAX_ENTRIES);
+                display.asyncExec(() -> showEntries(query, entries));
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.schedule();
+    }
+
+    private void showEntries(String query, List<AnalysisHistory.Entry> entries) {
+        // A newer query was typed meanwhile; its own search will follow
+        if (table.isDisposed() || !query.equals(shownQuery)) {
+            return;
+        }
+        Object selected = table.getSelectionCount() > 0 ? table.getSelection()[0].getData() : null;
+        int selectedId = selected != null ? ((AnalysisHistory.Entry) selected).getId() : -1;
+
+        table.setRedraw(false);
+        table.removeAll();
+        for (AnalysisHistory.Entry entry : entries) {
+            TableItem item = new TableItem(table, SWT.NONE);
+            item.setText(new String[] { toDateTime(entry.getTimestamp()).format(DATE_FORMAT), entry.getTitle(),
+                    entry.getErrorName(), entry.getProvider() + " / " + entry.getModel() });
+            item.setData(entry);
+            if (entry.getId() == selectedId) {
+                table.setSelection(item);
+            }
+        }
+        table.setRedraw(true);
+    }
+
+    /**
+     * Renders the result of an entry in a job and shows it when done
+     */
+    private void showResult(AnalysisHistory.Entry entry) {
+        Display display = browser.getDisplay();
+        Job job = new Job("Loading AI analysis") {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                String text = AnalysisHistory.getInstance().getResult(entry.getId());
+                AnalysisResult result = text != null ? AnalysisResult.success(text)
+                        : AnalysisResult.failure("The analysis is no longer in the history.");
+                String page = AnalysisHtmlBuilder.resultPage(result, toDateTime(entry.getTimestamp()));
+                display.asyncExec(() -> {
+                    if (!browser.isDisposed()) {
+                        browser.setText(page);
+                    }
+                });
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.schedule();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
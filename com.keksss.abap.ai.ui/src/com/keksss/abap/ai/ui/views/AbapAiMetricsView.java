@@ -0,0 +1,159 @@
+package com.keksss.abap.ai.ui.views;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.browser.Browser;
+import org.eclipse.swt.browser.ProgressAdapter;
+import org.eclipse.swt.browser.ProgressEvent;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.part.ViewPart;
+
+import com.keksss.abap.ai.core.AnalysisMetrics;
+import com.keksss.abap.ai.core.MetricsHtmlBuilder;
+
+/**
+ * Shows latency, token usage, cache hits and failures of AI calls per
+ * provider and model. The page is redrawn while the view is open whenever
+ * new values were recorded. Like {@link AbapAiResultView}, the browser loads
+ * a shell page once and later content is built in a job and applied through
+ * a script call, so refreshes neither reload the browser engine nor flicker.
+ */
+public class AbapAiMetricsView extends ViewPart {
+
+    public static final String ID = "com.keksss.abap.ai.ui.views.AbapAiMetricsView";
+
+    private static final int REFRESH_INTERVAL_MS = 2000;
+
+    private static final String SHELL_PAGE = "<!DOCTYPE html><html><head><meta charset='UTF-8'>"
+            + "<style>" + MetricsHtmlBuilder.dashboardStyle() + "</style>"
+            + "<script>"
+            + "function setHtml(id,h){var e=document.getElementById(id);if(e){e.innerHTML=h;}}"
+            + "</script></head><body><div id='root'></div></body></html>";
+
+    private Browser browser;
+    private long shownVersion = -1;
+
+    // Only one page is built at a time; a refresh requested meanwhile follows it
+    private boolean building;
+    private boolean rebuildRequested;
+
+    // Content built before the shell page finished loading
+    private boolean pageLoaded;
+    private String pendingContent;
+
+    private final Runnable refreshTimer = new Runnable() {
+        @Override
+        public void run() {
+            if (browser == null || browser.isDisposed()) {
+                return;
+            }
+            refresh(false);
+            browser.getDisplay().timerExec(REFRESH_INTERVAL_MS, this);
+        }
+    };
+
+    @Override
+    public void createPartControl(Composite parent) {
+        browser = new Browser(parent, SWT.NONE);
+        browser.addProgressListener(new ProgressAdapter() {
+            @Override
+            public void completed(ProgressEvent event) {
+                pageLoaded = true;
+                if (pendingContent != null) {
+                    showContent(pendingContent);
+                }
+            }
+        });
+        browser.setText(SHELL_PAGE);
+
+        IToolBarManager toolBar = getViewSite().getActionBars().getToolBarManager();
+        toolBar.add(new Action("Refresh") {
+            @Override
+            public void run() {
+                refresh(true);
+            }
+        });
+        toolBar.add(new Action("Reset") {
+            @Override
+            public void run() {
+                AnalysisMetrics.getInstance().reset();
+                refresh(true);
+            }
+        });
+
+        refresh(true);
+        browser.getDisplay().timerExec(REFRESH_INTERVAL_MS, refreshTimer);
+    }
+
+    @Override
+    public void setFocus() {
+        if (browser != null && !browser.isDisposed()) {
+            browser.setFocus();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (browser != null && !browser.isDisposed()) {
+            browser.getDisplay().timerExec(-1, refreshTimer);
+        }
+        super.dispose();
+    }
+
+    /**
+     * Builds the page content in a job and shows it when done. Must be called
+     * on the UI thread.
+     *
+     * @param force redraw even if nothing was recorded since the last time
+     */
+    private void refresh(boolean force) {
+        AnalysisMetrics metrics = AnalysisMetrics.getInstance();
+        long version = metrics.getVersion();
+        if (!force && version == shownVersion) {
+            return;
+        }
+        shownVersion = version;
+        if (building) {
+            rebuildRequested = true;
+            return;
+        }
+        building = true;
+
+        Display display = browser.getDisplay();
+        Job job = new Job("Building AI performance dashboard") {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                String content = MetricsHtmlBuilder.dashboardContent(metrics.getModels());
+                display.asyncExec(() -> {
+                    building = false;
+                    if (browser.isDisposed()) {
+                        return;
+                    }
+                    showContent(content);
+                    if (rebuildRequested) {
+                        rebuildRequested = false;
+                        refresh(true);
+                    }
+                });
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.schedule();
+    }
+
+    private void showContent(String content) {
+        if (!pageLoaded) {
+            pendingContent = content;
+            return;
+        }
+        pendingContent = null;
+        browser.execute("setHtml('root','" + AbapAiResultView.escapeJs(content) + "');");
+    }
+}
@@ -2,36 +2,101 @@ package com.keksss.abap.ai.ui.views;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.browser.Browser;
+import org.eclipse.swt.browser.LocationAdapter;
+import org.eclipse.swt.browser.LocationEvent;
+import org.eclipse.swt.browser.ProgressAdapter;
+import org.eclipse.swt.browser.ProgressEvent;
+import org.eclipse.swt.program.Program;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.ui.part.ViewPart;
 
+import com.keksss.abap.ai.core.AnalysisHtmlBuilder;
+import com.keksss.abap.ai.core.MarkdownRenderer;
+
+/**
+ * Shows analysis results. The browser loads a single shell page once; all
+ * later content (results, streamed text, batch sections) is applied through
+ * script calls, so updates neither reload the browser engine nor flicker.
+ */
 public class AbapAiResultView extends ViewPart {
 
     public static final String ID = "com.keksss.abap.ai.ui.views.AbapAiResultView";
 
+    // setRoot replaces the page style and content, appendText only follows the
+    // end of the text if the user has not scrolled away from it
+    private static final String SHELL_PAGE = "<!DOCTYPE html><html><head><meta charset='UTF-8'>"
+            + "<style id='content-style'></style>"
+            + "<script>"
+            + "function setRoot(style,html){document.getElementById('content-style').textContent=style;"
+            + "document.getElementById('root').innerHTML=html;window.scrollTo(0,0);}"
+            + "function setText(id,t){var e=document.getElementById(id);if(e){e.textContent=t;}}"
+            + "function setHtml(id,h){var e=document.getElementById(id);if(e){e.innerHTML=h;}}"
+            + "function appendText(id,t){var e=document.getElementById(id);if(!e){return;}"
+            + "var d=document.documentElement,b=document.body;"
+            + "var atEnd=(window.pageYOffset||d.scrollTop)+window.innerHeight>=Math.max(d.scrollHeight,b.scrollHeight)-30;"
+            + "e.insertAdjacentText('beforeend',t);if(atEnd){window.scrollTo(0,Math.max(d.scrollHeight,b.scrollHeight));}}"
+            + "</script></head><body><div id='root'></div></body></html>";
+
+    private static final String WELCOME_PAGE_STYLE = "body { font-family: sans-serif; padding: 10px; } h1 { font-size: 18px; margin: 0 0 5px 0; } h2 { font-size: 16px; margin: 15px 0 5px 0; } p { margin: 5px 0; } ul { margin: 5px 0; padding-left: 20px; } li { margin-bottom: 5px; } .note { margin-top: 15px; font-style: italic; color: #666; border-top: 1px solid #eee; padding-top: 10px; }";
+
+    private static final String WELCOME_PAGE = "<h1>ABAP AI Tools</h1>" +
+            "<p><b>✨ Your Intelligent ABAP Assistant</b></p>" +
+            "<p>Welcome! This view is designed to help you analyze code and debug runtime errors using Google Gemini AI.</p>"
+            +
+            "<h2>🚀 How to use</h2>" +
+            "<p>To see results here, follow these simple steps:</p>" +
+            "<p><b>For Dump Analysis:</b></p>" +
+            "<ul>" +
+            "<li>Open the <b>Feed Reader</b> view.</li>" +
+            "<li>Right-click on a <b>Runtime Error</b>.</li>" +
+            "<li>Select <b>Explain Dump (AI based)</b>.</li>" +
+            "</ul>" +
+            "<p class=\"note\">Note: Make sure you have provided your Google AI API Key in Window &gt; Preferences &gt; ABAP AI Tools.</p>";
+
+    private static final String STREAM_PAGE_STYLE = "body { font-family: sans-serif; padding: 10px; }"
+            + ".header { color: #555; font-size: 0.9em; margin-bottom: 15px; }"
+            + "#stream { white-space: pre-wrap; font-family: sans-serif; border: 1px solid #ccc; padding: 15px; background-color: #f9f9f9; border-radius: 5px; }";
+
+    private static final String BATCH_PAGE_STYLE = "body { font-family: sans-serif; padding: 10px; }"
+            + ".header { color: #555; font-size: 0.9em; margin-bottom: 15px; }"
+            + ".entry { margin-bottom: 20px; }"
+            + ".title { font-size: 1.1em; font-weight: bold; margin-bottom: 5px; }"
+            + ".status { color: #555; font-size: 0.9em; margin-bottom: 5px; }"
+            + ".content { border: 1px solid #ccc; padding: 15px; background-color: #f9f9f9; border-radius: 5px; }"
+            + ".content:empty { display: none; }"
+            + ".error { color: #a00; }"
+            + MarkdownRenderer.STYLE;
+
     private Browser browser;
 
+    // Text and scripts received before the shell page finished loading
+    private boolean pageLoaded;
+    private final StringBuilder pendingStreamText = new StringBuilder();
+    private final StringBuilder pendingScripts = new StringBuilder();
+
     @Override
     public void createPartControl(Composite parent) {
         browser = new Browser(parent, SWT.NONE);
-        browser.setText(
-                "<html><style>body { font-family: sans-serif; padding: 10px; } h1 { font-size: 18px; margin: 0 0 5px 0; } h2 { font-size: 16px; margin: 15px 0 5px 0; } p { margin: 5px 0; } ul { margin: 5px 0; padding-left: 20px; } li { margin-bottom: 5px; } .note { margin-top: 15px; font-style: italic; color: #666; border-top: 1px solid #eee; padding-top: 10px; }</style><body>"
-                        +
-                        "<h1>ABAP AI Tools</h1>" +
-                        "<p><b>✨ Your Intelligent ABAP Assistant</b></p>" +
-                        "<p>Welcome! This view is designed to help you analyze code and debug runtime errors using Google Gemini AI.</p>"
-                        +
-                        "<h2>🚀 How to use</h2>" +
-                        "<p>To see results here, follow these simple steps:</p>" +
-                        "<p><b>For Dump Analysis:</b></p>" +
-                        "<ul>" +
-                        "<li>Open the <b>Feed Reader</b> view.</li>" +
-                        "<li>Right-click on a <b>Runtime Error</b>.</li>" +
-                        "<li>Select <b>Explain Dump (AI based)</b>.</li>" +
-                        "</ul>" +
-                        "<p class=\"note\">Note: Make sure you have provided your Google AI API Key in Window &gt; Preferences &gt; ABAP AI Tools.</p>"
-                        +
-                        "</body></html>");
+        browser.addProgressListener(new ProgressAdapter() {
+            @Override
+            public void completed(ProgressEvent event) {
+                pageLoaded = true;
+                flushPendingScripts();
+                flushPendingStreamText();
+            }
+        });
+        browser.addLocationListener(new LocationAdapter() {
+            @Override
+            public void changing(LocationEvent event) {
+                // Navigating away would discard the shell page, so links open externally
+                if (pageLoaded && event.location != null && event.location.matches("(?i)https?:.*")) {
+                    event.doit = false;
+                    Program.launch(event.location);
+                }
+            }
+        });
+        setRoot(WELCOME_PAGE_STYLE, WELCOME_PAGE);
+        browser.setText(SHELL_PAGE);
     }
 
     @Override
@@ -41,9 +106,192 @@ public class AbapAiResultView extends ViewPart {
         }
     }
 
+    /**
+     * Replaces the content of the view with an HTML document. Only its styles
+     * and body are applied to the already loaded page.
+     * Must be called on the UI thread.
+     *
+     * @param htmlContent HTML document
+     */
     public void setContent(String htmlContent) {
-        if (browser != null && !browser.isDisposed()) {
-            browser.setText(htmlContent);
+        setContent(AnalysisHtmlBuilder.styles(htmlContent), AnalysisHtmlBuilder.bodyContent(htmlContent));
+    }
+
+    /**
+     * Replaces the content of the view with markup already split into style
+     * sheet and body, so large documents need no parsing on the UI thread.
+     * Must be called on the UI thread.
+     *
+     * @param style style sheet
+     * @param body  body markup
+     */
+    public void setContent(String style, String body) {
+        setRoot(style, body);
+    }
+
+    /**
+     * Shows an empty section that subsequent {@link #appendStreamText(String)}
+     * calls append to.
+     * Must be called on the UI thread.
+     *
+     * @param header status line shown above the streamed text
+     */
+    public void beginStreaming(String header) {
+        setRoot(STREAM_PAGE_STYLE, "<div class='header'>" + escapeHtml(header) + "</div>"
+                + "<div id='stream'></div>");
+    }
+
+    /**
+     * Appends plain text to the page opened by {@link #beginStreaming(String)}.
+     * Must be called on the UI thread.
+     *
+     * @param text text fragment to append
+     */
+    public void appendStreamText(String text) {
+        if (browser == null || browser.isDisposed() || text == null || text.isEmpty()) {
+            return;
+        }
+        pendingStreamText.append(text);
+        if (pageLoaded) {
+            flushPendingStreamText();
+        }
+    }
+
+    /**
+     * Shows one section per batch entry. Sections are updated
+     * independently as analyses progress.
+     * Must be called on the UI thread.
+     *
+     * @param header status line shown above the entries
+     * @param titles entry titles, in display order
+     */
+    public void beginBatch(String header, java.util.List<String> titles) {
+        StringBuilder html = new StringBuilder("<div class='header'>");
+        html.append(escapeHtml(header)).append("</div>");
+        for (int i = 0; i < titles.size(); i++) {
+            html.append("<div class='entry' id='entry-").append(i).append("'>")
+                    .append("<div class='title'>").append(escapeHtml(titles.get(i))).append("</div>")
+                    .append("<div class='status' id='status-").append(i).append("'>Queued</div>")
+                    .append("<div class='content' id='content-").append(i).append("'></div>")
+                    .append("</div>");
+        }
+        setRoot(BATCH_PAGE_STYLE, html.toString());
+    }
+
+    /**
+     * Updates the status line of a batch entry.
+     * Must be called on the UI thread.
+     *
+     * @param index  entry index as passed to {@link #beginBatch(String, java.util.List)}
+     * @param status status text
+     */
+    public void setBatchEntryStatus(int index, String status) {
+        runScript("setText('status-" + index + "','" + escapeJs(status) + "');");
+    }
+
+    /**
+     * Marks a batch entry as a repeat of another entry and links to it.
+     * Must be called on the UI thread.
+     *
+     * @param index       entry index as passed to {@link #beginBatch(String, java.util.List)}
+     * @param status      status text shown before the link
+     * @param targetIndex index of the entry holding the analysis
+     * @param targetTitle title of that entry, used as link text
+     */
+    public void setBatchEntryReference(int index, String status, int targetIndex, String targetTitle) {
+        String html = escapeHtml(status) + " <a href='#' onclick=\"document.getElementById('entry-" + targetIndex
+                + "').scrollIntoView();return false;\">" + escapeHtml(targetTitle) + "</a>";
+        runScript("setHtml('status-" + index + "','" + escapeJs(html) + "');");
+    }
+
+    /**
+     * Shows the result of a batch entry.
+     * Must be called on the UI thread.
+     *
+     * @param index  entry index as passed to {@link #beginBatch(String, java.util.List)}
+     * @param status status text
+     * @param html   result markup
+     */
+    public void setBatchEntryResult(int index, String status, String html) {
+        setBatchEntryStatus(index, status);
+        runScript("setHtml('content-" + index + "','" + escapeJs(html) + "');");
+    }
+
+    private void setRoot(String style, String html) {
+        // Text not yet streamed into the previous content must not end up in the new one
+        pendingStreamText.setLength(0);
+        runScript("setRoot('" + escapeJs(style) + "','" + escapeJs(html) + "');");
+    }
+
+    private void runScript(String script) {
+        if (browser == null || browser.isDisposed()) {
+            return;
+        }
+        pendingScripts.append(script);
+        if (pageLoaded) {
+            flushPendingScripts();
+        }
+    }
+
+    private void flushPendingScripts() {
+        if (pendingScripts.length() == 0 || browser == null || browser.isDisposed()) {
+            return;
+        }
+        String script = pendingScripts.toString();
+        pendingScripts.setLength(0);
+        browser.execute(script);
+    }
+
+    private void flushPendingStreamText() {
+        if (pendingStreamText.length() == 0 || browser == null || browser.isDisposed()) {
+            return;
+        }
+        String script = "appendText('stream','" + escapeJs(pendingStreamText.toString()) + "');";
+        pendingStreamText.setLength(0);
+        runScript(script);
+    }
+
+    private static String escapeHtml(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * Escapes text for a single-quoted JavaScript string literal
+     */
+    static String escapeJs(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\'':
+                    sb.append("\\'");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '<':
+                    // Avoid a literal "</script>" terminating the injected script
+                    sb.append("\\u003c");
+                    break;
+                case '\u2028':
+                    sb.append("\\u2028");
+                    break;
+                case '\u2029':
+                    sb.append("\\u2029");
+                    break;
+                default:
+                    sb.append(c);
+            }
         }
+        return sb.toString();
     }
 }